@@ -3,6 +3,8 @@
 -- ============================================
 -- Run this script in your MS SQL Server database.
 -- It inserts demo customers, allocations, visits, payments, and notifications.
+-- Apply src/main/resources/db/sequence-ids.sql first on databases created before sequence ids:
+-- it gives customers, customer_allocations and app_notifications their id defaults.
 
 USE ops_hub;
 GO
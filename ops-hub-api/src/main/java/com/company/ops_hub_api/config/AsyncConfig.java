@@ -1,11 +1,14 @@
 package com.company.ops_hub_api.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Async Configuration
@@ -15,7 +18,9 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
 
+    // Default executor for unqualified @Async methods
     @Bean(name = "emailTaskExecutor")
+    @Primary
     public Executor emailTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
@@ -25,4 +30,66 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = "uploadTaskExecutor")
+    public Executor uploadTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("upload-async-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Bounded pool for CPU-bound upload row validation; callers run tasks when it is saturated.
+    @Bean(name = "uploadValidationExecutor")
+    public ThreadPoolTaskExecutor uploadValidationExecutor(
+            @Value("${app.uploads.validation.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("upload-validate-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Background refresh of stale dashboard parts; when saturated the stale part keeps being served.
+    @Bean(name = "dashboardRefreshExecutor")
+    public Executor dashboardRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("dashboard-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Drains live update buffers; idle SSE connections hold no thread, only connections with queued events do.
+    @Bean(name = "liveUpdateExecutor")
+    public Executor liveUpdateExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("live-update-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs streamed report responses; each holds a pooled connection, so the pool bounds concurrent streams
+    @Bean(name = "reportStreamExecutor")
+    public ThreadPoolTaskExecutor reportStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("report-stream-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -2,6 +2,7 @@ package com.company.ops_hub_api.controller;
 
 import com.company.ops_hub_api.dto.CustomerUploadHistoryDTO;
 import com.company.ops_hub_api.dto.CustomerUploadPreviewResponseDTO;
+import com.company.ops_hub_api.dto.CustomerUploadProgressDTO;
 import com.company.ops_hub_api.dto.CustomerUploadResultDTO;
 import com.company.ops_hub_api.security.RequiresPermission;
 import com.company.ops_hub_api.service.CustomerUploadService;
@@ -30,9 +31,10 @@ public class CustomerUploadController {
     @PostMapping
     @RequiresPermission("MANAGE_CUSTOMERS")
     public ResponseEntity<CustomerUploadResultDTO> uploadCustomers(
-            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(value = "previewToken", required = false) String previewToken,
             HttpServletRequest request) {
-        return ResponseEntity.ok(customerUploadService.upload(file, request));
+        return ResponseEntity.accepted().body(customerUploadService.upload(file, previewToken, request));
     }
 
     @GetMapping("/history")
@@ -46,4 +48,10 @@ public class CustomerUploadController {
     public ResponseEntity<CustomerUploadResultDTO> getUploadResult(@PathVariable Long uploadId) {
         return ResponseEntity.ok(customerUploadService.getUploadResult(uploadId));
     }
+
+    @GetMapping("/{uploadId}/progress")
+    @RequiresPermission("MANAGE_CUSTOMERS")
+    public ResponseEntity<CustomerUploadProgressDTO> getUploadProgress(@PathVariable Long uploadId) {
+        return ResponseEntity.ok(customerUploadService.getUploadProgress(uploadId));
+    }
 }
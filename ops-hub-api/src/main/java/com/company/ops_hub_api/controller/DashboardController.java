@@ -1,13 +1,20 @@
 package com.company.ops_hub_api.controller;
 
 import com.company.ops_hub_api.dto.DashboardResponseDTO;
+import com.company.ops_hub_api.dto.DashboardTrendPointDTO;
 import com.company.ops_hub_api.security.RequiresPermission;
 import com.company.ops_hub_api.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 
 @RestController
@@ -19,7 +26,20 @@ public class DashboardController {
 
     @GetMapping
     @RequiresPermission("VIEW_CUSTOMERS")
-    public ResponseEntity<DashboardResponseDTO> getDashboard() {
-        return ResponseEntity.ok(dashboardService.getDashboard());
+    public ResponseEntity<DashboardResponseDTO> getDashboard(WebRequest request) {
+        DashboardService.CachedDashboard dashboard = dashboardService.getDashboard();
+        if (request.checkNotModified(dashboard.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(dashboard.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(dashboard.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(dashboard.body());
+    }
+
+    @GetMapping("/trend")
+    @RequiresPermission("VIEW_CUSTOMERS")
+    public ResponseEntity<List<DashboardTrendPointDTO>> getTrend(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(dashboardService.getTrend(days));
     }
 }
@@ -0,0 +1,66 @@
+package com.company.ops_hub_api.controller;
+
+import com.company.ops_hub_api.security.RequiresPermission;
+import com.company.ops_hub_api.security.UserPrincipal;
+import com.company.ops_hub_api.service.LiveUpdateService;
+import com.company.ops_hub_api.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * Live Update Controller
+ * Server-sent event stream replacing dashboard and notification polling. Events:
+ * {@code notification} (a new notification), {@code kpi} (deltas to the dashboard totals of the
+ * caller's scope) and {@code dashboard} (the caller's own figures changed; refetch /dashboard).
+ * The stream authenticates with a ticket from {@code POST /live/ticket}.
+ */
+@RestController
+@RequestMapping("/live")
+@RequiredArgsConstructor
+public class LiveUpdateController {
+
+    private final LiveUpdateService liveUpdateService;
+    private final JwtUtil jwtUtil;
+
+    @Value("${app.live.ticket-seconds:60}")
+    private long ticketSeconds;
+
+    /**
+     * Short-lived ticket for {@code GET /live/stream?ticket=...}; EventSource cannot send the
+     * Authorization header. Clients fetch a new ticket for every (re)connect.
+     */
+    @PostMapping("/ticket")
+    @RequiresPermission({"VIEW_NOTIFICATIONS", "VIEW_CUSTOMERS"})
+    public ResponseEntity<Map<String, Object>> ticket() {
+        UserPrincipal userPrincipal = currentPrincipal();
+        String ticket = jwtUtil.generateStreamTicket(userPrincipal.getEmployeeId(), userPrincipal.getUsername(),
+                ticketSeconds * 1000);
+        return ResponseEntity.ok(Map.of("ticket", ticket, "expiresInSeconds", ticketSeconds));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequiresPermission({"VIEW_NOTIFICATIONS", "VIEW_CUSTOMERS"})
+    public SseEmitter stream() {
+        return liveUpdateService.subscribe(currentPrincipal());
+    }
+
+    private UserPrincipal currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new AccessDeniedException("User not authenticated");
+        }
+        return userPrincipal;
+    }
+}
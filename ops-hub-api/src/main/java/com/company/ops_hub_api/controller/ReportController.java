@@ -6,14 +6,21 @@ import com.company.ops_hub_api.domain.ReportExport;
 import com.company.ops_hub_api.service.ExportService;
 import com.company.ops_hub_api.service.ReportService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -27,11 +34,22 @@ import java.util.Map;
  */
 @RestController
 @RequestMapping("/reports")
-@RequiredArgsConstructor
 public class ReportController {
 
     private final ReportService reportService;
     private final ExportService exportService;
+    private final ThreadPoolTaskExecutor reportStreamExecutor;
+    private final long streamTimeoutMillis;
+
+    public ReportController(ReportService reportService,
+                            ExportService exportService,
+                            @Qualifier("reportStreamExecutor") ThreadPoolTaskExecutor reportStreamExecutor,
+                            @Value("${app.reports.stream.timeout-minutes:30}") long streamTimeoutMinutes) {
+        this.reportService = reportService;
+        this.exportService = exportService;
+        this.reportStreamExecutor = reportStreamExecutor;
+        this.streamTimeoutMillis = streamTimeoutMinutes * 60_000;
+    }
 
     /**
      * Get all available reports
@@ -55,33 +73,49 @@ public class ReportController {
 
     /**
      * Get report data
+     * Paged when the body carries "limit", "cursor" or "sort"; the response then includes
+     * "nextCursor" for the following page.
      */
     @RequiresPermission("VIEW_REPORTS")
     @PostMapping("/{reportId}/data")
-    @SuppressWarnings("unchecked")
     public ResponseEntity<ReportDataDTO> getReportData(
             @PathVariable Long reportId,
             @RequestBody(required = false) Map<String, Object> requestBody,
             HttpServletRequest httpRequest) {
         
-        Map<String, Object> parameters = null;
-        Map<String, Object> filters = null;
-        
-        if (requestBody != null) {
-            Object paramsObj = requestBody.get("parameters");
-            if (paramsObj instanceof Map) {
-                parameters = (Map<String, Object>) paramsObj;
-            }
-            Object filtersObj = requestBody.get("filters");
-            if (filtersObj instanceof Map) {
-                filters = (Map<String, Object>) filtersObj;
-            }
-        }
-        
-        ReportDataDTO data = reportService.getReportData(reportId, parameters, filters, httpRequest);
+        ReportDataDTO data = reportService.getReportData(reportId, section(requestBody, "parameters"),
+                section(requestBody, "filters"), pageRequest(requestBody), httpRequest);
         return ResponseEntity.ok(data);
     }
 
+    /**
+     * Stream report data as NDJSON or CSV (?format=ndjson|csv)
+     * Rows are written as they are read, so large reports start arriving immediately. The body is
+     * written on the bounded report stream pool with its own timeout; other async requests keep
+     * the MVC defaults.
+     */
+    @RequiresPermission("VIEW_REPORTS")
+    @PostMapping(value = "/{reportId}/data", params = "format")
+    public WebAsyncTask<Void> streamReportData(
+            @PathVariable Long reportId,
+            @RequestParam String format,
+            @RequestBody(required = false) Map<String, Object> requestBody,
+            HttpServletResponse response) {
+        StreamingResponseBody body = reportService.streamReportData(reportId, section(requestBody, "parameters"),
+                section(requestBody, "filters"), format);
+        if ("csv".equalsIgnoreCase(format.trim())) {
+            response.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8).toString());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-" + reportId + ".csv\"");
+        } else {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        }
+        return new WebAsyncTask<>(streamTimeoutMillis, reportStreamExecutor, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
     /**
      * Request report export
      */
@@ -155,4 +189,31 @@ public class ReportController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    private static ReportPageRequestDTO pageRequest(Map<String, Object> requestBody) {
+        if (requestBody == null || !(requestBody.containsKey("limit") || requestBody.containsKey("cursor")
+                || requestBody.containsKey("sort"))) {
+            return null;
+        }
+        Object limit = requestBody.get("limit");
+        Object cursor = requestBody.get("cursor");
+        Object sort = requestBody.get("sort");
+        List<String> sortKeys = null;
+        if (sort instanceof List<?> list) {
+            sortKeys = list.stream().filter(java.util.Objects::nonNull).map(Object::toString).toList();
+        } else if (sort instanceof String text && !text.isBlank()) {
+            sortKeys = List.of(text.split(","));
+        }
+        return ReportPageRequestDTO.builder()
+                .limit(limit instanceof Number number ? Integer.valueOf(number.intValue()) : null)
+                .cursor(cursor != null ? cursor.toString() : null)
+                .sort(sortKeys)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> requestBody, String key) {
+        Object value = requestBody != null ? requestBody.get(key) : null;
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
 }
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class AppNotification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_notifications_seq")
+    @SequenceGenerator(name = "app_notifications_seq", sequenceName = "app_notifications_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
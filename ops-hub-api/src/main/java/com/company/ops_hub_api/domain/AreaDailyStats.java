@@ -0,0 +1,74 @@
+package com.company.ops_hub_api.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Area Daily Stats
+ * Rollup of one area's customers, allocations, payments and visits for one day. Rows are written
+ * with native statements by AreaRollupService; the entity only defines the table.
+ */
+@Entity
+@Table(name = "area_daily_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AreaDailyStats {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, name = "customers_created")
+    private long customersCreated;
+
+    @Column(nullable = false, precision = 18, scale = 2, name = "pending_amount")
+    private BigDecimal pendingAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false, name = "allocations_active")
+    private long allocationsActive;
+
+    @Column(nullable = false, name = "payments_initiated")
+    private long paymentsInitiated;
+
+    @Column(nullable = false, name = "payments_success")
+    private long paymentsSuccess;
+
+    @Column(nullable = false, name = "payments_failed")
+    private long paymentsFailed;
+
+    @Column(nullable = false, precision = 18, scale = 2, name = "amount_initiated")
+    private BigDecimal amountInitiated = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 18, scale = 2, name = "amount_collected")
+    private BigDecimal amountCollected = BigDecimal.ZERO;
+
+    @Column(nullable = false, name = "visits_total")
+    private long visitsTotal;
+
+    @Column(nullable = false, name = "visits_completed")
+    private long visitsCompleted;
+
+    @Column(nullable = false, name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        // 0 for customers without an area
+        @Column(nullable = false, name = "area_id")
+        private Long areaId;
+
+        @Column(nullable = false, name = "stat_date")
+        private LocalDate statDate;
+    }
+}
@@ -0,0 +1,32 @@
+package com.company.ops_hub_api.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Area Rollup Queue Entry
+ * An area_daily_stats bucket touched by a committed write and not yet recomputed. Rows are inserted
+ * and claimed with native statements by AreaRollupService; the entity only defines the table.
+ */
+@Entity
+@Table(name = "area_rollup_queue")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AreaRollupQueueEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 0 for customers without an area
+    @Column(nullable = false, name = "area_id")
+    private Long areaId;
+
+    @Column(nullable = false, name = "stat_date")
+    private LocalDate statDate;
+}
@@ -1,5 +1,6 @@
 package com.company.ops_hub_api.domain;
 
+import com.company.ops_hub_api.service.GeographyChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,7 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "circles")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, GeographyChangeListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
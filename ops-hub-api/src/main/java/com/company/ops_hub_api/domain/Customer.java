@@ -1,5 +1,7 @@
 package com.company.ops_hub_api.domain;
 
+import com.company.ops_hub_api.service.CustomerDuplicateIndexListener;
+import com.company.ops_hub_api.service.GeographyPathListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,14 +15,15 @@ import java.util.List;
 
 @Entity
 @Table(name = "customers")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, GeographyPathListener.class, CustomerDuplicateIndexListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Customer {
+public class Customer implements GeographyPathAware {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50, name = "customer_code")
@@ -72,6 +75,16 @@ public class Customer {
     @JoinColumn(name = "area_id")
     private Area area;
 
+    // Denormalized from area; kept in sync by GeographyPathListener
+    @Column(name = "zone_id")
+    private Long zoneId;
+
+    @Column(name = "circle_id")
+    private Long circleId;
+
+    @Column(name = "cluster_id")
+    private Long clusterId;
+
     @Column(nullable = false, length = 50)
     private String status = "NEW"; // NEW, ASSIGNED, VISITED, PAYMENT_PENDING, PAID, CLOSED
 
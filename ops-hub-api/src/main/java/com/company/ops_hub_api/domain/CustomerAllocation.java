@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class CustomerAllocation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_allocations_seq")
+    @SequenceGenerator(name = "customer_allocations_seq", sequenceName = "customer_allocations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -54,4 +55,7 @@ public class CustomerAllocation {
 
     @Column(length = 1000)
     private String notes;
+
+    @Column(name = "upload_id")
+    private Long uploadId; // Customer upload that made the allocation, if any
 }
@@ -40,6 +40,13 @@ public class CustomerUpload {
     @Column(nullable = false, name = "failed_rows")
     private Integer failedRows = 0;
 
+    // Progress of the background job; rows before processedRows are already committed.
+    @Column(nullable = false, name = "processed_rows", columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer processedRows = 0;
+
+    @Column(nullable = false, name = "current_chunk", columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer currentChunk = 0;
+
     @Column(nullable = false, length = 50, name = "upload_status")
     private String uploadStatus = "PENDING"; // PENDING, PROCESSING, COMPLETED, FAILED
 
@@ -57,6 +64,12 @@ public class CustomerUpload {
     @Column(name = "error_summary", columnDefinition = "NVARCHAR(MAX)")
     private String errorSummary;
 
+    @Column(length = 200, name = "lease_owner")
+    private String leaseOwner; // Instance processing the upload
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     @OneToMany(mappedBy = "upload", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<CustomerUploadError> errors;
 }
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class CustomerUploadError {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_upload_errors_seq")
+    @SequenceGenerator(name = "customer_upload_errors_seq", sequenceName = "customer_upload_errors_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,22 @@
+package com.company.ops_hub_api.domain;
+
+/**
+ * Entity assigned to an area that also stores the zone, circle and cluster above it,
+ * so scope filters can read them from its own row instead of joining the hierarchy.
+ */
+public interface GeographyPathAware {
+
+    Area getArea();
+
+    Long getZoneId();
+
+    void setZoneId(Long zoneId);
+
+    Long getCircleId();
+
+    void setCircleId(Long circleId);
+
+    Long getClusterId();
+
+    void setClusterId(Long clusterId);
+}
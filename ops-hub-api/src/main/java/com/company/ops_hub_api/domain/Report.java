@@ -1,5 +1,6 @@
 package com.company.ops_hub_api.domain;
 
+import com.company.ops_hub_api.service.ReportChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,7 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "reports")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, ReportChangeListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,6 @@
 package com.company.ops_hub_api.domain;
 
+import com.company.ops_hub_api.service.GeographyPathListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,11 +14,11 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, GeographyPathListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class User {
+public class User implements GeographyPathAware {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -48,6 +49,16 @@ public class User {
     @JoinColumn(name = "area_id", nullable = false)
     private Area area;
 
+    // Denormalized from area; kept in sync by GeographyPathListener
+    @Column(name = "zone_id")
+    private Long zoneId;
+
+    @Column(name = "circle_id")
+    private Long circleId;
+
+    @Column(name = "cluster_id")
+    private Long clusterId;
+
     @Column(nullable = false, length = 50)
     private String role = "ANALYST"; // ADMIN, MANAGER, ANALYST (for access control)
 
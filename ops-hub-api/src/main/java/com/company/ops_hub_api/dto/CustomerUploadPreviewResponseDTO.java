@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -12,6 +13,8 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class CustomerUploadPreviewResponseDTO {
+    private String previewToken;
+    private LocalDateTime previewExpiresAt;
     private String fileName;
     private Integer totalRows;
     private Integer validRows;
@@ -0,0 +1,21 @@
+package com.company.ops_hub_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerUploadProgressDTO {
+    private Long uploadId;
+    private String status;
+    private Integer totalRows;
+    private Integer processedRows;
+    private Integer currentChunk;
+    private Integer successfulRows;
+    private Integer failedRows;
+    private Integer percentComplete;
+}
@@ -1,9 +1,11 @@
 package com.company.ops_hub_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -23,6 +25,13 @@ public class CustomerUploadRowDTO {
     private String zone;
     private String area;
     private String store;
+    // Computed once during validation and reused for duplicate checks and inserts
+    @JsonIgnore
+    @ToString.Exclude
+    private String phoneEncrypted;
+    @JsonIgnore
+    @ToString.Exclude
+    private String emailEncrypted;
     private boolean valid;
     private List<String> errors;
 }
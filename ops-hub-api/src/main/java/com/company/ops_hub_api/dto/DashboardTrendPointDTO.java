@@ -0,0 +1,19 @@
+package com.company.ops_hub_api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class DashboardTrendPointDTO {
+    private LocalDate date;
+    private long newCustomers;
+    private long paymentsInitiated;
+    private long paymentsSuccessful;
+    private BigDecimal collectedAmount;
+    private long visits;
+    private long visitsCompleted;
+}
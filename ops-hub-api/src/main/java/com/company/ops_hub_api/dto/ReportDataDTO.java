@@ -1,11 +1,11 @@
 package com.company.ops_hub_api.dto;
 
+import com.company.ops_hub_api.util.ReportTable;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,8 +20,10 @@ public class ReportDataDTO {
     private Long reportId;
     private String reportCode;
     private String reportName;
-    private List<Map<String, Object>> data;
+    private ReportTable data; // Serialized as a list of row objects
     private Integer recordCount;
     private Map<String, Object> metadata;
     private Map<String, Object> filtersApplied;
+    private String nextCursor; // Set on paged requests while more rows follow
+    private Boolean hasMore;
 }
@@ -0,0 +1,23 @@
+package com.company.ops_hub_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Report Page Request DTO
+ * Keyset page of report data: page size, the cursor returned with the previous page and the sort
+ * keys ("createdAt", or "-createdAt" for descending) chosen from the report's sortable columns
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportPageRequestDTO {
+    private Integer limit;
+    private String cursor;
+    private List<String> sort;
+}
@@ -1,6 +1,7 @@
 package com.company.ops_hub_api.repository;
 
 import com.company.ops_hub_api.domain.AppNotification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +15,8 @@ public interface AppNotificationRepository extends JpaRepository<AppNotification
 
     List<AppNotification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    List<AppNotification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
     @Query("SELECT n FROM AppNotification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
     List<AppNotification> findRecentByUserId(@Param("userId") Long userId);
 
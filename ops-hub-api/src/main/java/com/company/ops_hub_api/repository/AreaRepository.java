@@ -2,6 +2,7 @@ package com.company.ops_hub_api.repository;
 
 import com.company.ops_hub_api.domain.Area;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,15 @@ public interface AreaRepository extends JpaRepository<Area, Long> {
     Optional<Area> findByNameIgnoreCase(String name);
     List<Area> findByZoneId(Long zoneId);
     boolean existsByCode(String code);
+
+    @Query("SELECT a.id AS areaId, z.id AS zoneId, ci.id AS circleId, ci.cluster.id AS clusterId " +
+           "FROM Area a JOIN a.zone z JOIN z.circle ci")
+    List<AreaPathRow> findAllPaths();
+
+    interface AreaPathRow {
+        Long getAreaId();
+        Long getZoneId();
+        Long getCircleId();
+        Long getClusterId();
+    }
 }
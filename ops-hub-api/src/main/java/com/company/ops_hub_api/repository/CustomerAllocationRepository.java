@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +18,19 @@ public interface CustomerAllocationRepository extends JpaRepository<CustomerAllo
     
     @Query("SELECT a FROM CustomerAllocation a WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
     List<CustomerAllocation> findActiveAllocationsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT a.customer.id FROM CustomerAllocation a WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
+    List<Long> findActiveCustomerIdsByUserId(@Param("userId") Long userId);
     
     @Query("SELECT a FROM CustomerAllocation a WHERE a.customer.id = :customerId AND a.user.id = :userId AND a.status = 'ACTIVE'")
     Optional<CustomerAllocation> findActiveAllocationByCustomerAndUser(
             @Param("customerId") Long customerId, 
             @Param("userId") Long userId);
     
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM CustomerAllocation a " +
+           "WHERE a.user.id = :userId AND a.customer.id = :customerId AND a.status = 'ACTIVE'")
+    boolean existsActiveByUserIdAndCustomerId(@Param("userId") Long userId, @Param("customerId") Long customerId);
+
     List<CustomerAllocation> findByCustomerId(Long customerId);
     List<CustomerAllocation> findByUserId(Long userId);
     List<CustomerAllocation> findByStatus(String status);
@@ -30,14 +38,19 @@ public interface CustomerAllocationRepository extends JpaRepository<CustomerAllo
     @Query("SELECT COUNT(a) FROM CustomerAllocation a WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
     long countActiveByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT COUNT(a) FROM CustomerAllocation a WHERE a.status = 'ACTIVE' AND a.customer.id IN :customerIds")
-    long countActiveByCustomerIds(@Param("customerIds") List<Long> customerIds);
+    @Query("SELECT a.user.id AS userId, COUNT(a) AS allocationCount FROM CustomerAllocation a " +
+           "WHERE a.status = 'ACTIVE' AND a.user.id IN :userIds GROUP BY a.user.id")
+    List<UserAllocationCount> countActiveGroupedByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT a.user.id AS userId, COUNT(a) AS allocationCount FROM CustomerAllocation a " +
+           "WHERE a.uploadId = :uploadId GROUP BY a.user.id")
+    List<UserAllocationCount> countByUploadIdGroupedByUser(@Param("uploadId") Long uploadId);
 
     @Query("SELECT COUNT(a) FROM CustomerAllocation a WHERE a.status = 'ACTIVE' AND a.customer.id = :customerId")
     long countActiveByCustomerId(@Param("customerId") Long customerId);
 
-    @Query("SELECT a FROM CustomerAllocation a WHERE a.status = :status AND a.customer.id IN :customerIds")
-    List<CustomerAllocation> findByStatusAndCustomerIdIn(
-            @Param("status") String status,
-            @Param("customerIds") List<Long> customerIds);
+    interface UserAllocationCount {
+        Long getUserId();
+        long getAllocationCount();
+    }
 }
@@ -6,9 +6,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.math.BigDecimal;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -20,27 +22,50 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
     List<Customer> findCustomersByAssignedUserId(@Param("userId") Long userId);
     
+    @Query("SELECT c FROM Customer c " +
+           "WHERE c.area.id = :areaId AND EXISTS (SELECT 1 FROM CustomerAllocation a " +
+           "WHERE a.customer = c AND a.user.id = :userId AND a.status = 'ACTIVE')")
+    List<Customer> findAssignedByUserIdAndAreaId(@Param("userId") Long userId, @Param("areaId") Long areaId);
+
     @Query("SELECT c FROM Customer c WHERE c.area.id = :areaId")
     List<Customer> findByAreaId(@Param("areaId") Long areaId);
 
-    List<Customer> findByAreaZoneId(Long zoneId);
-    List<Customer> findByAreaZoneCircleId(Long circleId);
-    List<Customer> findByAreaZoneCircleClusterId(Long clusterId);
+    List<Customer> findByZoneId(Long zoneId);
+    List<Customer> findByCircleId(Long circleId);
+    List<Customer> findByClusterId(Long clusterId);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.area.id = :areaId")
+    List<Long> findIdsByAreaId(@Param("areaId") Long areaId);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.zoneId = :zoneId")
+    List<Long> findIdsByZoneId(@Param("zoneId") Long zoneId);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.circleId = :circleId")
+    List<Long> findIdsByCircleId(@Param("circleId") Long circleId);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.clusterId = :clusterId")
+    List<Long> findIdsByClusterId(@Param("clusterId") Long clusterId);
     
     List<Customer> findByStatus(String status);
 
     @Query("SELECT COALESCE(SUM(c.pendingAmount), 0) FROM Customer c")
     BigDecimal sumPendingAmountAll();
 
-    @Query("SELECT COALESCE(SUM(c.pendingAmount), 0) FROM Customer c WHERE c.id IN :customerIds")
-    BigDecimal sumPendingAmountByIds(@Param("customerIds") List<Long> customerIds);
-
     @Query("SELECT COUNT(c) FROM Customer c WHERE c.status = :status")
     long countByStatusValue(@Param("status") String status);
 
-    @Query("SELECT COUNT(c) FROM Customer c WHERE c.status = :status AND c.id IN :customerIds")
-    long countByStatusValueAndIds(@Param("status") String status, @Param("customerIds") List<Long> customerIds);
-
     boolean existsByPhoneEncrypted(String phoneEncrypted);
     boolean existsByEmailEncrypted(String emailEncrypted);
+
+    @Query("SELECT c.phoneEncrypted FROM Customer c WHERE c.phoneEncrypted IN :values")
+    List<String> findExistingPhoneEncrypted(@Param("values") Collection<String> values);
+
+    @Query("SELECT c.emailEncrypted FROM Customer c WHERE c.emailEncrypted IN :values")
+    List<String> findExistingEmailEncrypted(@Param("values") Collection<String> values);
+
+    @Query("SELECT c.phoneEncrypted FROM Customer c WHERE c.phoneEncrypted IS NOT NULL")
+    Stream<String> streamAllPhoneEncrypted();
+
+    @Query("SELECT c.emailEncrypted FROM Customer c WHERE c.emailEncrypted IS NOT NULL")
+    Stream<String> streamAllEmailEncrypted();
 }
@@ -0,0 +1,61 @@
+package com.company.ops_hub_api.repository;
+
+import com.company.ops_hub_api.domain.CustomerAllocation;
+import com.company.ops_hub_api.service.CustomerScope;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Customer Scope Repository
+ * Scope-predicate entity queries. The scope is applied in SQL against the customer's
+ * denormalized area/zone/circle/cluster columns, or through active allocations for user
+ * scopes, with the scope id as the only bind parameter. Each query has one statement text
+ * per scope type, so plans are reused across users. Scoped counts and sums live in
+ * {@link com.company.ops_hub_api.service.ScopedKpiService}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerScopeRepository {
+
+    private static final String SCOPE_ID = "scopeId";
+
+    private final EntityManager entityManager;
+
+    public List<CustomerAllocation> findActiveAllocations(CustomerScope scope) {
+        TypedQuery<CustomerAllocation> query = entityManager.createQuery(
+                scoped("SELECT a FROM CustomerAllocation a JOIN a.customer c WHERE a.status = 'ACTIVE'", "c", scope),
+                CustomerAllocation.class);
+        if (!scope.isUnrestricted()) {
+            query.setParameter(SCOPE_ID, scope.id());
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * JPQL predicate restricting {@code customerAlias} to the scope, bound to {@code :scopeId};
+     * null for the unrestricted scope.
+     */
+    public static String predicate(CustomerScope scope, String customerAlias) {
+        return switch (scope.type()) {
+            case ALL -> null;
+            case AREA -> customerAlias + ".area.id = :" + SCOPE_ID;
+            case ZONE -> customerAlias + ".zoneId = :" + SCOPE_ID;
+            case CIRCLE -> customerAlias + ".circleId = :" + SCOPE_ID;
+            case CLUSTER -> customerAlias + ".clusterId = :" + SCOPE_ID;
+            case ALLOCATED -> "EXISTS (SELECT 1 FROM CustomerAllocation sa WHERE sa.customer = " + customerAlias +
+                    " AND sa.user.id = :" + SCOPE_ID + " AND sa.status = 'ACTIVE')";
+        };
+    }
+
+    private String scoped(String jpql, String customerAlias, CustomerScope scope) {
+        String predicate = predicate(scope, customerAlias);
+        if (predicate == null) {
+            return jpql;
+        }
+        return jpql + (jpql.contains(" WHERE ") ? " AND " : " WHERE ") + predicate;
+    }
+}
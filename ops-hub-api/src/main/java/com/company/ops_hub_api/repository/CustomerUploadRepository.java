@@ -2,11 +2,29 @@ package com.company.ops_hub_api.repository;
 
 import com.company.ops_hub_api.domain.CustomerUpload;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CustomerUploadRepository extends JpaRepository<CustomerUpload, Long> {
     List<CustomerUpload> findByUploadedByIdOrderByUploadedAtDesc(Long uploadedById);
+
+    List<CustomerUpload> findByUploadStatusIn(Collection<String> uploadStatuses);
+
+    /**
+     * Takes or renews the processing lease of an unfinished upload unless another owner holds an
+     * unexpired one. Returns the number of rows updated (0 or 1).
+     */
+    @Modifying
+    @Query("UPDATE CustomerUpload u SET u.leaseOwner = :owner, u.leaseExpiresAt = :expiresAt " +
+           "WHERE u.id = :id AND u.uploadStatus IN ('PENDING', 'PROCESSING') " +
+           "AND (u.leaseOwner IS NULL OR u.leaseOwner = :owner OR u.leaseExpiresAt < :now)")
+    int claimLease(@Param("id") Long id, @Param("owner") String owner,
+                   @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
 }
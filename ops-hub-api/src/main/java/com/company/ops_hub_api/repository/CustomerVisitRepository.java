@@ -35,9 +35,6 @@ public interface CustomerVisitRepository extends JpaRepository<CustomerVisit, Lo
 
     long countByUserId(Long userId);
 
-    @Query("SELECT COUNT(v) FROM CustomerVisit v WHERE v.customer.id IN :customerIds")
-    long countByCustomerIds(@Param("customerIds") List<Long> customerIds);
-
     @Query("SELECT COUNT(v) FROM CustomerVisit v WHERE v.user.id = :userId AND v.visitDate BETWEEN :start AND :end")
     long countByUserIdAndVisitDateBetween(@Param("userId") Long userId,
                                           @Param("start") java.time.LocalDateTime start,
@@ -4,6 +4,7 @@ import com.company.ops_hub_api.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,14 +14,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     List<User> findByAreaId(Long areaId);
-    List<User> findByAreaZoneCircleClusterId(Long clusterId);
-    List<User> findByAreaZoneId(Long zoneId);
-    List<User> findByAreaZoneIdAndUserType(Long zoneId, String userType);
+    List<User> findByClusterId(Long clusterId);
+    List<User> findByZoneId(Long zoneId);
+    List<User> findByZoneIdAndUserType(Long zoneId, String userType);
     boolean existsByEmployeeId(String employeeId);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-    List<User> findByAreaZoneCircleId(Long circleId);
+    List<User> findByCircleId(Long circleId);
     List<User> findByAreaIdAndUserType(Long areaId, String userType);
-    List<User> findByAreaZoneCircleIdAndUserType(Long circleId, String userType);
-    List<User> findByAreaZoneCircleClusterIdAndUserType(Long clusterId, String userType);
+    List<User> findByAreaIdInAndUserType(Collection<Long> areaIds, String userType);
+    List<User> findByCircleIdAndUserType(Long circleId, String userType);
+    List<User> findByClusterIdAndUserType(Long clusterId, String userType);
+    long countByAreaId(Long areaId);
+    long countByZoneId(Long zoneId);
+    long countByCircleId(Long circleId);
+    long countByClusterId(Long clusterId);
 }
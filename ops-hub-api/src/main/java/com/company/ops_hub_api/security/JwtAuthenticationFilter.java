@@ -20,6 +20,8 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/live/stream";
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
 
@@ -31,16 +33,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
+        final boolean bearer = authHeader != null && authHeader.startsWith("Bearer ");
+        // EventSource cannot send headers, so the live stream authenticates with a ticket parameter
+        final String ticket = !bearer && STREAM_PATH.equals(request.getServletPath())
+                ? request.getParameter("ticket")
+                : null;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (!bearer && ticket == null) {
             chain.doFilter(request, response);
             return;
         }
 
         try {
-            final String jwt = authHeader.substring(7);
+            final String jwt = bearer ? authHeader.substring(7) : ticket;
             final String employeeId = jwtUtil.extractEmployeeId(jwt);
 
+            // Tickets only open the stream, and session tokens never travel in URLs
+            if (jwtUtil.isStreamTicket(jwt) != (ticket != null)) {
+                chain.doFilter(request, response);
+                return;
+            }
+
             if (employeeId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 if (jwtUtil.validateToken(jwt, employeeId)) {
                     // Load user with roles and permissions
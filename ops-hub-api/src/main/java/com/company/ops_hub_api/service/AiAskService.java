@@ -8,11 +8,7 @@ import com.company.ops_hub_api.dto.AiAskResponseDTO;
 import com.company.ops_hub_api.repository.AiActionRepository;
 import com.company.ops_hub_api.repository.AiConversationRepository;
 import com.company.ops_hub_api.repository.AppNotificationRepository;
-import com.company.ops_hub_api.repository.CustomerAllocationRepository;
-import com.company.ops_hub_api.repository.CustomerRepository;
 import com.company.ops_hub_api.repository.CustomerUploadRepository;
-import com.company.ops_hub_api.repository.CustomerVisitRepository;
-import com.company.ops_hub_api.repository.PaymentRepository;
 import com.company.ops_hub_api.repository.UserRepository;
 import com.company.ops_hub_api.security.UserPrincipal;
 import com.company.ops_hub_api.util.HierarchyUtil;
@@ -30,7 +26,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -45,16 +40,13 @@ public class AiAskService {
     private final AiConversationRepository conversationRepository;
     private final AiActionRepository actionRepository;
     private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
-    private final CustomerAllocationRepository allocationRepository;
-    private final CustomerVisitRepository visitRepository;
-    private final PaymentRepository paymentRepository;
     private final CustomerUploadRepository uploadRepository;
     private final AppNotificationRepository notificationRepository;
     private final AuditLogService auditLogService;
     private final ObjectMapper objectMapper;
     private final EntityManager entityManager;
     private final ReportDataFilter dataFilter;
+    private final ScopedKpiService kpiService;
     private final AiIntentDetector intentDetector;
     private final AiPromptBuilder promptBuilder;
     private final OllamaClient ollamaClient;
@@ -111,86 +103,38 @@ public class AiAskService {
     }
 
     private String buildGeneralSummary(User user) {
-        Set<Long> accessibleCustomerIds = dataFilter.getAccessibleCustomerIds(user);
-        List<Long> customerIds = accessibleCustomerIds != null ? new ArrayList<>(accessibleCustomerIds) : List.of();
-        boolean hasScope = accessibleCustomerIds != null && !customerIds.isEmpty();
-
-        long customerCount = accessibleCustomerIds == null
-                ? customerRepository.count()
-                : customerIds.size();
-        long activeAllocations = accessibleCustomerIds == null
-                ? allocationRepository.findByStatus("ACTIVE").size()
-                : (hasScope ? allocationRepository.countActiveByCustomerIds(customerIds) : 0);
-        long pendingPayments = accessibleCustomerIds == null
-                ? paymentRepository.countByPaymentStatusValue("INITIATED")
-                : (hasScope ? paymentRepository.countByPaymentStatusValueAndCustomerIds("INITIATED", customerIds) : 0);
-        long successPayments = accessibleCustomerIds == null
-                ? paymentRepository.countByPaymentStatusValue("SUCCESS")
-                : (hasScope ? paymentRepository.countByPaymentStatusValueAndCustomerIds("SUCCESS", customerIds) : 0);
-        long visitsCount = accessibleCustomerIds == null
-                ? visitRepository.count()
-                : (hasScope ? visitRepository.countByCustomerIds(customerIds) : 0);
-
+        AreaRollupService.Totals totals = kpiService.totals(dataFilter.resolveScope(user));
         return String.format("Summary in scope: customers %d, active allocations %d, pending payments %d, " +
                         "successful payments %d, total visits %d.",
-                customerCount, activeAllocations, pendingPayments, successPayments, visitsCount);
+                totals.customers(), totals.activeAllocations(), totals.paymentsInitiated(),
+                totals.paymentsSuccess(), totals.visits());
     }
 
     private String buildPendingPaymentsSummary(User user) {
-        String accessClause = dataFilter.buildAccessControlWhereClause(user, "c");
-        String sql = "SELECT COUNT(1) AS pendingCount, COALESCE(SUM(p.amount),0) AS pendingAmount " +
-                "FROM payments p JOIN customers c ON c.id = p.customer_id " +
-                "WHERE p.payment_status = :status" + accessClause;
-        Query query = entityManager.createNativeQuery(sql);
-        query.setParameter("status", "INITIATED");
-        Object[] row = (Object[]) query.getSingleResult();
-        long count = row[0] != null ? ((Number) row[0]).longValue() : 0L;
-        BigDecimal amount = row[1] != null ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO;
-        return String.format("Pending payments in scope: %d; total amount: %s.", count, amount);
+        AreaRollupService.Totals totals = kpiService.totals(dataFilter.resolveScope(user));
+        return String.format("Pending payments in scope: %d; total amount: %s.",
+                totals.paymentsInitiated(), totals.amountInitiated());
     }
 
     private String buildPaymentsSummary(User user) {
-        Set<Long> accessibleCustomerIds = dataFilter.getAccessibleCustomerIds(user);
-        List<Long> customerIds = accessibleCustomerIds != null ? new ArrayList<>(accessibleCustomerIds) : List.of();
-        boolean hasScope = accessibleCustomerIds != null && !customerIds.isEmpty();
-
-        long pending = accessibleCustomerIds == null
-                ? paymentRepository.countByPaymentStatusValue("INITIATED")
-                : (hasScope ? paymentRepository.countByPaymentStatusValueAndCustomerIds("INITIATED", customerIds) : 0);
-        long success = accessibleCustomerIds == null
-                ? paymentRepository.countByPaymentStatusValue("SUCCESS")
-                : (hasScope ? paymentRepository.countByPaymentStatusValueAndCustomerIds("SUCCESS", customerIds) : 0);
-        BigDecimal collected = accessibleCustomerIds == null
-                ? paymentRepository.sumAmountByStatus("SUCCESS")
-                : (hasScope ? paymentRepository.sumAmountByStatusAndCustomerIds("SUCCESS", customerIds) : BigDecimal.ZERO);
+        AreaRollupService.Totals totals = kpiService.totals(dataFilter.resolveScope(user));
         return String.format("Payments in scope: pending %d, successful %d, collected amount %s.",
-                pending, success, collected);
+                totals.paymentsInitiated(), totals.paymentsSuccess(), totals.amountCollected());
     }
 
     private String buildCustomerStatusSummary(User user) {
-        Set<Long> accessibleCustomerIds = dataFilter.getAccessibleCustomerIds(user);
-        List<Long> customerIds = accessibleCustomerIds != null ? new ArrayList<>(accessibleCustomerIds) : List.of();
-        boolean hasScope = accessibleCustomerIds != null && !customerIds.isEmpty();
-
+        ScopedKpiService.KpiSnapshot kpis = kpiService.snapshot(dataFilter.resolveScope(user));
         String[] statuses = {"NEW", "ASSIGNED", "VISITED", "PAYMENT_PENDING", "PAID", "CLOSED"};
         Map<String, Long> counts = new LinkedHashMap<>();
         for (String status : statuses) {
-            long count = accessibleCustomerIds == null
-                    ? customerRepository.countByStatusValue(status)
-                    : (hasScope ? customerRepository.countByStatusValueAndIds(status, customerIds) : 0);
-            counts.put(status, count);
+            counts.put(status, kpis.customersWithStatus(status));
         }
         return "Customer status breakdown in scope: " + counts + ".";
     }
 
     private String buildAllocationSummary(User user) {
-        Set<Long> accessibleCustomerIds = dataFilter.getAccessibleCustomerIds(user);
-        List<Long> customerIds = accessibleCustomerIds != null ? new ArrayList<>(accessibleCustomerIds) : List.of();
-        boolean hasScope = accessibleCustomerIds != null && !customerIds.isEmpty();
-        long activeAllocations = accessibleCustomerIds == null
-                ? allocationRepository.findByStatus("ACTIVE").size()
-                : (hasScope ? allocationRepository.countActiveByCustomerIds(customerIds) : 0);
-        return String.format("Active allocations in scope: %d.", activeAllocations);
+        AreaRollupService.Totals totals = kpiService.totals(dataFilter.resolveScope(user));
+        return String.format("Active allocations in scope: %d.", totals.activeAllocations());
     }
 
     private String buildNotificationsSummary(User user) {
@@ -223,18 +167,9 @@ public class AiAskService {
     }
 
     private String buildVisitSummary(User user) {
-        String accessClause = dataFilter.buildAccessControlWhereClause(user, "c");
-        String sql = "SELECT COUNT(1) AS totalVisits, " +
-                "SUM(CASE WHEN v.visit_status = 'COMPLETED' THEN 1 ELSE 0 END) AS completedVisits, " +
-                "SUM(CASE WHEN v.visit_status = 'PENDING' THEN 1 ELSE 0 END) AS pendingVisits " +
-                "FROM customer_visits v JOIN customers c ON c.id = v.customer_id " +
-                "WHERE 1=1" + accessClause;
-        Query query = entityManager.createNativeQuery(sql);
-        Object[] row = (Object[]) query.getSingleResult();
-        long total = row[0] != null ? ((Number) row[0]).longValue() : 0L;
-        long completed = row[1] != null ? ((Number) row[1]).longValue() : 0L;
-        long pending = row[2] != null ? ((Number) row[2]).longValue() : 0L;
-        return String.format("Visits in scope: total %d, completed %d, pending %d.", total, completed, pending);
+        ScopedKpiService.KpiSnapshot kpis = kpiService.snapshot(dataFilter.resolveScope(user));
+        return String.format("Visits in scope: total %d, completed %d, pending %d.",
+                kpis.visitCount(), kpis.visitsWithStatus("COMPLETED"), kpis.visitsWithStatus("PENDING"));
     }
 
     private String buildAgentPerformanceSummary(User user) {
@@ -243,21 +178,19 @@ public class AiAskService {
         String scopeClause = buildUserScopeClause(userType, user, scopeParams);
 
         String agentsSql = "SELECT COUNT(1) FROM users u " +
-                "JOIN areas a ON u.area_id = a.id " +
-                "JOIN zones z ON a.zone_id = z.id " +
-                "JOIN circles ci ON z.circle_id = ci.id " +
-                "JOIN clusters cl ON ci.cluster_id = cl.id " +
                 "WHERE u.user_type = :agentType AND u.active = 1" + scopeClause;
         Query agentsQuery = entityManager.createNativeQuery(agentsSql);
         agentsQuery.setParameter("agentType", "AGENT");
         scopeParams.forEach(agentsQuery::setParameter);
         long agentCount = ((Number) agentsQuery.getSingleResult()).longValue();
 
-        String accessClause = dataFilter.buildAccessControlWhereClause(user, "c");
+        Map<String, Object> accessParams = new HashMap<>();
+        String accessClause = dataFilter.buildScopeClause(user, "c", accessParams);
         String allocSql = "SELECT COUNT(1) FROM customer_allocations ca " +
                 "JOIN customers c ON c.id = ca.customer_id " +
                 "WHERE ca.status = 'ACTIVE' AND ca.role_code = 'AGENT'" + accessClause;
         Query allocQuery = entityManager.createNativeQuery(allocSql);
+        accessParams.forEach(allocQuery::setParameter);
         long allocationCount = ((Number) allocQuery.getSingleResult()).longValue();
 
         String visitSql = "SELECT COUNT(1) FROM customer_visits v " +
@@ -265,6 +198,7 @@ public class AiAskService {
                 "JOIN customers c ON c.id = v.customer_id " +
                 "WHERE u.user_type = 'AGENT'" + accessClause;
         Query visitQuery = entityManager.createNativeQuery(visitSql);
+        accessParams.forEach(visitQuery::setParameter);
         long visitCount = ((Number) visitQuery.getSingleResult()).longValue();
 
         String paymentSql = "SELECT COUNT(1) FROM payments p " +
@@ -272,6 +206,7 @@ public class AiAskService {
                 "JOIN customers c ON c.id = p.customer_id " +
                 "WHERE u.user_type = 'AGENT' AND p.payment_status = 'SUCCESS'" + accessClause;
         Query paymentQuery = entityManager.createNativeQuery(paymentSql);
+        accessParams.forEach(paymentQuery::setParameter);
         long paymentCount = ((Number) paymentQuery.getSingleResult()).longValue();
 
         double avgVisits = agentCount > 0 ? (double) visitCount / agentCount : 0.0;
@@ -286,19 +221,19 @@ public class AiAskService {
         }
         if (HierarchyUtil.CLUSTER_HEAD.equals(userType)) {
             params.put("clusterId", HierarchyUtil.getClusterId(user));
-            return " AND cl.id = :clusterId";
+            return " AND u.cluster_id = :clusterId";
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(userType)) {
             params.put("circleId", HierarchyUtil.getCircleId(user));
-            return " AND ci.id = :circleId";
+            return " AND u.circle_id = :circleId";
         }
         if (HierarchyUtil.ZONE_HEAD.equals(userType)) {
             params.put("zoneId", HierarchyUtil.getZoneId(user));
-            return " AND z.id = :zoneId";
+            return " AND u.zone_id = :zoneId";
         }
         if (HierarchyUtil.AREA_HEAD.equals(userType) || HierarchyUtil.STORE_HEAD.equals(userType)) {
             params.put("areaId", HierarchyUtil.getAreaId(user));
-            return " AND a.id = :areaId";
+            return " AND u.area_id = :areaId";
         }
         if (HierarchyUtil.AGENT.equals(userType)) {
             params.put("userId", user.getId());
@@ -0,0 +1,182 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.User;
+import com.company.ops_hub_api.repository.CustomerAllocationRepository;
+import com.company.ops_hub_api.repository.UserRepository;
+import com.company.ops_hub_api.util.HierarchyUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Area Head Assigner
+ * Chooses the area head for customers allocated in bulk. A session caches each area's
+ * roster and active-allocation counts for the length of the bulk operation, so rosters are
+ * queried once per area rather than once per customer, and work is spread across heads.
+ * Assignments made inside a transaction that rolls back are taken off the counts again.
+ */
+@Component
+public class AreaHeadAssigner {
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    private final UserRepository userRepository;
+    private final CustomerAllocationRepository allocationRepository;
+    private final Strategy defaultStrategy;
+
+    public AreaHeadAssigner(UserRepository userRepository,
+                            CustomerAllocationRepository allocationRepository,
+                            @Value("${app.allocations.area-head-strategy:LEAST_LOADED}") Strategy defaultStrategy) {
+        this.userRepository = userRepository;
+        this.allocationRepository = allocationRepository;
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    public Session openSession() {
+        return openSession(defaultStrategy);
+    }
+
+    public Session openSession(Strategy strategy) {
+        return new Session(strategy != null ? strategy : defaultStrategy);
+    }
+
+    /**
+     * Not thread-safe; use one session per bulk operation.
+     */
+    public final class Session {
+
+        private final Strategy strategy;
+        private final Map<Long, Roster> rosters = new HashMap<>();
+        private final List<Assignment> uncommitted = new ArrayList<>();
+
+        private Session(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * Loads rosters for all given areas with one user query and one count query.
+         */
+        public void preload(Collection<Long> areaIds) {
+            Set<Long> missing = new HashSet<>();
+            for (Long areaId : areaIds) {
+                if (areaId != null && !rosters.containsKey(areaId)) {
+                    missing.add(areaId);
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            Map<Long, List<User>> headsByArea = new HashMap<>();
+            for (User head : userRepository.findByAreaIdInAndUserType(missing, HierarchyUtil.AREA_HEAD)) {
+                headsByArea.computeIfAbsent(head.getArea().getId(), id -> new ArrayList<>()).add(head);
+            }
+            Map<Long, Long> loads = loadActiveCounts(headsByArea.values().stream()
+                    .flatMap(List::stream)
+                    .map(User::getId)
+                    .toList());
+            for (Long areaId : missing) {
+                rosters.put(areaId, new Roster(headsByArea.getOrDefault(areaId, List.of()), loads));
+            }
+        }
+
+        /**
+         * Picks the next area head for a customer in the area and counts the allocation
+         * against them. Returns empty when the area has no area head.
+         */
+        public Optional<User> assign(Long areaId) {
+            if (areaId == null) {
+                return Optional.empty();
+            }
+            if (!rosters.containsKey(areaId)) {
+                preload(List.of(areaId));
+            }
+            Roster roster = rosters.get(areaId);
+            int chosen = roster.next(strategy);
+            if (chosen < 0) {
+                return Optional.empty();
+            }
+            trackUntilCompletion(new Assignment(roster, chosen));
+            return Optional.of(roster.heads.get(chosen));
+        }
+
+        private void trackUntilCompletion(Assignment assignment) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            if (!TransactionSynchronizationManager.hasResource(this)) {
+                TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(Session.this);
+                        if (status == STATUS_ROLLED_BACK) {
+                            uncommitted.forEach(Assignment::undo);
+                        }
+                        uncommitted.clear();
+                    }
+                });
+            }
+            uncommitted.add(assignment);
+        }
+
+        private Map<Long, Long> loadActiveCounts(List<Long> userIds) {
+            Map<Long, Long> loads = new HashMap<>();
+            if (strategy != Strategy.LEAST_LOADED || userIds.isEmpty()) {
+                return loads;
+            }
+            for (CustomerAllocationRepository.UserAllocationCount count
+                    : allocationRepository.countActiveGroupedByUserIds(userIds)) {
+                loads.put(count.getUserId(), count.getAllocationCount());
+            }
+            return loads;
+        }
+    }
+
+    private record Assignment(Roster roster, int index) {
+        private void undo() {
+            roster.loads[index]--;
+        }
+    }
+
+    private static final class Roster {
+
+        private final List<User> heads;
+        private final long[] loads;
+        private int nextIndex;
+
+        private Roster(List<User> heads, Map<Long, Long> activeCounts) {
+            this.heads = heads.stream().sorted(Comparator.comparing(User::getId)).toList();
+            this.loads = new long[this.heads.size()];
+            for (int i = 0; i < this.heads.size(); i++) {
+                loads[i] = activeCounts.getOrDefault(this.heads.get(i).getId(), 0L);
+            }
+        }
+
+        /** Index of the chosen head, counted against them; -1 when the area has none. */
+        private int next(Strategy strategy) {
+            if (heads.isEmpty()) {
+                return -1;
+            }
+            int chosen;
+            if (strategy == Strategy.LEAST_LOADED) {
+                chosen = 0;
+                for (int i = 1; i < loads.length; i++) {
+                    if (loads[i] < loads[chosen]) {
+                        chosen = i;
+                    }
+                }
+            } else {
+                chosen = nextIndex;
+                nextIndex = (nextIndex + 1) % heads.size();
+            }
+            loads[chosen]++;
+            return chosen;
+        }
+    }
+}
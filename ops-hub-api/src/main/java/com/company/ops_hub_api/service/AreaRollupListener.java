@@ -0,0 +1,301 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.Customer;
+import com.company.ops_hub_api.domain.CustomerAllocation;
+import com.company.ops_hub_api.domain.CustomerVisit;
+import com.company.ops_hub_api.domain.Payment;
+import com.company.ops_hub_api.service.AreaRollupService.Bucket;
+import com.company.ops_hub_api.service.AreaRollupService.Metric;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Area Rollup Listener
+ * Keeps area_daily_stats in step with customer, allocation, payment and visit writes. Every
+ * flushed insert, update or delete contributes the difference between the row's old and new
+ * rollup contribution; the differences of one transaction are summed in memory, and the buckets
+ * they touch are queued in area_rollup_queue after the final flush, on the same connection and
+ * inside the same transaction. A customer moving area queues every day its facts fall on, in both
+ * areas. The queue insert commits or rolls back with the write, and {@link AreaRollupService}
+ * recomputes the queued buckets in its own transaction. The summed deltas also feed
+ * {@link LiveUpdateService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AreaRollupListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AreaRollupService rollupService;
+    private final LiveUpdateService liveUpdates;
+    private final Map<SessionImplementor, PendingDeltas> pending = new ConcurrentHashMap<>();
+
+    // Contributions are recorded relative to the fact's own day, matching AreaRollupService.rebuild
+    private record Contribution(long areaId, Long customerId, LocalDate day, BigDecimal[] values) {
+
+        boolean sameAs(Contribution other) {
+            if (other == null || areaId != other.areaId || !Objects.equals(customerId, other.customerId)
+                    || !day.equals(other.day)) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (value(values[i]).compareTo(value(other.values[i])) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record CustomerDay(long customerId, LocalDate day) {}
+
+    private static final class PendingDeltas {
+        final SortedMap<Bucket, BigDecimal[]> byArea = new TreeMap<>();
+        // Facts whose customer was not loaded; its area is read when the deltas are applied
+        final Map<CustomerDay, BigDecimal[]> byCustomer = new HashMap<>();
+        // Customers that changed area, with every area they were in during the transaction
+        final Map<Long, Set<Long>> moved = new HashMap<>();
+
+        void add(Contribution contribution, boolean negate) {
+            BigDecimal[] target = contribution.customerId() != null
+                    ? byCustomer.computeIfAbsent(new CustomerDay(contribution.customerId(), contribution.day()),
+                            key -> AreaRollupService.emptyDeltas())
+                    : byArea.computeIfAbsent(new Bucket(contribution.areaId(), contribution.day()),
+                            key -> AreaRollupService.emptyDeltas());
+            addAll(target, contribution.values(), negate);
+        }
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getId(), event.getEntity(), event.getPersister(), null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getOldState() == null) {
+            // Detached update without a snapshot; the repair job picks it up
+            return;
+        }
+        record(event.getSession(), event.getId(), event.getEntity(), event.getPersister(),
+                event.getOldState(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getId(), event.getEntity(), event.getPersister(),
+                event.getDeletedState(), null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, Object id, Object entity, EntityPersister persister,
+                        Object[] oldState, Object[] newState) {
+        if (!(entity instanceof Customer || entity instanceof Payment
+                || entity instanceof CustomerVisit || entity instanceof CustomerAllocation)) {
+            return;
+        }
+        Contribution before = oldState != null ? contribution(entity, persister, oldState) : null;
+        Contribution after = newState != null ? contribution(entity, persister, newState) : null;
+        if (before == null && after == null || before != null && before.sameAs(after)) {
+            return;
+        }
+        PendingDeltas deltas = pending.computeIfAbsent(session, this::open);
+        if (before != null) {
+            deltas.add(before, true);
+        }
+        if (after != null) {
+            deltas.add(after, false);
+        }
+        if (entity instanceof Customer && before != null && after != null && before.areaId() != after.areaId()) {
+            Set<Long> areas = deltas.moved.computeIfAbsent(((Number) id).longValue(), key -> new HashSet<>());
+            areas.add(before.areaId());
+            areas.add(after.areaId());
+        }
+    }
+
+    private PendingDeltas open(SessionImplementor session) {
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+        session.getActionQueue().registerProcess(
+                (AfterTransactionCompletionProcess) (success, completed) -> pending.remove(session));
+        return new PendingDeltas();
+    }
+
+    // Failures propagate and roll the write back: once SQL Server has aborted the transaction it cannot commit anyway
+    private void apply(SessionImplementor session) {
+        PendingDeltas deltas = pending.remove(session);
+        if (deltas == null) {
+            return;
+        }
+        session.doWork(connection -> {
+            SortedMap<Bucket, BigDecimal[]> buckets = deltas.byArea;
+            if (!deltas.byCustomer.isEmpty()) {
+                Map<Long, Long> areas = rollupService.resolveAreas(connection,
+                        deltas.byCustomer.keySet().stream().map(CustomerDay::customerId).distinct().toList());
+                deltas.byCustomer.forEach((key, values) -> {
+                    Long areaId = areas.get(key.customerId());
+                    if (areaId != null) {
+                        addAll(buckets.computeIfAbsent(new Bucket(areaId, key.day()),
+                                bucket -> AreaRollupService.emptyDeltas()), values, false);
+                    }
+                });
+            }
+            buckets.values().removeIf(AreaRollupListener::isZero);
+            Set<Bucket> queued = new TreeSet<>(buckets.keySet());
+            if (!deltas.moved.isEmpty()) {
+                // Days of this transaction's own changes are included for facts it deleted
+                Set<LocalDate> changedDays = new HashSet<>();
+                buckets.keySet().forEach(bucket -> changedDays.add(bucket.day()));
+                Map<Long, Set<LocalDate>> factDays = rollupService.factDays(connection, deltas.moved.keySet());
+                deltas.moved.forEach((customerId, areaIds) -> {
+                    Set<LocalDate> days = new HashSet<>(changedDays);
+                    days.addAll(factDays.getOrDefault(customerId, Set.of()));
+                    for (Long areaId : areaIds) {
+                        days.forEach(day -> queued.add(new Bucket(areaId, day)));
+                    }
+                });
+            }
+            rollupService.enqueue(connection, queued);
+            Map<Long, BigDecimal[]> byArea = new HashMap<>();
+            buckets.forEach((bucket, values) -> AreaRollupService.addDeltas(
+                    byArea.computeIfAbsent(bucket.areaId(), id -> AreaRollupService.emptyDeltas()), values));
+            liveUpdates.areaDeltasChanged(byArea);
+        });
+    }
+
+    private Contribution contribution(Object entity, EntityPersister persister, Object[] state) {
+        BigDecimal[] values = AreaRollupService.emptyDeltas();
+        if (entity instanceof Customer) {
+            LocalDate day = toDay(property(persister, state, "createdAt"));
+            if (day == null) {
+                return null;
+            }
+            Object area = property(persister, state, "area");
+            values[Metric.CUSTOMERS_CREATED.ordinal()] = BigDecimal.ONE;
+            values[Metric.PENDING_AMOUNT.ordinal()] = value((BigDecimal) property(persister, state, "pendingAmount"));
+            return new Contribution(area != null ? idOf(area) : AreaRollupService.NO_AREA, null, day, values);
+        }
+        Object customer = property(persister, state, "customer");
+        LocalDate day;
+        if (entity instanceof Payment) {
+            day = toDay(property(persister, state, "createdAt"));
+            BigDecimal amount = value((BigDecimal) property(persister, state, "amount"));
+            String status = (String) property(persister, state, "paymentStatus");
+            if ("INITIATED".equals(status)) {
+                values[Metric.PAYMENTS_INITIATED.ordinal()] = BigDecimal.ONE;
+                values[Metric.AMOUNT_INITIATED.ordinal()] = amount;
+            } else if ("SUCCESS".equals(status)) {
+                values[Metric.PAYMENTS_SUCCESS.ordinal()] = BigDecimal.ONE;
+                values[Metric.AMOUNT_COLLECTED.ordinal()] = amount;
+            } else if ("FAILED".equals(status)) {
+                values[Metric.PAYMENTS_FAILED.ordinal()] = BigDecimal.ONE;
+            } else {
+                return null;
+            }
+        } else if (entity instanceof CustomerVisit) {
+            day = toDay(property(persister, state, "visitDate"));
+            values[Metric.VISITS_TOTAL.ordinal()] = BigDecimal.ONE;
+            if ("COMPLETED".equals(property(persister, state, "visitStatus"))) {
+                values[Metric.VISITS_COMPLETED.ordinal()] = BigDecimal.ONE;
+            }
+        } else {
+            if (!"ACTIVE".equals(property(persister, state, "status"))) {
+                return null;
+            }
+            day = toDay(property(persister, state, "allocatedAt"));
+            values[Metric.ALLOCATIONS_ACTIVE.ordinal()] = BigDecimal.ONE;
+        }
+        if (day == null || customer == null) {
+            return null;
+        }
+        // A loaded customer already knows its area; otherwise resolve it by id when applying
+        if (customer instanceof Customer loaded && Hibernate.isInitialized(loaded)) {
+            Area area = loaded.getArea();
+            return new Contribution(area != null ? idOf(area) : AreaRollupService.NO_AREA, null, day, values);
+        }
+        return new Contribution(AreaRollupService.NO_AREA, idOf(customer), day, values);
+    }
+
+    private static Object property(EntityPersister persister, Object[] state, String name) {
+        return state[persister.getEntityMetamodel().getPropertyIndex(name)];
+    }
+
+    private static long idOf(Object entity) {
+        LazyInitializer initializer = HibernateProxy.extractLazyInitializer(entity);
+        if (initializer != null) {
+            return ((Number) initializer.getIdentifier()).longValue();
+        }
+        Long id = entity instanceof Area area ? area.getId() : ((Customer) entity).getId();
+        return id != null ? id : AreaRollupService.NO_AREA;
+    }
+
+    private static LocalDate toDay(Object value) {
+        return value instanceof LocalDateTime dateTime ? dateTime.toLocalDate() : null;
+    }
+
+    private static BigDecimal value(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static void addAll(BigDecimal[] target, BigDecimal[] values, boolean negate) {
+        for (int i = 0; i < target.length; i++) {
+            if (values[i] != null) {
+                target[i] = value(target[i]).add(negate ? values[i].negate() : values[i]);
+            }
+        }
+    }
+
+    private static boolean isZero(BigDecimal[] values) {
+        for (BigDecimal value : values) {
+            if (value != null && value.signum() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,484 @@
+package com.company.ops_hub_api.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Area Rollup Service
+ * Reads and maintains the area_daily_stats rollup. Each fact is counted on its own day (customer and
+ * payment created_at, visit_date, allocated_at) with its current state, so any (area, day) bucket
+ * can be recomputed from the fact tables alone. Writes queue the buckets they touch in
+ * area_rollup_queue and a background run recomputes them in its own transaction. Scoped reads sum
+ * the rollup rows of the scope's areas instead of scanning payments, visits and allocations.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AreaRollupService {
+
+    /** Rollup bucket for customers without an area; only counted by the unrestricted scope. */
+    public static final long NO_AREA = 0L;
+
+    private static final int RESOLVE_CHUNK_SIZE = 1000;
+
+    public enum Metric {
+        CUSTOMERS_CREATED("customers_created", "customers", false),
+        PENDING_AMOUNT("pending_amount", "pendingAmount", true),
+        ALLOCATIONS_ACTIVE("allocations_active", "activeAllocations", false),
+        PAYMENTS_INITIATED("payments_initiated", "paymentsInitiated", false),
+        PAYMENTS_SUCCESS("payments_success", "paymentsSuccess", false),
+        PAYMENTS_FAILED("payments_failed", "paymentsFailed", false),
+        AMOUNT_INITIATED("amount_initiated", "amountInitiated", true),
+        AMOUNT_COLLECTED("amount_collected", "amountCollected", true),
+        VISITS_TOTAL("visits_total", "visits", false),
+        VISITS_COMPLETED("visits_completed", "visitsCompleted", false);
+
+        private final String column;
+        // Name of the matching Totals component
+        private final String key;
+        private final boolean amount;
+
+        Metric(String column, String key, boolean amount) {
+            this.column = column;
+            this.key = key;
+            this.amount = amount;
+        }
+
+        public String column() {
+            return column;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final String COLUMNS = Arrays.stream(METRICS).map(Metric::column).collect(Collectors.joining(", "));
+    private static final String SUMS = Arrays.stream(METRICS)
+            .map(metric -> "SUM(r." + metric.column() + ")").collect(Collectors.joining(", "));
+
+    private static final String ENQUEUE_SQL = "INSERT INTO area_rollup_queue (area_id, stat_date) VALUES (?, ?)";
+
+    // Claims queued buckets; rows still being inserted by open transactions are left for the next run
+    private static final String CLAIM_SQL =
+            "DELETE TOP (?) FROM area_rollup_queue WITH (READPAST) OUTPUT deleted.area_id, deleted.stat_date";
+
+    // Days on which a customer has facts bucketed under its area; customers_created is handled by the listener
+    private static final String FACT_DAYS_SQL =
+            "SELECT customer_id, CAST(created_at AS DATE) FROM payments WHERE customer_id IN (%1$s) " +
+            "UNION SELECT customer_id, CAST(visit_date AS DATE) FROM customer_visits WHERE customer_id IN (%1$s) " +
+            "UNION SELECT customer_id, CAST(allocated_at AS DATE) FROM customer_allocations " +
+            "WHERE status = 'ACTIVE' AND customer_id IN (%1$s)";
+
+    // Same bucketing rules as AreaRollupListener; columns follow Metric order. %1$s narrows each part by area.
+    private static final String FACTS_SQL =
+            "SELECT ISNULL(c.area_id, 0) AS area_id, CAST(c.created_at AS DATE) AS stat_date, " +
+            "1 AS customers_created, ISNULL(c.pending_amount, 0) AS pending_amount, 0 AS allocations_active, " +
+            "0 AS payments_initiated, 0 AS payments_success, 0 AS payments_failed, " +
+            "0 AS amount_initiated, 0 AS amount_collected, 0 AS visits_total, 0 AS visits_completed " +
+            "FROM customers c WHERE c.created_at >= :fromTime AND c.created_at < :toTime%1$s " +
+            "UNION ALL " +
+            "SELECT ISNULL(c.area_id, 0), CAST(a.allocated_at AS DATE), 0, 0, 1, 0, 0, 0, 0, 0, 0, 0 " +
+            "FROM customer_allocations a JOIN customers c ON c.id = a.customer_id " +
+            "WHERE a.status = 'ACTIVE' AND a.allocated_at >= :fromTime AND a.allocated_at < :toTime%1$s " +
+            "UNION ALL " +
+            "SELECT ISNULL(c.area_id, 0), CAST(p.created_at AS DATE), 0, 0, 0, " +
+            "CASE WHEN p.payment_status = 'INITIATED' THEN 1 ELSE 0 END, " +
+            "CASE WHEN p.payment_status = 'SUCCESS' THEN 1 ELSE 0 END, " +
+            "CASE WHEN p.payment_status = 'FAILED' THEN 1 ELSE 0 END, " +
+            "CASE WHEN p.payment_status = 'INITIATED' THEN p.amount ELSE 0 END, " +
+            "CASE WHEN p.payment_status = 'SUCCESS' THEN p.amount ELSE 0 END, 0, 0 " +
+            "FROM payments p JOIN customers c ON c.id = p.customer_id " +
+            "WHERE p.created_at >= :fromTime AND p.created_at < :toTime%1$s " +
+            "UNION ALL " +
+            "SELECT ISNULL(c.area_id, 0), CAST(v.visit_date AS DATE), 0, 0, 0, 0, 0, 0, 0, 0, 1, " +
+            "CASE WHEN v.visit_status = 'COMPLETED' THEN 1 ELSE 0 END " +
+            "FROM customer_visits v JOIN customers c ON c.id = v.customer_id " +
+            "WHERE v.visit_date >= :fromTime AND v.visit_date < :toTime%1$s";
+
+    private static final String AREA_FILTER = " AND ISNULL(c.area_id, 0) IN (:areaIds)";
+
+    private final EntityManager entityManager;
+    // Resolved lazily so scheduled and startup calls go through the transactional proxy
+    private final ObjectProvider<AreaRollupService> self;
+
+    @Value("${app.rollups.repair-days:7}")
+    private int repairDays;
+
+    @Value("${app.rollups.drain-batch-size:5000}")
+    private int drainBatchSize;
+
+    /** Scope-wide totals; statuses not tracked by the rollup are left to ScopedKpiService. */
+    public record Totals(long customers,
+                         BigDecimal pendingAmount,
+                         long activeAllocations,
+                         long paymentsInitiated,
+                         long paymentsSuccess,
+                         long paymentsFailed,
+                         BigDecimal amountInitiated,
+                         BigDecimal amountCollected,
+                         long visits,
+                         long visitsCompleted) {
+
+        public static final Totals EMPTY = new Totals(0, BigDecimal.ZERO, 0, 0, 0, 0,
+                BigDecimal.ZERO, BigDecimal.ZERO, 0, 0);
+    }
+
+    public record DailyTotals(LocalDate date, Totals totals) {}
+
+    /** Rollup row key. */
+    record Bucket(long areaId, LocalDate day) implements Comparable<Bucket> {
+        @Override
+        public int compareTo(Bucket other) {
+            int byArea = Long.compare(areaId, other.areaId);
+            return byArea != 0 ? byArea : day.compareTo(other.day);
+        }
+    }
+
+    static BigDecimal[] emptyDeltas() {
+        return new BigDecimal[METRICS.length];
+    }
+
+    static void addDeltas(BigDecimal[] target, BigDecimal[] deltas) {
+        for (int i = 0; i < METRICS.length; i++) {
+            if (deltas[i] != null) {
+                target[i] = target[i] != null ? target[i].add(deltas[i]) : deltas[i];
+            }
+        }
+    }
+
+    /** Non-zero deltas keyed like the {@link Totals} components; counts as longs, amounts as decimals. */
+    static Map<String, Number> describeDeltas(BigDecimal[] deltas) {
+        Map<String, Number> described = new LinkedHashMap<>();
+        for (int i = 0; i < METRICS.length; i++) {
+            if (deltas[i] != null && deltas[i].signum() != 0) {
+                described.put(METRICS[i].key(), METRICS[i].amount ? deltas[i] : deltas[i].longValue());
+            }
+        }
+        return described;
+    }
+
+    /** Whether the scope can be answered from the rollup; allocation scopes are not area-shaped. */
+    public static boolean supports(CustomerScope scope) {
+        return scope.type() != CustomerScope.Type.ALLOCATED;
+    }
+
+    @Transactional(readOnly = true)
+    public Totals totals(CustomerScope scope) {
+        Map<String, Object> params = new HashMap<>();
+        Query query = entityManager.createNativeQuery(
+                "SELECT " + SUMS + " FROM area_daily_stats r WHERE 1=1" + areaClause(scope, params));
+        params.forEach(query::setParameter);
+        Object[] row = (Object[]) query.getSingleResult();
+        return toTotals(row, 0);
+    }
+
+    /** One entry per day in [from, to] that has rollup rows, oldest first. */
+    @Transactional(readOnly = true)
+    public List<DailyTotals> dailyTotals(CustomerScope scope, LocalDate from, LocalDate to) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("fromDate", from);
+        params.put("toDate", to);
+        Query query = entityManager.createNativeQuery(
+                "SELECT r.stat_date, " + SUMS + " FROM area_daily_stats r " +
+                "WHERE r.stat_date BETWEEN :fromDate AND :toDate" + areaClause(scope, params) +
+                " GROUP BY r.stat_date ORDER BY r.stat_date");
+        params.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<DailyTotals> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new DailyTotals(toLocalDate(row[0]), toTotals(row, 1)));
+        }
+        return result;
+    }
+
+    /** Recomputes the rollup rows of [from, to] from the fact tables. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid rollup date range");
+        }
+        lockRollup();
+        int rows = recompute(from, to, null);
+        log.info("Rebuilt {} area rollup rows for {} to {}", rows, from, to);
+        return rows;
+    }
+
+    /**
+     * Recomputes the buckets queued by committed writes. Claimed queue rows are deleted in the same
+     * transaction, so a failed run leaves them for the next one; recomputing a bucket twice is harmless.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int applyQueued() {
+        lockRollup();
+        List<Bucket> claimed = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<Bucket> buckets = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+                statement.setInt(1, Math.max(1, drainBatchSize));
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        buckets.add(new Bucket(rs.getLong(1), rs.getDate(2).toLocalDate()));
+                    }
+                }
+            }
+            return buckets;
+        });
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        // One statement per day keeps each recompute to a single day's facts, even for long-lived customers
+        Map<LocalDate, Set<Long>> areasByDay = new TreeMap<>();
+        claimed.forEach(bucket -> areasByDay.computeIfAbsent(bucket.day(), day -> new TreeSet<>()).add(bucket.areaId()));
+        areasByDay.forEach((day, areaIds) -> {
+            List<Long> ids = new ArrayList<>(areaIds);
+            for (int start = 0; start < ids.size(); start += RESOLVE_CHUNK_SIZE) {
+                recompute(day, day, ids.subList(start, Math.min(start + RESOLVE_CHUNK_SIZE, ids.size())));
+            }
+        });
+        log.debug("Recomputed {} queued area rollup buckets", claimed.size());
+        return claimed.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rollups.drain-ms:5000}")
+    public void drainQueue() {
+        try {
+            while (self.getObject().applyQueued() >= drainBatchSize) {
+                // Keep going while full batches are claimed
+            }
+        } catch (Exception ex) {
+            log.error("Failed to apply queued area rollup updates; they are retried on the next run", ex);
+        }
+    }
+
+    /**
+     * Rebuilds recent days to correct drift from writes that bypass the listener, such as direct
+     * database edits and cascaded deletes. Older days are only corrected by {@link #rebuild}.
+     */
+    @Scheduled(cron = "${app.rollups.repair-cron:0 30 2 * * *}")
+    public void repairRecent() {
+        LocalDate today = LocalDate.now();
+        try {
+            self.getObject().rebuild(today.minusDays(Math.max(0, repairDays)), today);
+        } catch (Exception ex) {
+            log.error("Failed to repair area rollups", ex);
+        }
+    }
+
+    /** Builds the whole rollup the first time the application starts against existing data. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            Number existing = (Number) entityManager.createNativeQuery("SELECT COUNT(1) FROM area_daily_stats")
+                    .getSingleResult();
+            if (existing.longValue() > 0) {
+                return;
+            }
+            Object earliest = entityManager.createNativeQuery(
+                    "SELECT MIN(d) FROM (" +
+                    "SELECT MIN(created_at) AS d FROM customers " +
+                    "UNION ALL SELECT MIN(allocated_at) FROM customer_allocations " +
+                    "UNION ALL SELECT MIN(created_at) FROM payments " +
+                    "UNION ALL SELECT MIN(visit_date) FROM customer_visits) f").getSingleResult();
+            if (earliest != null) {
+                self.getObject().rebuild(toLocalDate(earliest), LocalDate.now());
+            }
+        } catch (Exception ex) {
+            log.error("Failed to build area rollups on startup", ex);
+        }
+    }
+
+    /** Current area of each customer ({@link #NO_AREA} when it has none), read on the caller's connection. */
+    Map<Long, Long> resolveAreas(Connection connection, Collection<Long> customerIds) throws SQLException {
+        Map<Long, Long> areas = new HashMap<>(customerIds.size() * 2);
+        List<Long> ids = new ArrayList<>(customerIds);
+        for (int start = 0; start < ids.size(); start += RESOLVE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + RESOLVE_CHUNK_SIZE, ids.size()));
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, ISNULL(area_id, 0) FROM customers WHERE id IN (" + placeholders(chunk.size()) + ")")) {
+                bindIds(statement, chunk, 0);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        areas.put(rs.getLong(1), rs.getLong(2));
+                    }
+                }
+            }
+        }
+        return areas;
+    }
+
+    /** Days each customer has payments, visits or active allocations, read on the caller's connection. */
+    Map<Long, Set<LocalDate>> factDays(Connection connection, Collection<Long> customerIds) throws SQLException {
+        Map<Long, Set<LocalDate>> days = new HashMap<>(customerIds.size() * 2);
+        List<Long> ids = new ArrayList<>(customerIds);
+        // Each id is bound once per union part
+        int chunkSize = RESOLVE_CHUNK_SIZE / 3;
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            try (PreparedStatement statement = connection.prepareStatement(
+                    String.format(FACT_DAYS_SQL, placeholders(chunk.size())))) {
+                for (int part = 0; part < 3; part++) {
+                    bindIds(statement, chunk, part * chunk.size());
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        days.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getDate(2).toLocalDate());
+                    }
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Queues buckets for {@link #applyQueued} on the caller's connection and transaction. Plain inserts
+     * take no locks on rollup rows, so concurrent writers to the same area and day do not wait on each other.
+     */
+    void enqueue(Connection connection, Collection<Bucket> buckets) throws SQLException {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(ENQUEUE_SQL)) {
+            for (Bucket bucket : buckets) {
+                statement.setLong(1, bucket.areaId());
+                statement.setDate(2, java.sql.Date.valueOf(bucket.day()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /** Serializes rebuilds and queue runs across instances without blocking rollup readers. */
+    private void lockRollup() {
+        Number result = (Number) entityManager.createNativeQuery(
+                        "SET NOCOUNT ON; DECLARE @result INT; " +
+                        "EXEC @result = sp_getapplock @Resource = 'area_daily_stats', @LockMode = 'Exclusive', " +
+                        "@LockOwner = 'Transaction', @LockTimeout = 60000; SELECT @result")
+                .getSingleResult();
+        if (result == null || result.intValue() < 0) {
+            throw new IllegalStateException("Could not lock area rollups: " + result);
+        }
+    }
+
+    /** Replaces the rollup rows of [from, to], limited to the given areas when not null. */
+    private int recompute(LocalDate from, LocalDate to, Collection<Long> areaIds) {
+        Query delete = entityManager.createNativeQuery(
+                "DELETE FROM area_daily_stats WHERE stat_date BETWEEN :fromDate AND :toDate" +
+                (areaIds != null ? " AND area_id IN (:areaIds)" : ""));
+        Query insert = entityManager.createNativeQuery(
+                "INSERT INTO area_daily_stats (area_id, stat_date, " + COLUMNS + ", updated_at) " +
+                "SELECT f.area_id, f.stat_date, " +
+                Arrays.stream(METRICS).map(metric -> "SUM(f." + metric.column() + ")").collect(Collectors.joining(", ")) +
+                ", SYSDATETIME() FROM (" + String.format(FACTS_SQL, areaIds != null ? AREA_FILTER : "") + ") f " +
+                "GROUP BY f.area_id, f.stat_date");
+        delete.setParameter("fromDate", from).setParameter("toDate", to);
+        insert.setParameter("fromTime", from.atStartOfDay()).setParameter("toTime", to.plusDays(1).atStartOfDay());
+        if (areaIds != null) {
+            delete.setParameter("areaIds", areaIds);
+            insert.setParameter("areaIds", areaIds);
+        }
+        delete.executeUpdate();
+        return insert.executeUpdate();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindIds(PreparedStatement statement, List<Long> ids, int offset) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setLong(offset + i + 1, ids.get(i));
+        }
+    }
+
+    private static String areaClause(CustomerScope scope, Map<String, Object> params) {
+        String clause = switch (scope.type()) {
+            case ALL -> null;
+            case AREA -> "r.area_id = :scopeId";
+            case ZONE -> "r.area_id IN (SELECT a.id FROM areas a WHERE a.zone_id = :scopeId)";
+            case CIRCLE -> "r.area_id IN (SELECT a.id FROM areas a JOIN zones z ON z.id = a.zone_id " +
+                    "WHERE z.circle_id = :scopeId)";
+            case CLUSTER -> "r.area_id IN (SELECT a.id FROM areas a JOIN zones z ON z.id = a.zone_id " +
+                    "JOIN circles ci ON ci.id = z.circle_id WHERE ci.cluster_id = :scopeId)";
+            case ALLOCATED -> throw new IllegalArgumentException("Allocation scopes are not kept in area rollups");
+        };
+        if (clause == null) {
+            return "";
+        }
+        params.put("scopeId", scope.id());
+        return " AND " + clause;
+    }
+
+    private static Totals toTotals(Object[] row, int offset) {
+        return new Totals(
+                toLong(row[offset]),
+                toBigDecimal(row[offset + 1]),
+                toLong(row[offset + 2]),
+                toLong(row[offset + 3]),
+                toLong(row[offset + 4]),
+                toLong(row[offset + 5]),
+                toBigDecimal(row[offset + 6]),
+                toBigDecimal(row[offset + 7]),
+                toLong(row[offset + 8]),
+                toLong(row[offset + 9]));
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof java.time.LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+}
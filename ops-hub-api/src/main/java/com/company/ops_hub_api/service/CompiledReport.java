@@ -0,0 +1,108 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.dto.ReportDTO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compiled Report
+ * Immutable, parsed form of a {@code Report} row, built once by {@link ReportRegistry}. The SQL
+ * keeps its {@code :name} bind slots and is split from its top-level ORDER BY so paging can
+ * supply its own order; values for the slots are coerced to the types the report's filters
+ * declare and always bound, never spliced into the text. The access-controlled variant of the
+ * SQL for each restricted scope type is rewritten once, at compile time.
+ */
+public record CompiledReport(
+        Long id,
+        String reportCode,
+        String name,
+        String description,
+        String reportType,
+        String category,
+        boolean active,
+        String createdBy,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        String sql,
+        Map<CustomerScope.Type, String> scopedSql,
+        String orderBy,
+        List<String> bindNames,
+        List<String> columns,
+        List<String> filterKeys,
+        Map<String, Function<Object, Object>> coercers,
+        Map<String, Object> parameters,
+        List<String> accessRoles) {
+
+    public boolean hasQuery() {
+        return sql != null;
+    }
+
+    /**
+     * Unordered SQL for a caller of the given scope type, restricted to that scope through
+     * {@code :scopeId} unless the scope is unrestricted.
+     */
+    public String sqlFor(CustomerScope.Type scopeType) {
+        if (scopeType == CustomerScope.Type.ALL) {
+            return sql;
+        }
+        String scoped = scopedSql.get(scopeType);
+        if (scoped == null) {
+            // Fail closed: a query the rewriter could not scope is not run for restricted users
+            throw new IllegalStateException("Report " + reportCode + " cannot be restricted to the user's scope");
+        }
+        return scoped;
+    }
+
+    /** Null access roles mean unrestricted; an empty list admits nobody. */
+    public boolean isAccessibleTo(Collection<String> userRoles) {
+        return accessRoles == null || userRoles.stream().anyMatch(accessRoles::contains);
+    }
+
+    /**
+     * Bind values for every slot in the SQL: filters first, then parameters, coerced by the
+     * slot's declared type. Slots without a value are bound to null.
+     */
+    public Map<String, Object> bindValues(Map<String, Object> parameters, Map<String, Object> filters) {
+        Map<String, Object> values = new HashMap<>();
+        for (String name : bindNames) {
+            Object value = filters != null && filters.containsKey(name) ? filters.get(name)
+                    : parameters != null ? parameters.get(name) : null;
+            Function<Object, Object> coercer = coercers.get(name);
+            values.put(name, value == null || coercer == null ? value : coercer.apply(value));
+        }
+        return values;
+    }
+
+    /** Filters that are not bind slots; they are matched against the output columns in memory. */
+    public Map<String, Object> rowFilters(Map<String, Object> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Object> rowFilters = new HashMap<>(filters);
+        rowFilters.keySet().removeAll(bindNames);
+        rowFilters.values().removeIf(java.util.Objects::isNull);
+        return rowFilters;
+    }
+
+    public ReportDTO toDTO() {
+        return ReportDTO.builder()
+                .id(id)
+                .reportCode(reportCode)
+                .name(name)
+                .description(description)
+                .reportType(reportType)
+                .category(category)
+                .parameters(parameters.isEmpty() ? null : parameters)
+                .accessRoles(accessRoles)
+                .active(active)
+                .createdBy(createdBy)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -8,8 +8,10 @@ import com.company.ops_hub_api.dto.AssignableUserDTO;
 import com.company.ops_hub_api.dto.ReassignCustomerDTO;
 import com.company.ops_hub_api.repository.CustomerAllocationRepository;
 import com.company.ops_hub_api.repository.CustomerRepository;
+import com.company.ops_hub_api.repository.CustomerScopeRepository;
 import com.company.ops_hub_api.repository.UserRepository;
 import com.company.ops_hub_api.security.UserPrincipal;
+import com.company.ops_hub_api.util.GeographyTree;
 import com.company.ops_hub_api.util.HierarchyUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -36,7 +38,10 @@ public class CustomerAllocationService {
     private final AuditLogService auditLogService;
     private final EmailNotificationService emailNotificationService;
     private final NotificationService notificationService;
+    private final LiveUpdateService liveUpdates;
     private final ReportDataFilter reportDataFilter;
+    private final CustomerScopeRepository scopeRepository;
+    private final GeographyTreeService geographyTreeService;
 
     /**
      * Allocate a customer to a user
@@ -92,6 +97,7 @@ public class CustomerAllocationService {
         allocation.setNotes(dto.getNotes());
         
         CustomerAllocation savedAllocation = allocationRepository.save(allocation);
+        liveUpdates.agentDashboardChanged(savedAllocation.getUser().getId(), "ALLOCATION");
 
         // Update customer status lifecycle
         updateCustomerStatus(customer, "ASSIGNED");
@@ -196,6 +202,7 @@ public class CustomerAllocationService {
             existing.setDeallocatedAt(LocalDateTime.now());
             existing.setDeallocationReason("Reassigned to user " + newAssignee.getEmployeeId() + ": " + dto.getReason());
             allocationRepository.save(existing);
+            liveUpdates.agentDashboardChanged(existing.getUser().getId(), "ALLOCATION");
         }
         
         // Check if customer is already allocated to new user
@@ -216,6 +223,7 @@ public class CustomerAllocationService {
         newAllocation.setNotes(dto.getNotes());
         
         CustomerAllocation savedAllocation = allocationRepository.save(newAllocation);
+        liveUpdates.agentDashboardChanged(newAssignee.getId(), "ALLOCATION");
 
         // Update customer status lifecycle
         updateCustomerStatus(customer, "ASSIGNED");
@@ -287,6 +295,7 @@ public class CustomerAllocationService {
         allocation.setDeallocationReason(reason);
         
         CustomerAllocation savedAllocation = allocationRepository.save(allocation);
+        liveUpdates.agentDashboardChanged(savedAllocation.getUser().getId(), "ALLOCATION");
         
         // Log audit
         Map<String, Object> oldValues = new HashMap<>();
@@ -345,14 +354,7 @@ public class CustomerAllocationService {
     public List<CustomerAllocation> getAllActiveAllocations() {
         checkAllocationPermission();
         User currentUser = getCurrentUser();
-        java.util.Set<Long> customerIds = reportDataFilter.getAccessibleCustomerIds(currentUser);
-        if (customerIds == null) {
-            return allocationRepository.findByStatus("ACTIVE");
-        }
-        if (customerIds.isEmpty()) {
-            return List.of();
-        }
-        return allocationRepository.findByStatusAndCustomerIdIn("ACTIVE", new java.util.ArrayList<>(customerIds));
+        return scopeRepository.findActiveAllocations(reportDataFilter.resolveScope(currentUser));
     }
 
     /**
@@ -371,17 +373,17 @@ public class CustomerAllocationService {
             Long clusterId = HierarchyUtil.getClusterId(currentUser);
             users = clusterId == null
                     ? List.of()
-                    : userRepository.findByAreaZoneCircleClusterIdAndUserType(clusterId, HierarchyUtil.CIRCLE_HEAD);
+                    : userRepository.findByClusterIdAndUserType(clusterId, HierarchyUtil.CIRCLE_HEAD);
         } else if (HierarchyUtil.CIRCLE_HEAD.equals(allocatorType)) {
             Long circleId = HierarchyUtil.getCircleId(currentUser);
             users = circleId == null
                     ? List.of()
-                    : userRepository.findByAreaZoneCircleIdAndUserType(circleId, HierarchyUtil.ZONE_HEAD);
+                    : userRepository.findByCircleIdAndUserType(circleId, HierarchyUtil.ZONE_HEAD);
         } else if (HierarchyUtil.ZONE_HEAD.equals(allocatorType)) {
             Long zoneId = HierarchyUtil.getZoneId(currentUser);
             users = zoneId == null
                     ? List.of()
-                    : userRepository.findByAreaZoneIdAndUserType(zoneId, HierarchyUtil.AREA_HEAD);
+                    : userRepository.findByZoneIdAndUserType(zoneId, HierarchyUtil.AREA_HEAD);
         } else if (HierarchyUtil.AREA_HEAD.equals(allocatorType) || HierarchyUtil.STORE_HEAD.equals(allocatorType)) {
             Long areaId = HierarchyUtil.getAreaId(currentUser);
             users = areaId == null
@@ -455,24 +457,25 @@ public class CustomerAllocationService {
     }
 
     private boolean isWithinScope(String allocatorType, User allocator, User assignee) {
+        GeographyTree geography = geographyTreeService.current();
+        Long allocatorArea = HierarchyUtil.getAreaId(allocator);
+        Long assigneeArea = HierarchyUtil.getAreaId(assignee);
         if (HierarchyUtil.CLUSTER_HEAD.equals(allocatorType)) {
-            Long allocatorCluster = HierarchyUtil.getClusterId(allocator);
-            Long assigneeCluster = HierarchyUtil.getClusterId(assignee);
-            return allocatorCluster != null && allocatorCluster.equals(assigneeCluster);
+            Long allocatorCluster = HierarchyUtil.getClusterId(geography, allocatorArea);
+            return allocatorCluster != null
+                    && allocatorCluster.equals(HierarchyUtil.getClusterId(geography, assigneeArea));
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(allocatorType)) {
-            Long allocatorCircle = HierarchyUtil.getCircleId(allocator);
-            Long assigneeCircle = HierarchyUtil.getCircleId(assignee);
-            return allocatorCircle != null && allocatorCircle.equals(assigneeCircle);
+            Long allocatorCircle = HierarchyUtil.getCircleId(geography, allocatorArea);
+            return allocatorCircle != null
+                    && allocatorCircle.equals(HierarchyUtil.getCircleId(geography, assigneeArea));
         }
         if (HierarchyUtil.ZONE_HEAD.equals(allocatorType)) {
-            Long allocatorZone = HierarchyUtil.getZoneId(allocator);
-            Long assigneeZone = HierarchyUtil.getZoneId(assignee);
-            return allocatorZone != null && allocatorZone.equals(assigneeZone);
+            Long allocatorZone = HierarchyUtil.getZoneId(geography, allocatorArea);
+            return allocatorZone != null
+                    && allocatorZone.equals(HierarchyUtil.getZoneId(geography, assigneeArea));
         }
         if (HierarchyUtil.AREA_HEAD.equals(allocatorType) || HierarchyUtil.STORE_HEAD.equals(allocatorType)) {
-            Long allocatorArea = HierarchyUtil.getAreaId(allocator);
-            Long assigneeArea = HierarchyUtil.getAreaId(assignee);
             return allocatorArea != null && allocatorArea.equals(assigneeArea);
         }
         return false;
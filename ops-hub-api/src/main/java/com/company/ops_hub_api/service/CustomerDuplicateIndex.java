@@ -0,0 +1,159 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.repository.CustomerRepository;
+import com.company.ops_hub_api.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Customer Duplicate Index
+ * Answers "which of these encrypted phones/emails already exist" for bulk uploads.
+ * A Bloom filter of existing values screens out values that are definitely new; the rest are
+ * confirmed with chunked IN queries. Every customer saved through JPA on this instance is added
+ * once its transaction commits (see {@link CustomerDuplicateIndexListener}); the filter is also
+ * rebuilt from the table on a schedule, which picks up customers written by other instances or
+ * directly in SQL.
+ */
+@Component
+@Slf4j
+public class CustomerDuplicateIndex {
+
+    // SQL Server caps a statement at 2100 parameters.
+    static final int IN_CHUNK_SIZE = 2000;
+
+    private record Filters(BloomFilter phones, BloomFilter emails) {}
+
+    private final CustomerRepository customerRepository;
+    private final long expectedCustomers;
+    private final double falsePositiveRate;
+    // Null until the first load succeeds; every value is then checked against the database
+    private volatile Filters filters;
+    // Set while a rebuild streams the table, so values committed meanwhile land in both filters
+    private volatile Filters building;
+
+    public CustomerDuplicateIndex(CustomerRepository customerRepository,
+                                  @Value("${app.uploads.duplicate-filter.expected-customers:1000000}") long expectedCustomers,
+                                  @Value("${app.uploads.duplicate-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.customerRepository = customerRepository;
+        this.expectedCustomers = expectedCustomers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.uploads.duplicate-filter.rebuild-ms:900000}",
+            fixedDelayString = "${app.uploads.duplicate-filter.rebuild-ms:900000}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Filters next = new Filters(BloomFilter.create(expectedCustomers, falsePositiveRate),
+                BloomFilter.create(expectedCustomers, falsePositiveRate));
+        // Published before streaming: a value committed after this point is either read by the
+        // stream or recorded into the new filter directly
+        building = next;
+        try {
+            try (Stream<String> values = customerRepository.streamAllPhoneEncrypted()) {
+                values.forEach(next.phones()::put);
+            }
+            try (Stream<String> values = customerRepository.streamAllEmailEncrypted()) {
+                values.forEach(next.emails()::put);
+            }
+            filters = next;
+            log.info("Customer duplicate index loaded");
+        } catch (Exception e) {
+            log.error("Failed to load customer duplicate index; keeping the previous filter", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Adds the values once the current transaction commits (immediately when none is active).
+     * Values from a rolled-back write are never added.
+     */
+    public void recordAfterCommit(String phoneEncrypted, String emailEncrypted) {
+        if (phoneEncrypted == null && emailEncrypted == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordCustomer(phoneEncrypted, emailEncrypted);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<String[]> pending = (List<String[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<String[]> created = new ArrayList<>();
+            pending = created;
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CustomerDuplicateIndex.this);
+                    if (status == STATUS_COMMITTED) {
+                        created.forEach(values -> recordCustomer(values[0], values[1]));
+                    }
+                }
+            });
+        }
+        pending.add(new String[] {phoneEncrypted, emailEncrypted});
+    }
+
+    public void recordCustomer(String phoneEncrypted, String emailEncrypted) {
+        Filters current = filters;
+        if (current != null) {
+            current.phones().put(phoneEncrypted);
+            current.emails().put(emailEncrypted);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.phones().put(phoneEncrypted);
+            next.emails().put(emailEncrypted);
+        }
+    }
+
+    public Set<String> findExistingPhones(Collection<String> phoneEncrypted) {
+        Filters current = filters;
+        return findExisting(phoneEncrypted, current != null ? current.phones() : null,
+                customerRepository::findExistingPhoneEncrypted);
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emailEncrypted) {
+        Filters current = filters;
+        return findExisting(emailEncrypted, current != null ? current.emails() : null,
+                customerRepository::findExistingEmailEncrypted);
+    }
+
+    private Set<String> findExisting(Collection<String> values, BloomFilter filter,
+                                     Function<List<String>, List<String>> query) {
+        List<String> candidates = new ArrayList<>();
+        for (String value : values) {
+            if (value != null && (filter == null || filter.mightContain(value))) {
+                candidates.add(value);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (int start = 0; start < candidates.size(); start += IN_CHUNK_SIZE) {
+            List<String> chunk = candidates.subList(start, Math.min(start + IN_CHUNK_SIZE, candidates.size()));
+            existing.addAll(query.apply(chunk));
+        }
+        return existing;
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Customer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on Customer that adds its encrypted phone and email to {@link CustomerDuplicateIndex}
+ * once the writing transaction commits, whichever service saved it.
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class CustomerDuplicateIndexListener {
+
+    private final CustomerDuplicateIndex duplicateIndex;
+
+    public CustomerDuplicateIndexListener(CustomerDuplicateIndex duplicateIndex) {
+        this.duplicateIndex = duplicateIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Customer customer) {
+        duplicateIndex.recordAfterCommit(customer.getPhoneEncrypted(), customer.getEmailEncrypted());
+    }
+}
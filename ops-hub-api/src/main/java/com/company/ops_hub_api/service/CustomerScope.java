@@ -0,0 +1,29 @@
+package com.company.ops_hub_api.service;
+
+/**
+ * Customer Scope
+ * Describes which customers a user may see: all of them, one geography node
+ * (cluster, circle, zone or area) or the customers actively allocated to one user.
+ * Users with the same scope share cached scope data regardless of who asks.
+ */
+public record CustomerScope(Type type, Long id) {
+
+    public enum Type {
+        ALL,
+        CLUSTER,
+        CIRCLE,
+        ZONE,
+        AREA,
+        ALLOCATED
+    }
+
+    public static final CustomerScope ALL = new CustomerScope(Type.ALL, null);
+
+    public static CustomerScope allocatedTo(Long userId) {
+        return new CustomerScope(Type.ALLOCATED, userId);
+    }
+
+    public boolean isUnrestricted() {
+        return type == Type.ALL;
+    }
+}
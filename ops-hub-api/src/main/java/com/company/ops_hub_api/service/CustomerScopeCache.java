@@ -0,0 +1,118 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.util.CompactIdSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Customer Scope Cache
+ * Caches accessible customer IDs per {@link CustomerScope}, so every head of the same circle
+ * (and every dashboard, AI question and report they run) shares one compact ID set.
+ * Entries are dropped after a TTL and after any committed customer or allocation change.
+ */
+@Component
+@Slf4j
+public class CustomerScopeCache {
+
+    private final long ttlMillis;
+    private final Map<CustomerScope, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that raced with a change is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    public CustomerScopeCache(@Value("${app.reports.scope-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public CompactIdSet get(CustomerScope scope, Supplier<CompactIdSet> loader) {
+        Entry entry = entries.get(scope);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.loadedAt() < ttlMillis) {
+            return entry.customerIds();
+        }
+        long startGeneration = generation.get();
+        CompactIdSet customerIds = loader.get();
+        if (generation.get() == startGeneration) {
+            entries.put(scope, new Entry(customerIds, now));
+        }
+        return customerIds;
+    }
+
+    /** The cached set for {@code scope}, or null when it is not loaded or has expired. */
+    public CompactIdSet getIfPresent(CustomerScope scope) {
+        Entry entry = entries.get(scope);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAt() < ttlMillis) {
+            return entry.customerIds();
+        }
+        return null;
+    }
+
+    /** Customers were created, moved or removed: drop every geography scope. */
+    public void invalidateGeography() {
+        generation.incrementAndGet();
+        entries.keySet().removeIf(scope -> scope.type() != CustomerScope.Type.ALLOCATED);
+    }
+
+    public void invalidateAllocated(Long userId) {
+        generation.incrementAndGet();
+        entries.remove(CustomerScope.allocatedTo(userId));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Defers invalidation until the current transaction commits (immediately when none is
+     * active), collapsing all changes of one transaction into a single invalidation.
+     */
+    public void invalidateAfterCommit(boolean geography, Long allocatedUserId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(geography, allocatedUserId == null ? Set.of() : Set.of(allocatedUserId));
+            return;
+        }
+        PendingInvalidation pending = (PendingInvalidation) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingInvalidation created = new PendingInvalidation();
+            pending = created;
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CustomerScopeCache.this);
+                    if (status == STATUS_COMMITTED) {
+                        apply(created.geography, created.allocatedUserIds);
+                    }
+                }
+            });
+        }
+        pending.geography |= geography;
+        if (allocatedUserId != null) {
+            pending.allocatedUserIds.add(allocatedUserId);
+        }
+    }
+
+    private void apply(boolean geography, Set<Long> allocatedUserIds) {
+        if (geography) {
+            invalidateGeography();
+        }
+        allocatedUserIds.forEach(this::invalidateAllocated);
+    }
+
+    private record Entry(CompactIdSet customerIds, long loadedAt) {}
+
+    private static final class PendingInvalidation {
+        private boolean geography;
+        private final Set<Long> allocatedUserIds = new HashSet<>();
+    }
+}
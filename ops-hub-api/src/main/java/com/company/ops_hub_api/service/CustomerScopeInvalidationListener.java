@@ -0,0 +1,107 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Customer;
+import com.company.ops_hub_api.domain.CustomerAllocation;
+import com.company.ops_hub_api.domain.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Hibernate listener on Customer and CustomerAllocation that invalidates {@link CustomerScopeCache}
+ * once the changing transaction commits. A customer update only invalidates when it changes the
+ * customer's geography, so status, amount and contact edits keep the cached scopes.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerScopeInvalidationListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // Customer properties that decide which geography scopes include it
+    private static final Set<String> GEOGRAPHY_PROPERTIES = Set.of("area", "zoneId", "circleId", "clusterId");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CustomerScopeCache scopeCache;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onChange(event.getEntity(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Customer && !geographyChanged(event)) {
+            return;
+        }
+        onChange(event.getEntity(), previousUser(event));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onChange(event.getEntity(), null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void onChange(Object entity, Long previousUserId) {
+        if (entity instanceof CustomerAllocation allocation) {
+            scopeCache.invalidateAfterCommit(false,
+                    allocation.getUser() != null ? allocation.getUser().getId() : null);
+            if (previousUserId != null) {
+                // Reassigned: the previous user's allocated scope loses the customer
+                scopeCache.invalidateAfterCommit(false, previousUserId);
+            }
+        } else if (entity instanceof Customer) {
+            scopeCache.invalidateAfterCommit(true, null);
+        }
+    }
+
+    // Without dirty tracking (a detached update) the change is treated as a move
+    private static boolean geographyChanged(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (GEOGRAPHY_PROPERTIES.contains(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long previousUser(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof CustomerAllocation) || event.getOldState() == null) {
+            return null;
+        }
+        Object user = event.getOldState()[event.getPersister().getPropertyIndex("user")];
+        return user instanceof User previous ? previous.getId() : null;
+    }
+}
@@ -5,6 +5,7 @@ import com.company.ops_hub_api.domain.User;
 import com.company.ops_hub_api.repository.CustomerRepository;
 import com.company.ops_hub_api.repository.UserRepository;
 import com.company.ops_hub_api.security.UserPrincipal;
+import com.company.ops_hub_api.util.GeographyTree;
 import com.company.ops_hub_api.util.HierarchyUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +23,8 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
+    private final GeographyTreeService geographyTreeService;
+    private final ReportDataFilter reportDataFilter;
 
     /**
      * Get all customers - filtered by permissions
@@ -42,13 +45,13 @@ public class CustomerService {
         Long zoneId = HierarchyUtil.getZoneId(currentUser);
 
         if (HierarchyUtil.CLUSTER_HEAD.equals(userType) && clusterId != null) {
-            return customerRepository.findByAreaZoneCircleClusterId(clusterId);
+            return customerRepository.findByClusterId(clusterId);
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(userType) && circleId != null) {
-            return customerRepository.findByAreaZoneCircleId(circleId);
+            return customerRepository.findByCircleId(circleId);
         }
         if (HierarchyUtil.ZONE_HEAD.equals(userType) && zoneId != null) {
-            return customerRepository.findByAreaZoneId(zoneId);
+            return customerRepository.findByZoneId(zoneId);
         }
 
         return customerRepository.findCustomersByAssignedUserId(currentUser.getId());
@@ -96,23 +99,21 @@ public class CustomerService {
         Long zoneId = HierarchyUtil.getZoneId(currentUser);
         Long currentAreaId = HierarchyUtil.getAreaId(currentUser);
 
+        GeographyTree geography = geographyTreeService.current();
         if (HierarchyUtil.CIRCLE_HEAD.equals(userType) && circleId != null) {
-            return customerRepository.findByAreaId(areaId).stream()
-                    .filter(customer -> circleId.equals(HierarchyUtil.getCircleId(customer.getArea())))
-                    .toList();
+            return circleId.equals(HierarchyUtil.getCircleId(geography, areaId))
+                    ? customerRepository.findByAreaId(areaId)
+                    : List.of();
         }
         if (HierarchyUtil.ZONE_HEAD.equals(userType) && zoneId != null) {
-            return customerRepository.findByAreaId(areaId).stream()
-                    .filter(customer -> zoneId.equals(HierarchyUtil.getZoneId(customer.getArea())))
-                    .toList();
+            return zoneId.equals(HierarchyUtil.getZoneId(geography, areaId))
+                    ? customerRepository.findByAreaId(areaId)
+                    : List.of();
         }
         if (HierarchyUtil.AREA_HEAD.equals(userType) || HierarchyUtil.STORE_HEAD.equals(userType)
                 || HierarchyUtil.AGENT.equals(userType)) {
             if (currentAreaId != null && currentAreaId.equals(areaId)) {
-                return customerRepository.findCustomersByAssignedUserId(currentUser.getId()).stream()
-                        .filter(customer -> customer.getArea() != null &&
-                                areaId.equals(customer.getArea().getId()))
-                        .toList();
+                return customerRepository.findAssignedByUserIdAndAreaId(currentUser.getId(), areaId);
             }
             return List.of();
         }
@@ -128,25 +129,25 @@ public class CustomerService {
         if (HierarchyUtil.ADMIN.equals(userType)) {
             return true;
         }
+        GeographyTree geography = geographyTreeService.current();
+        Long customerAreaId = HierarchyUtil.getAreaId(customer);
         if (HierarchyUtil.CLUSTER_HEAD.equals(userType)) {
             Long userClusterId = HierarchyUtil.getClusterId(currentUser);
-            Long customerClusterId = HierarchyUtil.getClusterId(customer.getArea());
+            Long customerClusterId = HierarchyUtil.getClusterId(geography, customerAreaId);
             return userClusterId != null && userClusterId.equals(customerClusterId);
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(userType)) {
             Long userCircleId = HierarchyUtil.getCircleId(currentUser);
-            Long customerCircleId = HierarchyUtil.getCircleId(customer.getArea());
+            Long customerCircleId = HierarchyUtil.getCircleId(geography, customerAreaId);
             return userCircleId != null && userCircleId.equals(customerCircleId);
         }
         if (HierarchyUtil.ZONE_HEAD.equals(userType)) {
             Long userZoneId = HierarchyUtil.getZoneId(currentUser);
-            Long customerZoneId = HierarchyUtil.getZoneId(customer.getArea());
+            Long customerZoneId = HierarchyUtil.getZoneId(geography, customerAreaId);
             return userZoneId != null && userZoneId.equals(customerZoneId);
         }
 
-        return customerRepository.findCustomersByAssignedUserId(currentUser.getId())
-                .stream()
-                .anyMatch(allocated -> allocated.getId().equals(customer.getId()));
+        return reportDataFilter.isAllocatedTo(currentUser.getId(), customer.getId());
     }
 
     private User getCurrentUser() {
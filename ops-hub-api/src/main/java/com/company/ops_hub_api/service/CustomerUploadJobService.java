@@ -0,0 +1,193 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.CustomerUpload;
+import com.company.ops_hub_api.dto.CustomerUploadRowDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Customer Upload Job Service
+ * Processes stored upload files in the background, streaming rows from the file and committing
+ * one chunk at a time. A job picked up again after a restart skips the rows already counted in
+ * processedRows. A job runs only while this instance holds the upload's processing lease.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerUploadJobService {
+
+    private final CustomerUploadParser uploadParser;
+    private final CustomerUploadWriter uploadWriter;
+    private final AreaHeadAssigner areaHeadAssigner;
+    private final AuditLogService auditLogService;
+    private final NotificationService notificationService;
+
+    @Value("${app.uploads.chunk-size:500}")
+    private int chunkSize;
+
+    @Async("uploadTaskExecutor")
+    public void processUpload(Long uploadId) {
+        if (!uploadWriter.claim(uploadId)) {
+            log.info("Customer upload {} is finished or being processed by another instance", uploadId);
+            return;
+        }
+        String fileName = null;
+        String filePath = null;
+        boolean leaseLost = false;
+        try {
+            CustomerUpload upload = uploadWriter.startUpload(uploadId);
+            fileName = upload.getFileName();
+            filePath = upload.getFilePath();
+            GeographyDictionary geography = uploadParser.loadGeography();
+            Path path = Paths.get(upload.getFilePath());
+            int skip = upload.getProcessedRows();
+            if (skip > 0) {
+                log.info("Resuming customer upload {} at row {} of {}", uploadId, skip, upload.getTotalRows());
+            }
+            AreaHeadAssigner.Session assignments = areaHeadAssigner.openSession();
+            ChunkWriter chunks;
+            if (CustomerUploadPreviewStore.isSpillFile(upload.getFilePath())) {
+                // Rows were validated at preview time; only existing customers can have changed.
+                // The row count was recorded from the preview when the upload was created.
+                chunks = new ChunkWriter(uploadId, upload.getCurrentChunk(), geography, assignments,
+                        uploadParser::recheckExistingDuplicates);
+                CustomerUploadPreviewStore.readRows(path, skip, chunks);
+            } else {
+                CustomerUploadParser.UploadScan scan;
+                try (InputStream input = Files.newInputStream(path)) {
+                    scan = uploadParser.scan(upload.getFileName(), input);
+                }
+                uploadWriter.updateTotalRows(uploadId, scan.rows());
+                chunks = new ChunkWriter(uploadId, upload.getCurrentChunk(), geography, assignments,
+                        chunk -> uploadParser.applyDuplicateValidation(chunk, scan));
+                try (InputStream input = Files.newInputStream(path)) {
+                    uploadParser.parse(upload.getFileName(), input, geography, skip, chunks);
+                }
+            }
+            chunks.flush();
+
+            CustomerUpload completed = uploadWriter.completeUpload(uploadId);
+            Map<String, Object> auditData = new HashMap<>();
+            auditData.put("uploadId", completed.getId());
+            auditData.put("fileName", completed.getFileName());
+            auditData.put("totalRows", completed.getTotalRows());
+            auditData.put("successfulRows", completed.getSuccessfulRows());
+            auditData.put("failedRows", completed.getFailedRows());
+            auditLogService.logActionForUser(completed.getUploadedBy().getId(), "UPLOAD_COMPLETED",
+                    "CUSTOMER_UPLOAD", completed.getId(), null, auditData, null);
+            deleteStoredFile(completed.getFilePath());
+        } catch (CustomerUploadWriter.LeaseLostException ex) {
+            // The instance that took over finishes the upload, sends the digest and deletes the file
+            leaseLost = true;
+            log.warn("Stopped customer upload {}: {}", uploadId, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Customer upload {} failed", uploadId, ex);
+            try {
+                uploadWriter.failUpload(uploadId, "Upload failed: " + ex.getMessage());
+                // FAILED uploads are never resumed, so nothing will read the file again
+                deleteStoredFile(filePath);
+            } catch (Exception inner) {
+                // Still PENDING/PROCESSING: keep the file for the resume after restart
+                log.error("Failed to mark customer upload {} as failed", uploadId, inner);
+            }
+        } finally {
+            if (!leaseLost) {
+                sendAssignmentDigest(uploadId, fileName);
+            }
+        }
+    }
+
+    /**
+     * Groups streamed rows into chunks and commits each one as it fills, so a job holds at most
+     * one chunk of rows plus the parser's in-flight batches.
+     */
+    private final class ChunkWriter implements Consumer<CustomerUploadRowDTO> {
+
+        private final Long uploadId;
+        private final GeographyDictionary geography;
+        private final AreaHeadAssigner.Session assignments;
+        private final Consumer<List<CustomerUploadRowDTO>> duplicateCheck;
+        private final int size = Math.max(1, chunkSize);
+        private List<CustomerUploadRowDTO> chunk = new ArrayList<>();
+        private int chunkIndex;
+
+        private ChunkWriter(Long uploadId, int chunkIndex, GeographyDictionary geography,
+                            AreaHeadAssigner.Session assignments,
+                            Consumer<List<CustomerUploadRowDTO>> duplicateCheck) {
+            this.uploadId = uploadId;
+            this.chunkIndex = chunkIndex;
+            this.geography = geography;
+            this.assignments = assignments;
+            this.duplicateCheck = duplicateCheck;
+        }
+
+        @Override
+        public void accept(CustomerUploadRowDTO row) {
+            chunk.add(row);
+            if (chunk.size() >= size) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<CustomerUploadRowDTO> rows = chunk;
+            chunk = new ArrayList<>(size);
+            duplicateCheck.accept(rows);
+            assignments.preload(rows.stream()
+                    .filter(CustomerUploadRowDTO::isValid)
+                    .map(row -> geography.findArea(row.getArea()))
+                    .filter(Objects::nonNull)
+                    .map(Area::getId)
+                    .collect(Collectors.toSet()));
+            uploadWriter.writeChunk(uploadId, chunkIndex, rows, geography, assignments);
+            chunkIndex++;
+        }
+    }
+
+    /** Read back from the upload's allocations, so chunks committed before a restart are included. */
+    private void sendAssignmentDigest(Long uploadId, String fileName) {
+        try {
+            notificationService.sendDigest(
+                    uploadWriter.assignmentDigest(uploadId),
+                    "ASSIGNMENT",
+                    "Customers assigned from upload",
+                    count -> String.format("%,d customer%s assigned from upload %s.",
+                            count, count == 1 ? "" : "s", fileName != null ? fileName : "#" + uploadId),
+                    "CUSTOMER_UPLOAD",
+                    uploadId,
+                    "INFO");
+        } catch (Exception ex) {
+            log.error("Failed to send assignment notifications for customer upload {}", uploadId, ex);
+        }
+    }
+
+    private void deleteStoredFile(String filePath) {
+        if (filePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(filePath));
+        } catch (Exception ex) {
+            log.warn("Failed to delete stored upload file {}", filePath, ex);
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.Circle;
+import com.company.ops_hub_api.domain.Cluster;
+import com.company.ops_hub_api.domain.Zone;
+import com.company.ops_hub_api.dto.CustomerUploadRowDTO;
+import com.company.ops_hub_api.repository.AreaRepository;
+import com.company.ops_hub_api.repository.CircleRepository;
+import com.company.ops_hub_api.repository.ClusterRepository;
+import com.company.ops_hub_api.repository.ZoneRepository;
+import com.company.ops_hub_api.util.CsvTokenizer;
+import com.company.ops_hub_api.util.EncryptionUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Customer Upload Parser
+ * Parses CSV/XLSX customer uploads into validated rows, shared by upload preview and upload jobs
+ */
+@Component
+public class CustomerUploadParser {
+
+    private final ClusterRepository clusterRepository;
+    private final CircleRepository circleRepository;
+    private final ZoneRepository zoneRepository;
+    private final AreaRepository areaRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final StreamingXlsxReader xlsxReader;
+    private final CustomerDuplicateIndex duplicateIndex;
+    private final ThreadPoolTaskExecutor validationExecutor;
+    private final int validationBatchSize;
+
+    public CustomerUploadParser(ClusterRepository clusterRepository,
+                                CircleRepository circleRepository,
+                                ZoneRepository zoneRepository,
+                                AreaRepository areaRepository,
+                                EncryptionUtil encryptionUtil,
+                                StreamingXlsxReader xlsxReader,
+                                CustomerDuplicateIndex duplicateIndex,
+                                @Qualifier("uploadValidationExecutor") ThreadPoolTaskExecutor validationExecutor,
+                                @Value("${app.uploads.validation.batch-size:500}") int validationBatchSize) {
+        this.clusterRepository = clusterRepository;
+        this.circleRepository = circleRepository;
+        this.zoneRepository = zoneRepository;
+        this.areaRepository = areaRepository;
+        this.encryptionUtil = encryptionUtil;
+        this.xlsxReader = xlsxReader;
+        this.duplicateIndex = duplicateIndex;
+        this.validationExecutor = validationExecutor;
+        this.validationBatchSize = Math.max(1, validationBatchSize);
+    }
+
+    // Upload columns, addressed by position; the first REQUIRED_FIELDS are mandatory.
+    private static final List<String> FIELDS = List.of(
+            "customer_name", "phone", "email", "pending_amount",
+            "cluster", "circle", "zone", "area", "address", "store"
+    );
+    private static final int REQUIRED_FIELDS = 8;
+    private static final int CUSTOMER_NAME = 0;
+    private static final int PHONE = 1;
+    private static final int EMAIL = 2;
+    private static final int PENDING_AMOUNT = 3;
+    private static final int CLUSTER = 4;
+    private static final int CIRCLE = 5;
+    private static final int ZONE = 6;
+    private static final int AREA = 7;
+    private static final int ADDRESS = 8;
+    private static final int STORE = 9;
+
+    public GeographyDictionary loadGeography() {
+        return GeographyDictionary.of(
+                clusterRepository.findAll(),
+                circleRepository.findAll(),
+                zoneRepository.findAll(),
+                areaRepository.findAll());
+    }
+
+    /**
+     * Parses on the calling thread and validates batches of rows on the upload validation pool.
+     * Batches are reassembled in file order, so row numbers and errors do not depend on scheduling.
+     */
+    public List<CustomerUploadRowDTO> parse(String fileName, InputStream input,
+                                            GeographyDictionary geography) throws Exception {
+        List<CustomerUploadRowDTO> rows = new ArrayList<>();
+        parse(fileName, input, geography, 0, rows::add);
+        return rows;
+    }
+
+    /**
+     * Streaming form of {@link #parse(String, InputStream, GeographyDictionary)}: validated rows
+     * reach {@code sink} in file order on the calling thread, so only the batches in flight are
+     * held in memory. The first {@code skip} data rows are read but neither validated nor delivered.
+     */
+    public void parse(String fileName, InputStream input, GeographyDictionary geography, int skip,
+                      Consumer<CustomerUploadRowDTO> sink) throws Exception {
+        ValidationStage validation = new ValidationStage(geography, skip, sink);
+        readDataRows(fileName, input, validation::submit);
+        validation.finish();
+    }
+
+    /**
+     * Reads the file once without validating it, counting its data rows and the phones and
+     * emails that occur more than once. Lets a job flag in-upload duplicates while streaming.
+     */
+    public UploadScan scan(String fileName, InputStream input) throws Exception {
+        UploadScan scan = new UploadScan();
+        readDataRows(fileName, input, (rowNumber, values) -> scan.add(values[PHONE], values[EMAIL]));
+        scan.seal();
+        return scan;
+    }
+
+    private void readDataRows(String fileName, InputStream input, DataRowHandler handler) throws Exception {
+        String normalizedName = Optional.ofNullable(fileName).orElse("").toLowerCase();
+        if (normalizedName.endsWith(".xlsx")) {
+            parseExcel(input, handler);
+        } else {
+            parseCsv(input, handler);
+        }
+    }
+
+    private void parseExcel(InputStream input, DataRowHandler handler) throws Exception {
+        ColumnLayout[] layout = new ColumnLayout[1];
+        xlsxReader.read(input, (rowNumber, cells) -> {
+            if (rowNumber == 1) {
+                layout[0] = ColumnLayout.of(cells.size(), cells::get);
+                return;
+            }
+            if (layout[0] == null || layout[0].isBlank(cells.size(), column -> isBlank(cells.get(column)))) {
+                return;
+            }
+            handler.row(rowNumber,
+                    layout[0].extract(column -> column < cells.size() ? cells.get(column) : ""));
+        });
+    }
+
+    private void parseCsv(InputStream input, DataRowHandler handler) throws Exception {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            CsvTokenizer.Row row = new CsvTokenizer.Row();
+            if (!tokenizer.next(row)) {
+                return;
+            }
+            ColumnLayout layout = ColumnLayout.of(row.size(), row::get);
+            int rowNumber = 1;
+            while (tokenizer.next(row)) {
+                rowNumber++;
+                if (layout.isBlank(row.size(), row::isBlank)) {
+                    continue;
+                }
+                handler.row(rowNumber, layout.extract(row::getTrimmed));
+            }
+        }
+    }
+
+    private CustomerUploadRowDTO buildRowDto(int rowNumber, String[] values, GeographyDictionary geography) {
+        List<String> errors = new ArrayList<>();
+        for (int field = 0; field < REQUIRED_FIELDS; field++) {
+            if (isBlank(values[field])) {
+                errors.add(FIELDS.get(field) + " is required");
+            }
+        }
+
+        String pendingAmount = values[PENDING_AMOUNT].trim();
+        if (!isBlank(pendingAmount)) {
+            try {
+                new BigDecimal(pendingAmount);
+            } catch (NumberFormatException ex) {
+                errors.add("pending_amount must be a valid number");
+            }
+        }
+
+        String email = values[EMAIL].trim();
+        if (!isBlank(email) && !email.contains("@")) {
+            errors.add("email must be valid");
+        }
+
+        GeographyMatch match = validateGeography(values, errors, geography);
+
+        return CustomerUploadRowDTO.builder()
+                .rowNumber(rowNumber)
+                .customerName(values[CUSTOMER_NAME])
+                .phone(values[PHONE])
+                .email(values[EMAIL])
+                .pendingAmount(pendingAmount)
+                .address(values[ADDRESS])
+                .cluster(values[CLUSTER])
+                .circle(values[CIRCLE])
+                .zone(values[ZONE])
+                .area(values[AREA])
+                .store(values[STORE])
+                .phoneEncrypted(isBlank(values[PHONE]) ? null : encryptionUtil.encrypt(values[PHONE]))
+                .emailEncrypted(isBlank(values[EMAIL]) ? null : encryptionUtil.encrypt(values[EMAIL]))
+                .valid(errors.isEmpty() && match.valid())
+                .errors(errors)
+                .build();
+    }
+
+    private GeographyMatch validateGeography(String[] values, List<String> errors,
+                                             GeographyDictionary geography) {
+        Cluster cluster = geography.findCluster(values[CLUSTER]);
+        if (cluster == null && !isBlank(values[CLUSTER])) {
+            errors.add("cluster not found");
+        }
+        Circle circle = geography.findCircle(values[CIRCLE]);
+        if (circle == null && !isBlank(values[CIRCLE])) {
+            errors.add("circle not found");
+        }
+        Zone zone = geography.findZone(values[ZONE]);
+        if (zone == null && !isBlank(values[ZONE])) {
+            errors.add("zone not found");
+        }
+        Area area = geography.findArea(values[AREA]);
+        if (area == null && !isBlank(values[AREA])) {
+            errors.add("area not found");
+        }
+
+        if (cluster != null && circle != null && !GeographyDictionary.circleBelongsTo(circle, cluster)) {
+            errors.add("circle does not belong to cluster");
+        }
+        if (circle != null && zone != null && !GeographyDictionary.zoneBelongsTo(zone, circle)) {
+            errors.add("zone does not belong to circle");
+        }
+        if (zone != null && area != null && !GeographyDictionary.areaBelongsTo(area, zone)) {
+            errors.add("area does not belong to zone");
+        }
+        return new GeographyMatch(cluster, circle, zone, area, errors.isEmpty());
+    }
+
+    public void applyDuplicateValidation(List<CustomerUploadRowDTO> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> phoneCounts = new HashMap<>();
+        Map<String, Integer> emailCounts = new HashMap<>();
+        for (CustomerUploadRowDTO row : rows) {
+            String phone = encryptedPhone(row);
+            if (phone != null) {
+                phoneCounts.merge(phone, 1, Integer::sum);
+            }
+            String email = encryptedEmail(row);
+            if (email != null) {
+                emailCounts.merge(email, 1, Integer::sum);
+            }
+        }
+        markDuplicates(rows,
+                row -> phoneCounts.get(encryptedPhone(row)) > 1,
+                row -> emailCounts.get(encryptedEmail(row)) > 1);
+    }
+
+    /**
+     * Duplicate check for one chunk of a streamed upload: in-upload repeats come from the
+     * whole-file {@code scan}, existing customers from the duplicate index.
+     */
+    public void applyDuplicateValidation(List<CustomerUploadRowDTO> chunk, UploadScan scan) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        markDuplicates(chunk,
+                row -> scan.repeatedPhone(row.getPhone()),
+                row -> scan.repeatedEmail(row.getEmail()));
+    }
+
+    private void markDuplicates(List<CustomerUploadRowDTO> rows,
+                                Predicate<CustomerUploadRowDTO> repeatedPhone,
+                                Predicate<CustomerUploadRowDTO> repeatedEmail) {
+        String[] encryptedPhones = new String[rows.size()];
+        String[] encryptedEmails = new String[rows.size()];
+        Set<String> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            encryptedPhones[i] = encryptedPhone(rows.get(i));
+            if (encryptedPhones[i] != null) {
+                phones.add(encryptedPhones[i]);
+            }
+            encryptedEmails[i] = encryptedEmail(rows.get(i));
+            if (encryptedEmails[i] != null) {
+                emails.add(encryptedEmails[i]);
+            }
+        }
+
+        Set<String> existingPhones = duplicateIndex.findExistingPhones(phones);
+        Set<String> existingEmails = duplicateIndex.findExistingEmails(emails);
+
+        for (int i = 0; i < rows.size(); i++) {
+            CustomerUploadRowDTO row = rows.get(i);
+            List<String> errors = row.getErrors() != null ? new ArrayList<>(row.getErrors()) : new ArrayList<>();
+            boolean valid = row.isValid();
+            if (encryptedPhones[i] != null) {
+                if (repeatedPhone.test(row)) {
+                    errors.add("duplicate phone in upload");
+                    valid = false;
+                }
+                if (existingPhones.contains(encryptedPhones[i])) {
+                    errors.add("phone already exists");
+                    valid = false;
+                }
+            }
+            if (encryptedEmails[i] != null) {
+                if (repeatedEmail.test(row)) {
+                    errors.add("duplicate email in upload");
+                    valid = false;
+                }
+                if (existingEmails.contains(encryptedEmails[i])) {
+                    errors.add("email already exists");
+                    valid = false;
+                }
+            }
+            row.setErrors(errors);
+            row.setValid(valid);
+        }
+    }
+
+    private String encryptedPhone(CustomerUploadRowDTO row) {
+        if (isBlank(row.getPhone())) {
+            return null;
+        }
+        return row.getPhoneEncrypted() != null ? row.getPhoneEncrypted() : encryptionUtil.encrypt(row.getPhone());
+    }
+
+    private String encryptedEmail(CustomerUploadRowDTO row) {
+        if (isBlank(row.getEmail())) {
+            return null;
+        }
+        return row.getEmailEncrypted() != null ? row.getEmailEncrypted() : encryptionUtil.encrypt(row.getEmail());
+    }
+
+    /**
+     * Re-runs only the database half of the duplicate check for rows validated earlier,
+     * such as a stored preview, to catch customers created since.
+     */
+    public void recheckExistingDuplicates(List<CustomerUploadRowDTO> rows) {
+        Set<String> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (CustomerUploadRowDTO row : rows) {
+            if (row.isValid()) {
+                if (row.getPhoneEncrypted() != null) {
+                    phones.add(row.getPhoneEncrypted());
+                }
+                if (row.getEmailEncrypted() != null) {
+                    emails.add(row.getEmailEncrypted());
+                }
+            }
+        }
+        Set<String> existingPhones = duplicateIndex.findExistingPhones(phones);
+        Set<String> existingEmails = duplicateIndex.findExistingEmails(emails);
+        if (existingPhones.isEmpty() && existingEmails.isEmpty()) {
+            return;
+        }
+        for (CustomerUploadRowDTO row : rows) {
+            if (!row.isValid()) {
+                continue;
+            }
+            List<String> errors = row.getErrors() != null ? new ArrayList<>(row.getErrors()) : new ArrayList<>();
+            if (existingPhones.contains(row.getPhoneEncrypted())) {
+                errors.add("phone already exists");
+            }
+            if (existingEmails.contains(row.getEmailEncrypted())) {
+                errors.add("email already exists");
+            }
+            if (!errors.isEmpty()) {
+                row.setErrors(errors);
+                row.setValid(false);
+            }
+        }
+    }
+
+    private static String normalizeHeader(String header) {
+        if (header == null) {
+            return "";
+        }
+        return header.trim()
+                .toLowerCase()
+                .replace(" ", "_")
+                .replace("-", "_");
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Collects parsed rows into batches, validates each batch on the validation pool and
+     * hands the batches to the sink in submission order. At most two batches per pool thread
+     * are in flight, which bounds memory held by the parse stage.
+     */
+    private final class ValidationStage {
+
+        private final GeographyDictionary geography;
+        private final Consumer<CustomerUploadRowDTO> sink;
+        private final int maxInFlight = Math.max(1, validationExecutor.getMaxPoolSize() * 2);
+        private final Deque<CompletableFuture<List<CustomerUploadRowDTO>>> inFlight = new ArrayDeque<>();
+        private List<RawRow> batch = new ArrayList<>(validationBatchSize);
+        private int toSkip;
+
+        private ValidationStage(GeographyDictionary geography, int skip, Consumer<CustomerUploadRowDTO> sink) {
+            this.geography = geography;
+            this.sink = sink;
+            this.toSkip = Math.max(0, skip);
+        }
+
+        private void submit(int rowNumber, String[] values) {
+            if (toSkip > 0) {
+                toSkip--;
+                return;
+            }
+            batch.add(new RawRow(rowNumber, values));
+            if (batch.size() >= validationBatchSize) {
+                flush();
+            }
+        }
+
+        private void finish() {
+            flush();
+            while (!inFlight.isEmpty()) {
+                inFlight.removeFirst().join().forEach(sink);
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<RawRow> rows = batch;
+            batch = new ArrayList<>(validationBatchSize);
+            inFlight.addLast(CompletableFuture.supplyAsync(() -> validate(rows), validationExecutor));
+            while (inFlight.size() > maxInFlight) {
+                inFlight.removeFirst().join().forEach(sink);
+            }
+        }
+
+        private List<CustomerUploadRowDTO> validate(List<RawRow> rows) {
+            List<CustomerUploadRowDTO> result = new ArrayList<>(rows.size());
+            for (RawRow row : rows) {
+                result.add(buildRowDto(row.rowNumber(), row.values(), geography));
+            }
+            return result;
+        }
+    }
+
+    @FunctionalInterface
+    private interface DataRowHandler {
+        void row(int rowNumber, String[] values);
+    }
+
+    private record RawRow(int rowNumber, String[] values) {}
+
+    /**
+     * Maps each upload field to its column in the header row (-1 when absent).
+     */
+    private static final class ColumnLayout {
+
+        private final int[] fieldColumns = new int[FIELDS.size()];
+        private final int headerCount;
+
+        private ColumnLayout(int headerCount) {
+            this.headerCount = headerCount;
+            Arrays.fill(fieldColumns, -1);
+        }
+
+        private static ColumnLayout of(int headerCount, IntFunction<String> header) {
+            ColumnLayout layout = new ColumnLayout(headerCount);
+            for (int column = 0; column < headerCount; column++) {
+                int field = FIELDS.indexOf(normalizeHeader(header.apply(column)));
+                if (field >= 0) {
+                    layout.fieldColumns[field] = column;
+                }
+            }
+            return layout;
+        }
+
+        private boolean isBlank(int columnCount, IntPredicate blankColumn) {
+            int limit = Math.min(columnCount, headerCount);
+            for (int column = 0; column < limit; column++) {
+                if (!blankColumn.test(column)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String[] extract(IntFunction<String> column) {
+            String[] values = new String[fieldColumns.length];
+            for (int field = 0; field < fieldColumns.length; field++) {
+                values[field] = fieldColumns[field] >= 0 ? column.apply(fieldColumns[field]) : "";
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Data row count and repeated phones/emails of one upload file. Values are kept as sorted
+     * 64-bit hashes (8 bytes each) rather than strings; a collision can only flag a row as a
+     * duplicate, never let a duplicate through.
+     */
+    public static final class UploadScan {
+
+        private long[] phones = new long[1024];
+        private long[] emails = new long[1024];
+        private int phoneCount;
+        private int emailCount;
+        private int rows;
+
+        private UploadScan() {
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public boolean repeatedPhone(String phone) {
+            return phone != null && !phone.trim().isEmpty() && repeated(phones, phoneCount, hash64(phone));
+        }
+
+        public boolean repeatedEmail(String email) {
+            return email != null && !email.trim().isEmpty() && repeated(emails, emailCount, hash64(email));
+        }
+
+        private void add(String phone, String email) {
+            rows++;
+            if (phone != null && !phone.trim().isEmpty()) {
+                if (phoneCount == phones.length) {
+                    phones = Arrays.copyOf(phones, phoneCount * 2);
+                }
+                phones[phoneCount++] = hash64(phone);
+            }
+            if (email != null && !email.trim().isEmpty()) {
+                if (emailCount == emails.length) {
+                    emails = Arrays.copyOf(emails, emailCount * 2);
+                }
+                emails[emailCount++] = hash64(email);
+            }
+        }
+
+        private void seal() {
+            Arrays.sort(phones, 0, phoneCount);
+            Arrays.sort(emails, 0, emailCount);
+        }
+
+        private static boolean repeated(long[] sorted, int count, long hash) {
+            int index = Arrays.binarySearch(sorted, 0, count, hash);
+            return index >= 0
+                    && ((index > 0 && sorted[index - 1] == hash) || (index + 1 < count && sorted[index + 1] == hash));
+        }
+
+        // FNV-1a over UTF-8 bytes followed by a murmur3 finalizer, as in BloomFilter.
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+
+    private record GeographyMatch(Cluster cluster, Circle circle, Zone zone, Area area, boolean valid) {}
+}
@@ -0,0 +1,238 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.dto.CustomerUploadRowDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Customer Upload Preview Store
+ * Keeps validated preview rows in compact binary spill files so a confirmed upload can be
+ * committed without parsing and validating the file again. Phone and email are spilled in
+ * encrypted form only. Previews expire after a TTL and
+ * each user keeps at most a fixed number, which bounds disk use.
+ */
+@Component
+@Slf4j
+public class CustomerUploadPreviewStore {
+
+    public static final String SPILL_EXTENSION = ".rows";
+
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path directory;
+    private final long ttlMinutes;
+    private final int maxPerUser;
+    private final Map<String, PreviewEntry> previews = new ConcurrentHashMap<>();
+
+    public CustomerUploadPreviewStore(
+            @Value("${app.uploads.preview.directory:${java.io.tmpdir}/ops-hub-upload-previews}") String directory,
+            @Value("${app.uploads.preview.ttl-minutes:30}") long ttlMinutes,
+            @Value("${app.uploads.preview.max-per-user:3}") int maxPerUser) {
+        this.directory = Paths.get(directory);
+        this.ttlMinutes = ttlMinutes;
+        this.maxPerUser = Math.max(1, maxPerUser);
+        clearDirectory();
+    }
+
+    public record PreviewEntry(String token, Long userId, String fileName, Long fileSize, int rowCount,
+                               Path path, LocalDateTime expiresAt) {
+        private boolean isExpired() {
+            return LocalDateTime.now().isAfter(expiresAt);
+        }
+    }
+
+    /**
+     * Spills the rows to disk and returns the preview, evicting the user's oldest previews
+     * beyond the per-user cap.
+     */
+    public PreviewEntry save(Long userId, String fileName, Long fileSize, List<CustomerUploadRowDTO> rows) {
+        String token = UUID.randomUUID().toString();
+        Path path = directory.resolve(token + SPILL_EXTENSION);
+        try {
+            Files.createDirectories(directory);
+            writeRows(path, rows);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to store upload preview", e);
+        }
+        PreviewEntry entry = new PreviewEntry(token, userId, fileName, fileSize, rows.size(), path,
+                LocalDateTime.now().plusMinutes(ttlMinutes));
+        previews.put(token, entry);
+        enforceUserCap(userId);
+        return entry;
+    }
+
+    /**
+     * Moves the preview's spill file to {@code target} and forgets the token.
+     * Returns empty when the token is unknown, expired or owned by another user.
+     */
+    public Optional<PreviewEntry> claim(String token, Long userId, Path target) {
+        PreviewEntry entry = token != null ? previews.remove(token) : null;
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!Objects.equals(entry.userId(), userId)) {
+            previews.put(token, entry);
+            return Optional.empty();
+        }
+        if (entry.isExpired()) {
+            delete(entry.path());
+            return Optional.empty();
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(entry.path(), target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            delete(entry.path());
+            throw new IllegalStateException("Failed to claim upload preview", e);
+        }
+        return Optional.of(new PreviewEntry(entry.token(), entry.userId(), entry.fileName(), entry.fileSize(),
+                entry.rowCount(), target, entry.expiresAt()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.uploads.preview.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        for (PreviewEntry entry : List.copyOf(previews.values())) {
+            if (entry.isExpired() && previews.remove(entry.token(), entry)) {
+                delete(entry.path());
+            }
+        }
+    }
+
+    public static boolean isSpillFile(String filePath) {
+        return filePath != null && filePath.endsWith(SPILL_EXTENSION);
+    }
+
+    /**
+     * Reads a spill file sequentially, passing each row after the first {@code skip} to {@code sink}.
+     * Phone and email come back encrypted only; the plaintext fields are null.
+     */
+    public static void readRows(Path path, int skip, Consumer<CustomerUploadRowDTO> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported preview format " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int rowNumber = in.readInt();
+                CustomerUploadRowDTO row = CustomerUploadRowDTO.builder()
+                        .rowNumber(rowNumber)
+                        .customerName(readString(in))
+                        .pendingAmount(readString(in))
+                        .address(readString(in))
+                        .cluster(readString(in))
+                        .circle(readString(in))
+                        .zone(readString(in))
+                        .area(readString(in))
+                        .store(readString(in))
+                        .phoneEncrypted(readString(in))
+                        .emailEncrypted(readString(in))
+                        .valid(in.readBoolean())
+                        .build();
+                int errorCount = in.readInt();
+                List<String> errors = new ArrayList<>(errorCount);
+                for (int e = 0; e < errorCount; e++) {
+                    errors.add(readString(in));
+                }
+                row.setErrors(errors);
+                if (i >= skip) {
+                    sink.accept(row);
+                }
+            }
+        }
+    }
+
+    private static void writeRows(Path path, List<CustomerUploadRowDTO> rows) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(rows.size());
+            for (CustomerUploadRowDTO row : rows) {
+                out.writeInt(row.getRowNumber());
+                writeString(out, row.getCustomerName());
+                writeString(out, row.getPendingAmount());
+                writeString(out, row.getAddress());
+                writeString(out, row.getCluster());
+                writeString(out, row.getCircle());
+                writeString(out, row.getZone());
+                writeString(out, row.getArea());
+                writeString(out, row.getStore());
+                writeString(out, row.getPhoneEncrypted());
+                writeString(out, row.getEmailEncrypted());
+                out.writeBoolean(row.isValid());
+                List<String> errors = row.getErrors() != null ? row.getErrors() : List.of();
+                out.writeInt(errors.size());
+                for (String error : errors) {
+                    writeString(out, error);
+                }
+            }
+        }
+    }
+
+    // Length-prefixed UTF-8; -1 marks null.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void enforceUserCap(Long userId) {
+        List<PreviewEntry> owned = previews.values().stream()
+                .filter(entry -> Objects.equals(entry.userId(), userId))
+                .sorted(Comparator.comparing(PreviewEntry::expiresAt))
+                .toList();
+        for (int i = 0; i < owned.size() - maxPerUser; i++) {
+            PreviewEntry evicted = owned.get(i);
+            if (previews.remove(evicted.token(), evicted)) {
+                delete(evicted.path());
+            }
+        }
+    }
+
+    // Tokens live in memory, so spill files left by a previous run can never be claimed.
+    private void clearDirectory() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.toString().endsWith(SPILL_EXTENSION)).forEach(this::delete);
+        } catch (IOException e) {
+            log.warn("Failed to clear upload preview directory {}", directory, e);
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete upload preview file {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.*;
+import com.company.ops_hub_api.dto.CustomerUploadRowDTO;
+import com.company.ops_hub_api.repository.*;
+import com.company.ops_hub_api.util.EncryptionUtil;
+import com.company.ops_hub_api.util.HierarchyUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Customer Upload Writer
+ * Persists parsed upload rows one chunk per transaction. The chunk's customers, allocations,
+ * row errors and the upload's progress counters commit together, so a restarted job can
+ * continue from processedRows without re-inserting anything. Allocations carry the upload id, so
+ * the area heads' once-per-upload digest is read back from them and covers chunks committed
+ * before a restart. Each chunk also renews the instance's processing lease on the upload, so
+ * only one instance works on an upload at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerUploadWriter {
+
+    private final CustomerUploadRepository uploadRepository;
+    private final CustomerUploadErrorRepository uploadErrorRepository;
+    private final CustomerRepository customerRepository;
+    private final CustomerAllocationRepository allocationRepository;
+    private final UserRepository userRepository;
+    private final EncryptionUtil encryptionUtil;
+
+    @Value("${app.uploads.lease-minutes:10}")
+    private long leaseMinutes;
+
+    @Value("${app.instance-id:}")
+    private String instanceId;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    private String leaseOwner;
+
+    /** Thrown when another instance took over the upload after this one's lease expired. */
+    public static final class LeaseLostException extends IllegalStateException {
+        public LeaseLostException(Long uploadId) {
+            super("Customer upload " + uploadId + " is now processed by another instance");
+        }
+    }
+
+    // Stable across restarts, so a restarted instance resumes its own uploads without waiting
+    // for their leases to expire
+    @PostConstruct
+    void resolveLeaseOwner() {
+        if (instanceId != null && !instanceId.isBlank()) {
+            leaseOwner = instanceId;
+            return;
+        }
+        try {
+            leaseOwner = InetAddress.getLocalHost().getHostName() + ":" + serverPort;
+        } catch (UnknownHostException e) {
+            leaseOwner = "localhost:" + serverPort;
+        }
+    }
+
+    /**
+     * Takes or renews this instance's processing lease. False when the upload is finished or
+     * another instance holds an unexpired lease on it.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean claim(Long uploadId) {
+        return renewLease(uploadId);
+    }
+
+    @Transactional
+    public CustomerUpload startUpload(Long uploadId) {
+        CustomerUpload upload = findUpload(uploadId);
+        upload.setUploadStatus("PROCESSING");
+        return uploadRepository.save(upload);
+    }
+
+    @Transactional
+    public void updateTotalRows(Long uploadId, int totalRows) {
+        CustomerUpload upload = findUpload(uploadId);
+        upload.setTotalRows(totalRows);
+        uploadRepository.save(upload);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public CustomerUpload writeChunk(Long uploadId, int chunkIndex, List<CustomerUploadRowDTO> chunk,
+                                     GeographyDictionary geography, AreaHeadAssigner.Session assignments) {
+        // The renewal's row lock is held until the chunk commits, so no other instance can claim meanwhile
+        if (!renewLease(uploadId)) {
+            throw new LeaseLostException(uploadId);
+        }
+        CustomerUpload upload = findUpload(uploadId);
+        User uploader = upload.getUploadedBy();
+
+        int success = 0;
+        int failed = 0;
+        for (CustomerUploadRowDTO row : chunk) {
+            if (!row.isValid()) {
+                failed++;
+                saveRowErrors(upload, row);
+                continue;
+            }
+            try {
+                Customer customer = buildCustomer(row, uploader, geography);
+                Customer savedCustomer = customerRepository.save(Objects.requireNonNull(customer));
+                boolean allocated = allocateToAreaHead(savedCustomer, upload, assignments);
+                if (!allocated) {
+                    throw new IllegalStateException("No Area Head found for area " +
+                            (savedCustomer.getArea() != null ? savedCustomer.getArea().getName() : "N/A"));
+                }
+                savedCustomer.setStatus("ASSIGNED");
+                customerRepository.save(savedCustomer);
+                success++;
+            } catch (Exception ex) {
+                failed++;
+                saveRowError(upload, row, "PROCESSING_ERROR", ex.getMessage());
+            }
+        }
+
+        upload.setSuccessfulRows(upload.getSuccessfulRows() + success);
+        upload.setFailedRows(upload.getFailedRows() + failed);
+        upload.setProcessedRows(upload.getProcessedRows() + chunk.size());
+        upload.setCurrentChunk(chunkIndex + 1);
+        return uploadRepository.save(upload);
+    }
+
+    /** Customers allocated to each area head by the upload's committed chunks. */
+    @Transactional(readOnly = true)
+    public NotificationDigest assignmentDigest(Long uploadId) {
+        List<CustomerAllocationRepository.UserAllocationCount> counts =
+                allocationRepository.countByUploadIdGroupedByUser(uploadId);
+        Map<Long, User> recipients = userRepository.findAllById(counts.stream()
+                        .map(CustomerAllocationRepository.UserAllocationCount::getUserId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        NotificationDigest digest = new NotificationDigest();
+        for (CustomerAllocationRepository.UserAllocationCount count : counts) {
+            digest.record(recipients.get(count.getUserId()), (int) count.getAllocationCount());
+        }
+        return digest;
+    }
+
+    @Transactional
+    public CustomerUpload completeUpload(Long uploadId) {
+        CustomerUpload upload = findUpload(uploadId);
+        upload.setUploadStatus("COMPLETED");
+        upload.setProcessedAt(LocalDateTime.now());
+        if (upload.getFailedRows() > 0) {
+            upload.setErrorSummary("Failed rows: " + upload.getFailedRows());
+        }
+        return uploadRepository.save(upload);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void failUpload(Long uploadId, String message) {
+        CustomerUpload upload = findUpload(uploadId);
+        upload.setUploadStatus("FAILED");
+        upload.setProcessedAt(LocalDateTime.now());
+        upload.setErrorSummary(message);
+        uploadRepository.save(upload);
+    }
+
+    private boolean renewLease(Long uploadId) {
+        LocalDateTime now = LocalDateTime.now();
+        return uploadRepository.claimLease(uploadId, leaseOwner, now, now.plusMinutes(leaseMinutes)) > 0;
+    }
+
+    private CustomerUpload findUpload(Long uploadId) {
+        if (uploadId == null) {
+            throw new IllegalArgumentException("Upload ID cannot be null");
+        }
+        return uploadRepository.findById(uploadId)
+                .orElseThrow(() -> new IllegalArgumentException("Upload not found"));
+    }
+
+    private Customer buildCustomer(CustomerUploadRowDTO row, User createdBy, GeographyDictionary geography) {
+        Customer customer = new Customer();
+        customer.setCustomerCode(generateCustomerCode(row));
+        customer.setFirstName(row.getCustomerName());
+        customer.setLastName(null);
+        customer.setPhoneEncrypted(row.getPhoneEncrypted() != null
+                ? row.getPhoneEncrypted() : encryptionUtil.encrypt(row.getPhone()));
+        // Rows read back from a preview spill file carry only the encrypted values
+        customer.setEmailEncrypted(row.getEmailEncrypted() != null ? row.getEmailEncrypted()
+                : isBlank(row.getEmail()) ? null : encryptionUtil.encrypt(row.getEmail()));
+        customer.setPendingAmount(new BigDecimal(row.getPendingAmount()));
+        customer.setAddressLine1(row.getAddress());
+        customer.setStoreName(row.getStore());
+        Area area = geography.findArea(row.getArea());
+        if (area == null) {
+            throw new IllegalArgumentException("Area not found for row " + row.getRowNumber());
+        }
+        customer.setArea(area);
+        geography.applyPath(customer, area);
+        customer.setCreatedBy(createdBy);
+        customer.setStatus("NEW");
+        return customer;
+    }
+
+    private boolean allocateToAreaHead(Customer customer, CustomerUpload upload, AreaHeadAssigner.Session assignments) {
+        if (customer == null || customer.getArea() == null) {
+            return false;
+        }
+        User assignee = assignments.assign(customer.getArea().getId()).orElse(null);
+        if (assignee == null) {
+            return false;
+        }
+        CustomerAllocation allocation = new CustomerAllocation();
+        allocation.setCustomer(customer);
+        allocation.setUser(assignee);
+        allocation.setRoleCode(HierarchyUtil.AREA_HEAD);
+        allocation.setAllocationType("UPLOAD");
+        allocation.setStatus("ACTIVE");
+        allocation.setAllocatedBy(upload.getUploadedBy());
+        allocation.setAllocatedAt(LocalDateTime.now());
+        allocation.setUploadId(upload.getId());
+        allocationRepository.save(allocation);
+        return true;
+    }
+
+    private void saveRowErrors(CustomerUpload upload, CustomerUploadRowDTO row) {
+        if (row.getErrors() == null || row.getErrors().isEmpty()) {
+            return;
+        }
+        for (String error : row.getErrors()) {
+            CustomerUploadError uploadError = new CustomerUploadError();
+            uploadError.setUpload(upload);
+            uploadError.setRowNumber(row.getRowNumber());
+            uploadError.setErrorCode("VALIDATION_ERROR");
+            uploadError.setErrorMessage(error);
+            uploadError.setRowData(rowData(row));
+            uploadErrorRepository.save(uploadError);
+        }
+    }
+
+    private void saveRowError(CustomerUpload upload, CustomerUploadRowDTO row, String code, String message) {
+        CustomerUploadError uploadError = new CustomerUploadError();
+        uploadError.setUpload(upload);
+        uploadError.setRowNumber(row.getRowNumber());
+        uploadError.setErrorCode(code);
+        uploadError.setErrorMessage(message);
+        uploadError.setRowData(rowData(row));
+        uploadErrorRepository.save(uploadError);
+    }
+
+    // Error rows show the phone and email as uploaded, decrypting them for spilled rows
+    private String rowData(CustomerUploadRowDTO row) {
+        if (row.getPhone() == null && row.getPhoneEncrypted() != null) {
+            row.setPhone(encryptionUtil.decrypt(row.getPhoneEncrypted()));
+        }
+        if (row.getEmail() == null && row.getEmailEncrypted() != null) {
+            row.setEmail(encryptionUtil.decrypt(row.getEmailEncrypted()));
+        }
+        return row.toString();
+    }
+
+    private String generateCustomerCode(CustomerUploadRowDTO row) {
+        return "CUST-" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -35,6 +35,7 @@ public class CustomerVisitService {
     private final CustomerAllocationRepository allocationRepository;
     private final UserRepository userRepository;
     private final AuditLogService auditLogService;
+    private final LiveUpdateService liveUpdates;
 
     @Value("${app.visits.prevent-duplicate-per-day:true}")
     private boolean preventDuplicatePerDay;
@@ -103,6 +104,7 @@ public class CustomerVisitService {
         }
 
         CustomerVisit savedVisit = visitRepository.save(visit);
+        liveUpdates.agentDashboardChanged(currentUser.getId(), "VISIT");
 
         // Update customer status lifecycle
         updateCustomerStatus(customer, "VISITED");
@@ -204,6 +206,9 @@ public class CustomerVisitService {
         }
 
         CustomerVisit savedVisit = visitRepository.save(visit);
+        if (savedVisit.getUser() != null) {
+            liveUpdates.agentDashboardChanged(savedVisit.getUser().getId(), "VISIT");
+        }
 
         // Log audit
         Map<String, Object> oldValues = new HashMap<>();
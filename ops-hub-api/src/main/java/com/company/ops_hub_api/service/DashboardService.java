@@ -6,113 +6,264 @@ import com.company.ops_hub_api.dto.DashboardActivityDTO;
 import com.company.ops_hub_api.dto.DashboardCardDTO;
 import com.company.ops_hub_api.dto.DashboardMetricDTO;
 import com.company.ops_hub_api.dto.DashboardResponseDTO;
+import com.company.ops_hub_api.dto.DashboardTrendPointDTO;
 import com.company.ops_hub_api.repository.AppNotificationRepository;
 import com.company.ops_hub_api.repository.CustomerAllocationRepository;
-import com.company.ops_hub_api.repository.CustomerRepository;
 import com.company.ops_hub_api.repository.CustomerVisitRepository;
-import com.company.ops_hub_api.repository.PaymentRepository;
 import com.company.ops_hub_api.repository.UserRepository;
 import com.company.ops_hub_api.security.UserPrincipal;
 import com.company.ops_hub_api.util.HierarchyUtil;
-import lombok.RequiredArgsConstructor;
+import com.company.ops_hub_api.util.RefreshingCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
+/**
+ * Dashboard Service
+ * Builds the dashboard from cached parts: the cards and metrics shared by every user with the same
+ * type and scope, and each user's own header and recent activity. Parts are refreshed in the
+ * background once they go stale, and the response ETag is derived from the part versions, so a
+ * conditional request is answered from memory.
+ */
 @Service
-@RequiredArgsConstructor
 public class DashboardService {
 
-    private final CustomerRepository customerRepository;
+    private static final int MAX_TREND_DAYS = 366;
+
+    // Distinguishes ETags issued before and after a restart
+    private static final String ETAG_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
     private final CustomerVisitRepository visitRepository;
     private final CustomerAllocationRepository allocationRepository;
-    private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
     private final AppNotificationRepository notificationRepository;
     private final ReportDataFilter reportDataFilter;
+    private final ScopedKpiService kpiService;
+    private final AreaRollupService rollupService;
+    // Resolved lazily so cache loads go through the transactional proxy
+    private final ObjectProvider<DashboardService> self;
+
+    private final RefreshingCache<Long, Viewer> viewers;
+    private final RefreshingCache<ScopeKey, SharedPart> sharedParts;
+    private final RefreshingCache<Long, ActivityPart> activities;
+
+    /** Dashboard body with the ETag identifying its content. */
+    public record CachedDashboard(DashboardResponseDTO body, String etag) {}
+
+    /** Who is asking, as far as the dashboard is concerned. */
+    public record Viewer(String userType, String userName, ScopeKey scopeKey) {}
+
+    /**
+     * Key of the shared part. {@code nodeId} is the geography node that sizes the team, or the user
+     * for agents, whose cards count their own allocations and visits.
+     */
+    public record ScopeKey(String userType, CustomerScope scope, Long nodeId) {}
+
+    public record SharedPart(List<DashboardCardDTO> cards, List<DashboardMetricDTO> metrics) {}
+
+    public record ActivityPart(List<DashboardActivityDTO> recentActivity, List<DashboardActivityDTO> alerts) {}
+
+    public DashboardService(CustomerVisitRepository visitRepository,
+                            CustomerAllocationRepository allocationRepository,
+                            UserRepository userRepository,
+                            AppNotificationRepository notificationRepository,
+                            ReportDataFilter reportDataFilter,
+                            ScopedKpiService kpiService,
+                            AreaRollupService rollupService,
+                            ObjectProvider<DashboardService> self,
+                            @Qualifier("dashboardRefreshExecutor") Executor refreshExecutor,
+                            @Value("${app.dashboard.cache.fresh-seconds:30}") long freshSeconds,
+                            @Value("${app.dashboard.cache.user-fresh-seconds:10}") long userFreshSeconds,
+                            @Value("${app.dashboard.cache.stale-seconds:120}") long staleSeconds) {
+        this.visitRepository = visitRepository;
+        this.allocationRepository = allocationRepository;
+        this.userRepository = userRepository;
+        this.notificationRepository = notificationRepository;
+        this.reportDataFilter = reportDataFilter;
+        this.kpiService = kpiService;
+        this.rollupService = rollupService;
+        this.self = self;
+        this.viewers = new RefreshingCache<>(userFreshSeconds * 1000, staleSeconds * 1000, refreshExecutor);
+        this.sharedParts = new RefreshingCache<>(freshSeconds * 1000, staleSeconds * 1000, refreshExecutor);
+        this.activities = new RefreshingCache<>(userFreshSeconds * 1000, staleSeconds * 1000, refreshExecutor);
+    }
 
-    @Transactional(readOnly = true)
-    public DashboardResponseDTO getDashboard() {
-        User currentUser = getCurrentUser();
-        String userType = HierarchyUtil.normalizeUserType(currentUser);
-
-        Set<Long> accessibleCustomerIds = reportDataFilter.getAccessibleCustomerIds(currentUser);
-        List<Long> customerIds = accessibleCustomerIds != null
-                ? new ArrayList<>(accessibleCustomerIds)
-                : List.of();
-
-        boolean hasCustomerScope = accessibleCustomerIds != null && !customerIds.isEmpty();
-
-        long customerCount = accessibleCustomerIds == null
-                ? customerRepository.count()
-                : customerIds.size();
-
-        long activeAllocations = accessibleCustomerIds == null
-                ? allocationRepository.findByStatus("ACTIVE").size()
-                : (hasCustomerScope ? allocationRepository.countActiveByCustomerIds(customerIds) : 0);
-
-        BigDecimal pendingAmount = accessibleCustomerIds == null
-                ? customerRepository.sumPendingAmountAll()
-                : (hasCustomerScope ? customerRepository.sumPendingAmountByIds(customerIds) : BigDecimal.ZERO);
-
-        long pendingPayments = accessibleCustomerIds == null
-                ? paymentRepository.countByPaymentStatusValue("INITIATED")
-                : (hasCustomerScope ? paymentRepository.countByPaymentStatusValueAndCustomerIds("INITIATED", customerIds) : 0);
-
-        long successfulPayments = accessibleCustomerIds == null
-                ? paymentRepository.countByPaymentStatusValue("SUCCESS")
-                : (hasCustomerScope ? paymentRepository.countByPaymentStatusValueAndCustomerIds("SUCCESS", customerIds) : 0);
+    /** Not transactional: a request served from cached parts never touches the database. */
+    public CachedDashboard getDashboard() {
+        Long userId = getCurrentUserId();
+        RefreshingCache.Versioned<Viewer> viewer = viewers.get(userId, id -> self.getObject().loadViewer(id));
+        RefreshingCache.Versioned<SharedPart> shared = sharedParts.get(viewer.value().scopeKey(),
+                key -> self.getObject().loadShared(key));
+        RefreshingCache.Versioned<ActivityPart> activity = activities.get(userId,
+                id -> self.getObject().loadActivity(id));
+
+        DashboardResponseDTO body = DashboardResponseDTO.builder()
+                .userType(viewer.value().userType())
+                .userName(viewer.value().userName())
+                .cards(shared.value().cards())
+                .metrics(shared.value().metrics())
+                .recentActivity(activity.value().recentActivity())
+                .alerts(activity.value().alerts())
+                .build();
+        String etag = "\"" + ETAG_EPOCH + "-" + viewer.version() + "-" + shared.version() + "-" +
+                activity.version() + "\"";
+        return new CachedDashboard(body, etag);
+    }
 
-        BigDecimal collectedAmount = accessibleCustomerIds == null
-                ? paymentRepository.sumAmountByStatus("SUCCESS")
-                : (hasCustomerScope ? paymentRepository.sumAmountByStatusAndCustomerIds("SUCCESS", customerIds) : BigDecimal.ZERO);
+    @Transactional(readOnly = true)
+    public Viewer loadViewer(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        String userType = HierarchyUtil.normalizeUserType(user);
+        Long nodeId = switch (userType) {
+            case HierarchyUtil.CLUSTER_HEAD -> HierarchyUtil.getClusterId(user);
+            case HierarchyUtil.CIRCLE_HEAD -> HierarchyUtil.getCircleId(user);
+            case HierarchyUtil.ZONE_HEAD -> HierarchyUtil.getZoneId(user);
+            case HierarchyUtil.AREA_HEAD, HierarchyUtil.STORE_HEAD -> HierarchyUtil.getAreaId(user);
+            case HierarchyUtil.AGENT -> user.getId();
+            default -> null;
+        };
+        return new Viewer(userType,
+                user.getFullName() != null ? user.getFullName() : user.getUsername(),
+                new ScopeKey(userType, reportDataFilter.resolveScope(user), nodeId));
+    }
 
-        long visitsCount = accessibleCustomerIds == null
-                ? visitRepository.count()
-                : (hasCustomerScope ? visitRepository.countByCustomerIds(customerIds) : 0);
+    @Transactional(readOnly = true)
+    public SharedPart loadShared(ScopeKey key) {
+        String userType = key.userType();
+        AreaRollupService.Totals totals = kpiService.totals(key.scope());
+
+        long customerCount = totals.customers();
+        long activeAllocations = totals.activeAllocations();
+        BigDecimal pendingAmount = totals.pendingAmount();
+        long pendingPayments = totals.paymentsInitiated();
+        long successfulPayments = totals.paymentsSuccess();
+        BigDecimal collectedAmount = totals.amountCollected();
+        long visitsCount = totals.visits();
 
         long assignedCustomers = userType.equals(HierarchyUtil.AGENT)
-                ? allocationRepository.countActiveByUserId(currentUser.getId())
+                ? allocationRepository.countActiveByUserId(key.nodeId())
                 : activeAllocations;
 
         long visitsToday = userType.equals(HierarchyUtil.AGENT)
                 ? visitRepository.countByUserIdAndVisitDateBetween(
-                        currentUser.getId(),
+                        key.nodeId(),
                         LocalDate.now().atStartOfDay(),
                         LocalDate.now().plusDays(1).atStartOfDay())
                 : 0;
 
-        long teamSize = resolveTeamSize(userType, currentUser);
+        long teamSize = resolveTeamSize(userType, key.nodeId());
 
         List<DashboardCardDTO> cards = buildCards(userType, customerCount, assignedCustomers, pendingPayments,
                 collectedAmount, visitsCount, visitsToday, teamSize);
 
         List<DashboardMetricDTO> metrics = buildMetrics(pendingAmount, successfulPayments, pendingPayments, visitsCount);
 
-        List<DashboardActivityDTO> recentActivity = buildRecentActivity(currentUser.getId());
+        return new SharedPart(List.copyOf(cards), List.copyOf(metrics));
+    }
+
+    @Transactional(readOnly = true)
+    public ActivityPart loadActivity(Long userId) {
+        List<DashboardActivityDTO> recentActivity = buildRecentActivity(userId);
 
         List<DashboardActivityDTO> alerts = recentActivity.stream()
                 .filter(activity -> "ESCALATION".equalsIgnoreCase(activity.getType()))
                 .limit(5)
                 .collect(Collectors.toList());
 
-        return DashboardResponseDTO.builder()
-                .userType(userType)
-                .userName(currentUser.getFullName() != null ? currentUser.getFullName() : currentUser.getUsername())
-                .cards(cards)
-                .metrics(metrics)
-                .recentActivity(recentActivity)
-                .alerts(alerts)
-                .build();
+        return new ActivityPart(List.copyOf(recentActivity), List.copyOf(alerts));
+    }
+
+    /** Forgets the user's header, activity and, for agents, their own cards, so the next request reloads them. */
+    public void evictUser(Long userId) {
+        viewers.invalidate(userId);
+        activities.invalidate(userId);
+        CustomerScope allocated = CustomerScope.allocatedTo(userId);
+        sharedParts.invalidateIf(key -> allocated.equals(key.scope()));
+    }
+
+    /**
+     * {@link #evictUser} once the current transaction commits (immediately when none is active),
+     * so a reload racing with the change cannot cache the old values.
+     */
+    public void evictUserAfterCommit(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictUser(userId);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> created = new HashSet<>();
+            pending = created;
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DashboardService.this);
+                    if (status == STATUS_COMMITTED) {
+                        created.forEach(DashboardService.this::evictUser);
+                    }
+                }
+            });
+        }
+        pending.add(userId);
+    }
+
+    /** Drops entries of users and scopes that have not been requested for a whole stale window. */
+    @Scheduled(fixedDelayString = "${app.dashboard.cache.cleanup-interval-ms:300000}")
+    public void evictExpired() {
+        viewers.evictExpired();
+        sharedParts.evictExpired();
+        activities.evictExpired();
+    }
+
+    /**
+     * Daily series for the last {@code days} days, read from the area rollup. Allocation scopes are
+     * not kept in the rollup and get an empty series.
+     */
+    @Transactional(readOnly = true)
+    public List<DashboardTrendPointDTO> getTrend(int days) {
+        if (days < 1 || days > MAX_TREND_DAYS) {
+            throw new IllegalArgumentException("Trend days must be between 1 and " + MAX_TREND_DAYS);
+        }
+        CustomerScope scope = reportDataFilter.resolveScope(getCurrentUser());
+        if (!AreaRollupService.supports(scope)) {
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        return rollupService.dailyTotals(scope, today.minusDays(days - 1L), today).stream()
+                .map(point -> DashboardTrendPointDTO.builder()
+                        .date(point.date())
+                        .newCustomers(point.totals().customers())
+                        .paymentsInitiated(point.totals().paymentsInitiated())
+                        .paymentsSuccessful(point.totals().paymentsSuccess())
+                        .collectedAmount(point.totals().amountCollected())
+                        .visits(point.totals().visits())
+                        .visitsCompleted(point.totals().visitsCompleted())
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private List<DashboardCardDTO> buildCards(String userType, long customerCount, long assignedCustomers,
@@ -154,9 +305,9 @@ public class DashboardService {
     }
 
     private List<DashboardActivityDTO> buildRecentActivity(Long userId) {
-        List<AppNotification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<AppNotification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(
+                userId, PageRequest.of(0, 8));
         return notifications.stream()
-                .limit(8)
                 .map(notification -> DashboardActivityDTO.builder()
                         .title(notification.getTitle())
                         .description(notification.getMessage())
@@ -166,25 +317,21 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
-    private long resolveTeamSize(String userType, User currentUser) {
+    private long resolveTeamSize(String userType, Long nodeId) {
         if (HierarchyUtil.ADMIN.equals(userType)) {
             return userRepository.count();
         }
         if (HierarchyUtil.CLUSTER_HEAD.equals(userType)) {
-            Long clusterId = HierarchyUtil.getClusterId(currentUser);
-            return clusterId == null ? 0 : userRepository.findByAreaZoneCircleClusterId(clusterId).size();
+            return nodeId == null ? 0 : userRepository.countByClusterId(nodeId);
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(userType)) {
-            Long circleId = HierarchyUtil.getCircleId(currentUser);
-            return circleId == null ? 0 : userRepository.findByAreaZoneCircleId(circleId).size();
+            return nodeId == null ? 0 : userRepository.countByCircleId(nodeId);
         }
         if (HierarchyUtil.ZONE_HEAD.equals(userType)) {
-            Long zoneId = HierarchyUtil.getZoneId(currentUser);
-            return zoneId == null ? 0 : userRepository.findByAreaZoneId(zoneId).size();
+            return nodeId == null ? 0 : userRepository.countByZoneId(nodeId);
         }
         if (HierarchyUtil.AREA_HEAD.equals(userType) || HierarchyUtil.STORE_HEAD.equals(userType)) {
-            Long areaId = HierarchyUtil.getAreaId(currentUser);
-            return areaId == null ? 0 : userRepository.findByAreaId(areaId).size();
+            return nodeId == null ? 0 : userRepository.countByAreaId(nodeId);
         }
         return 1;
     }
@@ -218,6 +365,11 @@ public class DashboardService {
     }
 
     private User getCurrentUser() {
+        return userRepository.findById(getCurrentUserId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
             throw new AccessDeniedException("User not authenticated");
@@ -227,7 +379,6 @@ public class DashboardService {
         if (userId == null) {
             throw new IllegalStateException("User ID cannot be null");
         }
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return userId;
     }
 }
@@ -0,0 +1,99 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.User;
+import com.company.ops_hub_api.domain.UserRole;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Hibernate listener that evicts a user's cached dashboard viewer and activity once a change to
+ * their user type, role, geography or name, or to their role assignments, commits. Without it
+ * the dashboard keeps serving the old scope for the cache's fresh and stale windows.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardViewerInvalidationListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // User properties that feed DashboardService.Viewer
+    private static final Set<String> VIEWER_PROPERTIES = Set.of(
+            "userType", "role", "area", "zoneId", "circleId", "clusterId", "fullName", "username");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DashboardService dashboardService;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof UserRole userRole) {
+            evict(userRole.getUser());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof UserRole userRole) {
+            evict(userRole.getUser());
+        } else if (event.getEntity() instanceof User user && viewerChanged(event)) {
+            dashboardService.evictUserAfterCommit(user.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof UserRole userRole) {
+            evict(userRole.getUser());
+        } else if (event.getEntity() instanceof User user) {
+            dashboardService.evictUserAfterCommit(user.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evict(User user) {
+        if (user != null) {
+            dashboardService.evictUserAfterCommit(user.getId());
+        }
+    }
+
+    // Without dirty tracking (a detached update) any change is treated as relevant
+    private static boolean viewerChanged(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (VIEWER_PROPERTIES.contains(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -9,6 +9,7 @@ import com.company.ops_hub_api.repository.ReportExportRepository;
 import com.company.ops_hub_api.repository.ReportRepository;
 import com.company.ops_hub_api.repository.UserRepository;
 import com.company.ops_hub_api.security.UserPrincipal;
+import com.company.ops_hub_api.util.ReportTable;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -220,21 +221,21 @@ public class ExportService {
     private void generateCsvFile(String filePath, com.company.ops_hub_api.dto.ReportDataDTO reportData) 
             throws IOException {
         try (FileWriter writer = new FileWriter(filePath)) {
-            List<Map<String, Object>> data = reportData.getData();
-            if (data.isEmpty()) {
+            ReportTable data = reportData.getData();
+            if (data == null || data.isEmpty()) {
                 writer.write("No data available\n");
                 return;
             }
             
             // Write header
-            Set<String> columns = data.get(0).keySet();
+            List<String> columns = data.columns();
             writer.write(String.join(",", columns) + "\n");
             
             // Write data
-            for (Map<String, Object> row : data) {
+            for (Object[] row : data.rows()) {
                 List<String> values = new ArrayList<>();
-                for (String column : columns) {
-                    Object value = row.get(column);
+                for (int i = 0; i < columns.size(); i++) {
+                    Object value = data.schema().value(row, i);
                     String strValue = value != null ? value.toString().replace(",", ";") : "";
                     values.add(strValue);
                 }
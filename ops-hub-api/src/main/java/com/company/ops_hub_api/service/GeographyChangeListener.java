@@ -0,0 +1,37 @@
+package com.company.ops_hub_api.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on Area, Zone and Circle. Once the changing transaction commits it swaps in a
+ * fresh {@link GeographyTreeService} snapshot and, for updates (which may re-parent a node),
+ * re-syncs the denormalized geography columns of customers and users. Instantiated by
+ * Hibernate through Spring's bean container while the EntityManagerFactory is still being
+ * built, so the services are looked up on first use.
+ */
+public class GeographyChangeListener {
+
+    private final ObjectProvider<GeographyTreeService> geographyTree;
+    private final ObjectProvider<GeographyPathSynchronizer> synchronizer;
+
+    public GeographyChangeListener(ObjectProvider<GeographyTreeService> geographyTree,
+                                   ObjectProvider<GeographyPathSynchronizer> synchronizer) {
+        this.geographyTree = geographyTree;
+        this.synchronizer = synchronizer;
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onCreateOrRemove(Object entity) {
+        geographyTree.getObject().refreshAfterCommit();
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        geographyTree.getObject().refreshAfterCommit();
+        synchronizer.getObject().resyncAfterCommit();
+    }
+}
@@ -0,0 +1,121 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.Circle;
+import com.company.ops_hub_api.domain.Cluster;
+import com.company.ops_hub_api.domain.GeographyPathAware;
+import com.company.ops_hub_api.domain.Zone;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Geography Dictionary
+ * Snapshot of clusters, circles, zones and areas indexed by code and case-folded name,
+ * so bulk validation resolves geography without a query per row.
+ * Lookup order matches the repositories: code first, then name (both case-insensitive,
+ * like the SQL Server collation the repository lookups ran against).
+ */
+public final class GeographyDictionary {
+
+    private final Index<Cluster> clusters;
+    private final Index<Circle> circles;
+    private final Index<Zone> zones;
+    private final Index<Area> areas;
+    // Parent ids read from the lazy references' ids, which never initializes a proxy
+    private final Map<Long, Long> circleIdByZoneId = new HashMap<>();
+    private final Map<Long, Long> clusterIdByCircleId = new HashMap<>();
+
+    private GeographyDictionary(List<Cluster> clusters, List<Circle> circles, List<Zone> zones, List<Area> areas) {
+        this.clusters = new Index<>(clusters, Cluster::getCode, Cluster::getName);
+        this.circles = new Index<>(circles, Circle::getCode, Circle::getName);
+        this.zones = new Index<>(zones, Zone::getCode, Zone::getName);
+        this.areas = new Index<>(areas, Area::getCode, Area::getName);
+        for (Zone zone : zones) {
+            if (zone.getCircle() != null) {
+                circleIdByZoneId.put(zone.getId(), zone.getCircle().getId());
+            }
+        }
+        for (Circle circle : circles) {
+            if (circle.getCluster() != null) {
+                clusterIdByCircleId.put(circle.getId(), circle.getCluster().getId());
+            }
+        }
+    }
+
+    public static GeographyDictionary of(List<Cluster> clusters, List<Circle> circles,
+                                         List<Zone> zones, List<Area> areas) {
+        return new GeographyDictionary(clusters, circles, zones, areas);
+    }
+
+    public Cluster findCluster(String value) {
+        return clusters.find(value);
+    }
+
+    public Circle findCircle(String value) {
+        return circles.find(value);
+    }
+
+    public Zone findZone(String value) {
+        return zones.find(value);
+    }
+
+    public Area findArea(String value) {
+        return areas.find(value);
+    }
+
+    /** Sets the denormalized zone, circle and cluster ids for {@code area} without touching lazy proxies. */
+    public void applyPath(GeographyPathAware target, Area area) {
+        Long zoneId = area != null && area.getZone() != null ? area.getZone().getId() : null;
+        Long circleId = zoneId != null ? circleIdByZoneId.get(zoneId) : null;
+        target.setZoneId(zoneId);
+        target.setCircleId(circleId);
+        target.setClusterId(circleId != null ? clusterIdByCircleId.get(circleId) : null);
+    }
+
+    public static boolean circleBelongsTo(Circle circle, Cluster cluster) {
+        return circle.getCluster() == null || Objects.equals(circle.getCluster().getId(), cluster.getId());
+    }
+
+    public static boolean zoneBelongsTo(Zone zone, Circle circle) {
+        return zone.getCircle() == null || Objects.equals(zone.getCircle().getId(), circle.getId());
+    }
+
+    public static boolean areaBelongsTo(Area area, Zone zone) {
+        return area.getZone() == null || Objects.equals(area.getZone().getId(), zone.getId());
+    }
+
+    private static String fold(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Index<T> {
+
+        private final Map<String, T> byCode = new HashMap<>();
+        private final Map<String, T> byName = new HashMap<>();
+
+        private Index(List<T> entities, Function<T, String> code, Function<T, String> name) {
+            for (T entity : entities) {
+                if (code.apply(entity) != null) {
+                    byCode.putIfAbsent(fold(code.apply(entity)), entity);
+                }
+                if (name.apply(entity) != null) {
+                    byName.putIfAbsent(fold(name.apply(entity)), entity);
+                }
+            }
+        }
+
+        private T find(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return null;
+            }
+            String key = fold(value);
+            T match = byCode.get(key);
+            return match != null ? match : byName.get(key);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.GeographyPathAware;
+import com.company.ops_hub_api.util.HierarchyUtil;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import java.util.Objects;
+
+/**
+ * JPA listener on Customer and User that copies the zone, circle and cluster of the assigned
+ * area into the entity's own columns. The hierarchy is only walked when the area's zone no
+ * longer matches the stored one; re-parenting of existing geography is handled in bulk by
+ * {@link GeographyPathSynchronizer}.
+ */
+public class GeographyPathListener {
+
+    @PrePersist
+    @PreUpdate
+    public void apply(Object entity) {
+        if (!(entity instanceof GeographyPathAware target)) {
+            return;
+        }
+        Area area = target.getArea();
+        Long zoneId = HierarchyUtil.getZoneId(area);
+        if (zoneId != null && Objects.equals(zoneId, target.getZoneId())
+                && target.getCircleId() != null && target.getClusterId() != null) {
+            return;
+        }
+        target.setZoneId(zoneId);
+        target.setCircleId(HierarchyUtil.getCircleId(area));
+        target.setClusterId(HierarchyUtil.getClusterId(area));
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.ops_hub_api.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Geography Path Synchronizer
+ * Rewrites customers.zone_id/circle_id/cluster_id and the same user columns from the current
+ * area → zone → circle → cluster links. Only rows whose stored path differs are touched, so a
+ * re-sync after an unrelated geography edit is a cheap no-op.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeographyPathSynchronizer {
+
+    private static final String PATH_SOURCE =
+            "JOIN areas a ON a.id = t.area_id " +
+            "JOIN zones z ON z.id = a.zone_id " +
+            "JOIN circles ci ON ci.id = z.circle_id " +
+            "WHERE t.zone_id IS NULL OR t.zone_id <> z.id " +
+            "OR t.circle_id IS NULL OR t.circle_id <> ci.id " +
+            "OR t.cluster_id IS NULL OR t.cluster_id <> ci.cluster_id";
+
+    private final EntityManager entityManager;
+    private final CustomerScopeCache scopeCache;
+    // Resolved lazily so the after-commit call goes through the transactional proxy
+    private final ObjectProvider<GeographyPathSynchronizer> self;
+
+    /** Backfills rows written before the columns existed or edited directly in the database. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resyncOnStartup() {
+        try {
+            self.getObject().resync();
+        } catch (Exception ex) {
+            log.error("Failed to re-sync geography path columns on startup", ex);
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int resync() {
+        int customers = update("customers");
+        int users = update("users");
+        if (customers > 0 || users > 0) {
+            log.info("Re-synced geography path for {} customers and {} users", customers, users);
+            scopeCache.invalidateAfterCommit(true, null);
+        }
+        return customers + users;
+    }
+
+    /** Runs {@link #resync()} once after the current transaction commits, however many edits it made. */
+    public void resyncAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            self.getObject().resync();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GeographyPathSynchronizer.this);
+                if (status == STATUS_COMMITTED) {
+                    try {
+                        self.getObject().resync();
+                    } catch (Exception ex) {
+                        log.error("Failed to re-sync geography path columns", ex);
+                    }
+                }
+            }
+        });
+    }
+
+    private int update(String table) {
+        return entityManager.createNativeQuery(
+                "UPDATE t SET t.zone_id = z.id, t.circle_id = ci.id, t.cluster_id = ci.cluster_id " +
+                "FROM " + table + " t " + PATH_SOURCE).executeUpdate();
+    }
+}
@@ -0,0 +1,84 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.repository.AreaRepository;
+import com.company.ops_hub_api.util.GeographyTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Geography Tree Service
+ * Serves the current immutable {@link GeographyTree}. A geography change builds a complete new
+ * snapshot from one id-only query and swaps the reference once its transaction commits, so
+ * readers never see a half-built tree and never block.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeographyTreeService {
+
+    private final AreaRepository areaRepository;
+    // Resolved lazily so the after-commit refresh goes through the transactional proxy
+    private final ObjectProvider<GeographyTreeService> self;
+
+    private volatile GeographyTree tree;
+
+    public GeographyTree current() {
+        GeographyTree snapshot = tree;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = tree;
+                if (snapshot == null) {
+                    snapshot = load();
+                    tree = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void refresh() {
+        tree = load();
+    }
+
+    /** Refreshes once after the current transaction commits (immediately when none is active). */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            self.getObject().refresh();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GeographyTreeService.this);
+                if (status == STATUS_COMMITTED) {
+                    try {
+                        self.getObject().refresh();
+                    } catch (Exception ex) {
+                        // Keep serving the previous snapshot; the next change or restart reloads it
+                        log.error("Failed to refresh geography tree", ex);
+                    }
+                }
+            }
+        });
+    }
+
+    private GeographyTree load() {
+        GeographyTree loaded = GeographyTree.of(areaRepository.findAllPaths().stream()
+                .map(row -> new GeographyTree.AreaPath(row.getAreaId(), row.getZoneId(),
+                        row.getCircleId(), row.getClusterId()))
+                .toList());
+        log.debug("Loaded geography tree with {} areas", loaded.areaCount());
+        return loaded;
+    }
+}
@@ -0,0 +1,233 @@
+package com.company.ops_hub_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live Update Hub
+ * Fans server-sent events out to connected clients, addressed by user or by customer scope.
+ * Connections are async servlet requests, so an idle connection holds no thread; a small pool
+ * drains each connection's bounded buffer when events arrive. A connection whose buffer
+ * overflows or that stops accepting writes is closed, and the client reconnects.
+ */
+@Component
+@Slf4j
+public class LiveUpdateHub {
+
+    private final ObjectMapper objectMapper;
+    private final Executor sendExecutor;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long stallMillis;
+    private final Map<Long, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Map<CustomerScope, Set<Subscriber>> byScope = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public LiveUpdateHub(ObjectMapper objectMapper,
+                         @Qualifier("liveUpdateExecutor") Executor sendExecutor,
+                         @Value("${app.live.timeout-minutes:30}") long timeoutMinutes,
+                         @Value("${app.live.buffer-size:32}") int bufferSize,
+                         @Value("${app.live.stall-seconds:60}") long stallSeconds) {
+        this.objectMapper = objectMapper;
+        this.sendExecutor = sendExecutor;
+        this.timeoutMillis = timeoutMinutes * 60_000;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.stallMillis = stallSeconds * 1000;
+    }
+
+    /**
+     * Opens a stream for {@code userId}. A non-null {@code scope} also receives the events
+     * published to that scope.
+     */
+    public SseEmitter subscribe(Long userId, CustomerScope scope) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, scope, emitter);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(ex -> close(subscriber));
+        byUser.compute(userId, (id, set) -> add(set, subscriber));
+        if (scope != null) {
+            byScope.compute(scope, (key, set) -> add(set, subscriber));
+        }
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+
+    public void sendToUser(Long userId, String eventName, Object data) {
+        Set<Subscriber> subscribers = userId != null ? byUser.get(userId) : null;
+        if (subscribers != null && !subscribers.isEmpty()) {
+            broadcast(subscribers, event(eventName, data));
+        }
+    }
+
+    public void sendToScope(CustomerScope scope, String eventName, Object data) {
+        Set<Subscriber> subscribers = byScope.get(scope);
+        if (subscribers != null && !subscribers.isEmpty()) {
+            broadcast(subscribers, event(eventName, data));
+        }
+    }
+
+    /** Scopes with at least one open connection; publishers skip work for the others. */
+    public Set<CustomerScope> subscribedScopes() {
+        return byScope.keySet();
+    }
+
+    public int connectionCount() {
+        return byUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /** Keeps proxies from closing idle streams and closes connections that stopped draining. */
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        long now = System.currentTimeMillis();
+        for (Set<Subscriber> subscribers : byUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isStalled(now)) {
+                    log.debug("Closing stalled live update stream of user {}", subscriber.userId);
+                    close(subscriber);
+                } else {
+                    subscriber.offer(ping);
+                }
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String eventName, Object data) {
+        String json;
+        try {
+            // Serialized once, however many connections receive it
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize live update", e);
+        }
+        return SseEmitter.event()
+                .id(Long.toString(eventIds.incrementAndGet()))
+                .name(eventName)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private void broadcast(Collection<Subscriber> subscribers, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        unregister(subscriber);
+        subscriber.closed = true;
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception ex) {
+            log.debug("Failed to complete live update stream", ex);
+        }
+    }
+
+    private static Set<Subscriber> add(Set<Subscriber> set, Subscriber subscriber) {
+        Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+        target.add(subscriber);
+        return target;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscriber.closed = true;
+        byUser.computeIfPresent(subscriber.userId, (id, set) -> set.remove(subscriber) && set.isEmpty() ? null : set);
+        if (subscriber.scope != null) {
+            byScope.computeIfPresent(subscriber.scope, (key, set) -> set.remove(subscriber) && set.isEmpty() ? null : set);
+        }
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final CustomerScope scope;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private volatile boolean closed;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Subscriber(Long userId, CustomerScope scope, SseEmitter emitter) {
+            this.userId = userId;
+            this.scope = scope;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            boolean overflow = false;
+            boolean schedule = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    overflow = true;
+                } else {
+                    buffer.add(event);
+                    if (!draining) {
+                        draining = true;
+                        schedule = true;
+                    }
+                }
+            }
+            if (overflow) {
+                log.debug("Closing slow live update stream of user {}", userId);
+                close(this);
+                return;
+            }
+            if (schedule) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    // Left buffered; the next event or heartbeat schedules the drain again
+                    synchronized (this) {
+                        draining = false;
+                    }
+                }
+            }
+        }
+
+        boolean isStalled(long now) {
+            synchronized (this) {
+                return draining && now - lastSentAt > stallMillis;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> next;
+                synchronized (this) {
+                    next = closed ? null : buffer.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(next);
+                    lastSentAt = System.currentTimeMillis();
+                } catch (Exception ex) {
+                    close(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.User;
+import com.company.ops_hub_api.dto.NotificationDTO;
+import com.company.ops_hub_api.repository.UserRepository;
+import com.company.ops_hub_api.security.UserPrincipal;
+import com.company.ops_hub_api.util.GeographyTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live Update Service
+ * Turns committed changes into live update events: new notifications for their recipient, KPI
+ * deltas for every subscribed geography scope containing a changed area, and a refresh hint for
+ * agents whose payments, visits or allocations changed. Events are published only after the
+ * transaction commits, so clients never see a change that was rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveUpdateService {
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String KPI_EVENT = "kpi";
+    public static final String DASHBOARD_EVENT = "dashboard";
+
+    private final LiveUpdateHub hub;
+    private final GeographyTreeService geographyTreeService;
+    private final DashboardService dashboardService;
+    private final UserRepository userRepository;
+    private final ReportDataFilter reportDataFilter;
+
+    /**
+     * Opens the caller's stream. Users who may view customers also receive the KPI deltas of
+     * their scope when it is a geography scope; agents get dashboard hints addressed to them.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(UserPrincipal principal) {
+        User user = userRepository.findById(principal.getUserId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        CustomerScope scope = null;
+        if (principal.hasPermission("VIEW_CUSTOMERS")) {
+            CustomerScope resolved = reportDataFilter.resolveScope(user);
+            scope = AreaRollupService.supports(resolved) ? resolved : null;
+        }
+        return hub.subscribe(user.getId(), scope);
+    }
+
+    public void notificationCreated(Long userId, NotificationDTO notification) {
+        afterCommit(() -> {
+            dashboardService.evictUser(userId);
+            hub.sendToUser(userId, NOTIFICATION_EVENT, notification);
+        });
+    }
+
+    /** The agent's payments, visits or allocated customers changed; their dashboard is refetched. */
+    public void agentDashboardChanged(Long userId, String reason) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            dashboardService.evictUser(userId);
+            hub.sendToUser(userId, DASHBOARD_EVENT, Map.of("reason", reason));
+        });
+    }
+
+    /** Rollup deltas of the current transaction, summed per area; published once it commits. */
+    public void areaDeltasChanged(Map<Long, BigDecimal[]> deltasByArea) {
+        if (deltasByArea.isEmpty() || hub.subscribedScopes().isEmpty()) {
+            return;
+        }
+        afterCommit(() -> publishAreaDeltas(deltasByArea));
+    }
+
+    private void publishAreaDeltas(Map<Long, BigDecimal[]> deltasByArea) {
+        Set<CustomerScope> subscribed = hub.subscribedScopes();
+        GeographyTree tree = geographyTreeService.current();
+        Map<CustomerScope, BigDecimal[]> byScope = new HashMap<>();
+        deltasByArea.forEach((areaId, deltas) -> {
+            for (CustomerScope scope : scopesContaining(tree, areaId)) {
+                if (subscribed.contains(scope)) {
+                    AreaRollupService.addDeltas(byScope.computeIfAbsent(scope, key -> AreaRollupService.emptyDeltas()),
+                            deltas);
+                }
+            }
+        });
+        byScope.forEach((scope, deltas) -> hub.sendToScope(scope, KPI_EVENT, AreaRollupService.describeDeltas(deltas)));
+    }
+
+    private static List<CustomerScope> scopesContaining(GeographyTree tree, Long areaId) {
+        List<CustomerScope> scopes = new ArrayList<>(5);
+        scopes.add(CustomerScope.ALL);
+        GeographyTree.AreaPath path = tree.pathOf(areaId);
+        if (path == null) {
+            return scopes;
+        }
+        scopes.add(new CustomerScope(CustomerScope.Type.AREA, path.areaId()));
+        if (path.zoneId() != null) {
+            scopes.add(new CustomerScope(CustomerScope.Type.ZONE, path.zoneId()));
+        }
+        if (path.circleId() != null) {
+            scopes.add(new CustomerScope(CustomerScope.Type.CIRCLE, path.circleId()));
+        }
+        if (path.clusterId() != null) {
+            scopes.add(new CustomerScope(CustomerScope.Type.CLUSTER, path.clusterId()));
+        }
+        return scopes;
+    }
+
+    private void afterCommit(Runnable publish) {
+        Runnable guarded = () -> {
+            try {
+                publish.run();
+            } catch (Exception ex) {
+                log.warn("Failed to publish live update", ex);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Notification Digest
+ * Collects per-recipient counts during a bulk operation so each recipient gets one summary
+ * notification instead of one per item. Send with {@link NotificationService#sendDigest}.
+ */
+public final class NotificationDigest {
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+
+    public void record(User recipient, int count) {
+        if (recipient == null || recipient.getId() == null || count <= 0) {
+            return;
+        }
+        entries.computeIfAbsent(recipient.getId(), id -> new Entry(recipient)).count += count;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public void forEach(BiConsumer<User, Integer> action) {
+        entries.values().forEach(entry -> action.accept(entry.recipient, entry.count));
+    }
+
+    private static final class Entry {
+        private final User recipient;
+        private int count;
+
+        private Entry(User recipient) {
+            this.recipient = recipient;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.company.ops_hub_api.security.UserPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,8 +18,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,14 +32,14 @@ public class NotificationService {
     private final AppNotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final AuditLogService auditLogService;
+    private final LiveUpdateService liveUpdates;
 
     @Transactional(readOnly = true)
     public NotificationListDTO getMyNotifications(int limit) {
         User currentUser = getCurrentUser();
-        List<AppNotification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId());
-        if (limit > 0 && notifications.size() > limit) {
-            notifications = notifications.subList(0, limit);
-        }
+        List<AppNotification> notifications = limit > 0
+                ? notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId(), PageRequest.of(0, limit))
+                : notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId());
         return NotificationListDTO.builder()
                 .notifications(notifications.stream().map(this::toDTO).collect(Collectors.toList()))
                 .unreadCount(notificationRepository.countByUserIdAndReadAtIsNull(currentUser.getId()))
@@ -94,6 +97,33 @@ public class NotificationService {
         notification.setEntityId(entityId);
         notification.setSeverity(severity != null ? severity : "INFO");
         notificationRepository.save(notification);
+        liveUpdates.notificationCreated(user.getId(), toDTO(notification));
+    }
+
+    /**
+     * Writes one notification per digest recipient in a single batched save.
+     */
+    @Transactional
+    public void sendDigest(NotificationDigest digest, String type, String title, IntFunction<String> message,
+                           String entityType, Long entityId, String severity) {
+        if (digest == null || digest.isEmpty()) {
+            return;
+        }
+        List<AppNotification> notifications = new ArrayList<>();
+        digest.forEach((user, count) -> {
+            AppNotification notification = new AppNotification();
+            notification.setUser(user);
+            notification.setNotificationType(type);
+            notification.setTitle(title);
+            notification.setMessage(message.apply(count));
+            notification.setEntityType(entityType);
+            notification.setEntityId(entityId);
+            notification.setSeverity(severity != null ? severity : "INFO");
+            notifications.add(notification);
+        });
+        notificationRepository.saveAll(notifications);
+        notifications.forEach(notification ->
+                liveUpdates.notificationCreated(notification.getUser().getId(), toDTO(notification)));
     }
 
     @Transactional
@@ -23,6 +23,7 @@ public class PaymentEscalationService {
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final GeographyTreeService geographyTreeService;
 
     @Scheduled(cron = "0 0 8 * * *") // Daily at 08:00
     @Transactional
@@ -61,11 +62,11 @@ public class PaymentEscalationService {
             return userRepository.findByAreaIdAndUserType(customer.getArea().getId(), HierarchyUtil.AREA_HEAD);
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(targetRole)) {
-            Long circleId = HierarchyUtil.getCircleId(customer.getArea());
+            Long circleId = HierarchyUtil.getCircleId(geographyTreeService.current(), HierarchyUtil.getAreaId(customer));
             if (circleId == null) {
                 return List.of();
             }
-            return userRepository.findByAreaZoneCircleIdAndUserType(circleId, HierarchyUtil.CIRCLE_HEAD);
+            return userRepository.findByCircleIdAndUserType(circleId, HierarchyUtil.CIRCLE_HEAD);
         }
         return List.of();
     }
@@ -43,6 +43,7 @@ public class PaymentService {
     private final EmailNotificationService emailNotificationService;
     private final NotificationService notificationService;
     private final ObjectMapper objectMapper;
+    private final LiveUpdateService liveUpdates;
 
     /**
      * Initiate a payment
@@ -188,6 +189,8 @@ public class PaymentService {
             );
         }
         
+        liveUpdates.agentDashboardChanged(currentUser.getId(), "PAYMENT");
+
         log.info("Payment {} initiated for customer {} by user {}", 
                 paymentReference, customer.getCustomerCode(), currentUser.getEmployeeId());
         
@@ -325,6 +328,10 @@ public class PaymentService {
             }
         }
         
+        if (savedPayment.getUser() != null) {
+            liveUpdates.agentDashboardChanged(savedPayment.getUser().getId(), "PAYMENT");
+        }
+
         log.info("Payment callback processed. Payment: {}, Status: {}", 
                 dto.getPaymentReference(), savedPayment.getPaymentStatus());
         
@@ -403,6 +410,9 @@ public class PaymentService {
                 "INFO"
         );
 
+        liveUpdates.agentDashboardChanged(savedPayment.getUser() != null ? savedPayment.getUser().getId() : null,
+                "PAYMENT");
+
         return savedPayment;
     }
 
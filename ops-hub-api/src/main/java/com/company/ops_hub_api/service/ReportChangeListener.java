@@ -0,0 +1,27 @@
+package com.company.ops_hub_api.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on Report. Once the changing transaction commits it recompiles the
+ * {@link ReportRegistry}. Instantiated by Hibernate through Spring's bean container while the
+ * EntityManagerFactory is still being built, so the registry is looked up on first use.
+ */
+public class ReportChangeListener {
+
+    private final ObjectProvider<ReportRegistry> registry;
+
+    public ReportChangeListener(ObjectProvider<ReportRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        registry.getObject().refreshAfterCommit();
+    }
+}
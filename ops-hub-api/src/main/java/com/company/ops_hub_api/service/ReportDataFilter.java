@@ -3,14 +3,15 @@ package com.company.ops_hub_api.service;
 import com.company.ops_hub_api.domain.User;
 import com.company.ops_hub_api.repository.CustomerAllocationRepository;
 import com.company.ops_hub_api.repository.CustomerRepository;
+import com.company.ops_hub_api.util.CompactIdSet;
 import com.company.ops_hub_api.util.HierarchyUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Report Data Filter
@@ -23,16 +24,17 @@ public class ReportDataFilter {
 
     private final CustomerAllocationRepository allocationRepository;
     private final CustomerRepository customerRepository;
+    private final CustomerScopeCache scopeCache;
 
     /**
-     * Get customer IDs that the user has access to
-     * Based on role and customer allocation
+     * Resolve the customer scope for a user from role and hierarchy position.
+     * Heads without a geography assignment fall back to their own allocations.
      */
-    public Set<Long> getAccessibleCustomerIds(User user) {
+    public CustomerScope resolveScope(User user) {
         String userType = HierarchyUtil.normalizeUserType(user);
 
         if (HierarchyUtil.ADMIN.equals(userType)) {
-            return null;
+            return CustomerScope.ALL;
         }
 
         Long clusterId = HierarchyUtil.getClusterId(user);
@@ -41,50 +43,76 @@ public class ReportDataFilter {
         Long areaId = HierarchyUtil.getAreaId(user);
 
         if (HierarchyUtil.CLUSTER_HEAD.equals(userType) && clusterId != null) {
-            return customerRepository.findByAreaZoneCircleClusterId(clusterId)
-                    .stream()
-                    .map(customer -> customer.getId())
-                    .collect(Collectors.toSet());
+            return new CustomerScope(CustomerScope.Type.CLUSTER, clusterId);
         }
         if (HierarchyUtil.CIRCLE_HEAD.equals(userType) && circleId != null) {
-            return customerRepository.findByAreaZoneCircleId(circleId)
-                    .stream()
-                    .map(customer -> customer.getId())
-                    .collect(Collectors.toSet());
+            return new CustomerScope(CustomerScope.Type.CIRCLE, circleId);
         }
         if (HierarchyUtil.ZONE_HEAD.equals(userType) && zoneId != null) {
-            return customerRepository.findByAreaZoneId(zoneId)
-                    .stream()
-                    .map(customer -> customer.getId())
-                    .collect(Collectors.toSet());
+            return new CustomerScope(CustomerScope.Type.ZONE, zoneId);
         }
         if (HierarchyUtil.AREA_HEAD.equals(userType) && areaId != null) {
-            return customerRepository.findByAreaId(areaId)
-                    .stream()
-                    .map(customer -> customer.getId())
-                    .collect(Collectors.toSet());
+            return new CustomerScope(CustomerScope.Type.AREA, areaId);
         }
+        return CustomerScope.allocatedTo(user.getId());
+    }
 
-        List<com.company.ops_hub_api.domain.CustomerAllocation> allocations =
-                allocationRepository.findActiveAllocationsByUserId(user.getId());
+    /**
+     * Get customer IDs that the user has access to
+     * Based on role and customer allocation; null means unrestricted.
+     * The returned set is immutable and shared through the scope cache.
+     */
+    public CompactIdSet getAccessibleCustomerIds(User user) {
+        CustomerScope scope = resolveScope(user);
+        if (scope.isUnrestricted()) {
+            return null;
+        }
+        return scopeCache.get(scope, () -> CompactIdSet.of(loadCustomerIds(scope)));
+    }
 
-        return allocations.stream()
-                .map(allocation -> allocation.getCustomer().getId())
-                .collect(Collectors.toSet());
+    private List<Long> loadCustomerIds(CustomerScope scope) {
+        return switch (scope.type()) {
+            case CLUSTER -> customerRepository.findIdsByClusterId(scope.id());
+            case CIRCLE -> customerRepository.findIdsByCircleId(scope.id());
+            case ZONE -> customerRepository.findIdsByZoneId(scope.id());
+            case AREA -> customerRepository.findIdsByAreaId(scope.id());
+            case ALLOCATED -> allocationRepository.findActiveCustomerIdsByUserId(scope.id());
+            case ALL -> List.of();
+        };
     }
 
     /**
      * Check if user can access a specific customer
      */
     public boolean canAccessCustomer(User user, Long customerId) {
-        Set<Long> accessibleCustomerIds = getAccessibleCustomerIds(user);
+        CustomerScope scope = resolveScope(user);
+        if (scope.type() == CustomerScope.Type.ALLOCATED) {
+            return isAllocatedTo(scope.id(), customerId);
+        }
+        CompactIdSet accessibleCustomerIds = getAccessibleCustomerIds(user);
         
         // null means no filter (all customers accessible)
         if (accessibleCustomerIds == null) {
             return true;
         }
         
-        return accessibleCustomerIds.contains(customerId);
+        return customerId != null && accessibleCustomerIds.contains(customerId);
+    }
+
+    /**
+     * Check if a customer is actively allocated to a user
+     * Answers from the user's cached allocation set when loaded, otherwise with one indexed
+     * existence query, so a single lookup never loads the whole portfolio.
+     */
+    public boolean isAllocatedTo(Long userId, Long customerId) {
+        if (userId == null || customerId == null) {
+            return false;
+        }
+        CompactIdSet allocated = scopeCache.getIfPresent(CustomerScope.allocatedTo(userId));
+        if (allocated != null) {
+            return allocated.contains(customerId);
+        }
+        return allocationRepository.existsActiveByUserIdAndCustomerId(userId, customerId);
     }
 
     /**
@@ -96,57 +124,74 @@ public class ReportDataFilter {
             User user, 
             String customerIdField) {
         
-        Set<Long> accessibleCustomerIds = getAccessibleCustomerIds(user);
+        Predicate<Object> customerIdFilter = customerIdFilter(user);
         
         // If no filter needed (admin/high-level), return all data
-        if (accessibleCustomerIds == null) {
+        if (customerIdFilter == null) {
             return data;
         }
         
-        // Filter data based on accessible customer IDs
         return data.stream()
-                .filter(record -> {
-                    Object customerIdObj = record.get(customerIdField);
-                    if (customerIdObj == null) {
-                        return false;
-                    }
-                    Long customerId = null;
-                    if (customerIdObj instanceof Long) {
-                        customerId = (Long) customerIdObj;
-                    } else if (customerIdObj instanceof Number) {
-                        customerId = ((Number) customerIdObj).longValue();
-                    } else if (customerIdObj instanceof String) {
-                        try {
-                            customerId = Long.parseLong((String) customerIdObj);
-                        } catch (NumberFormatException e) {
-                            return false;
-                        }
-                    }
-                    return customerId != null && accessibleCustomerIds.contains(customerId);
-                })
+                .filter(record -> customerIdFilter.test(record.get(customerIdField)))
                 .collect(java.util.stream.Collectors.toList());
     }
 
     /**
-     * Build SQL WHERE clause for data-level access control
+     * Access check on a report row's customer id value (a number or numeric text), resolved once
+     * so report rows in any representation can be tested one at a time. Null when the user is
+     * unrestricted.
      */
-    public String buildAccessControlWhereClause(User user, String customerTableAlias) {
-        Set<Long> accessibleCustomerIds = getAccessibleCustomerIds(user);
-        
-        // If no filter needed (admin/high-level), return empty string
+    public Predicate<Object> customerIdFilter(User user) {
+        CompactIdSet accessibleCustomerIds = getAccessibleCustomerIds(user);
         if (accessibleCustomerIds == null) {
-            return "";
+            return null;
         }
-        
-        // Build WHERE clause with customer IDs
-        if (accessibleCustomerIds.isEmpty()) {
-            return " AND 1=0"; // No access
+        return customerIdObj -> {
+            if (customerIdObj instanceof Number number) {
+                return accessibleCustomerIds.contains(number.longValue());
+            }
+            if (customerIdObj instanceof String text) {
+                try {
+                    return accessibleCustomerIds.contains(Long.parseLong(text));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Build a native SQL scope clause bound to {@code :scopeId}, adding the parameter to
+     * {@code params}. Empty for unrestricted users.
+     */
+    public String buildScopeClause(User user, String customerTableAlias, Map<String, Object> params) {
+        return buildScopeClause(resolveScope(user), customerTableAlias, params);
+    }
+
+    public String buildScopeClause(CustomerScope scope, String customerTableAlias, Map<String, Object> params) {
+        if (scope.isUnrestricted()) {
+            return "";
         }
-        
-        String customerIds = accessibleCustomerIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        
-        return String.format(" AND %s.id IN (%s)", customerTableAlias, customerIds);
+        params.put("scopeId", scope.id());
+        return " AND " + scopePredicate(scope.type(), customerTableAlias);
+    }
+
+    /**
+     * Scope predicate for a scope type on the customer's geography columns (or its active
+     * allocations), bound to {@code :scopeId}. The text depends only on the type and alias, so
+     * statements built from it can be prepared once and cached.
+     */
+    public String scopePredicate(CustomerScope.Type type, String alias) {
+        String scopeId = ":scopeId";
+        return switch (type) {
+            case AREA -> alias + ".area_id = " + scopeId;
+            case ZONE -> alias + ".zone_id = " + scopeId;
+            case CIRCLE -> alias + ".circle_id = " + scopeId;
+            case CLUSTER -> alias + ".cluster_id = " + scopeId;
+            case ALLOCATED -> "EXISTS (SELECT 1 FROM customer_allocations sca WHERE sca.customer_id = " + alias +
+                    ".id AND sca.user_id = " + scopeId + " AND sca.status = 'ACTIVE')";
+            case ALL -> "1=1";
+        };
     }
 }
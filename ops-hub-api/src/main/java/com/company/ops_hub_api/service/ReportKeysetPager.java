@@ -0,0 +1,234 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.dto.ReportPageRequestDTO;
+import com.company.ops_hub_api.util.SqlSelect;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Report Keyset Pager
+ * Pages report data by seeking past the last row of the previous page instead of skipping rows,
+ * so every page costs the same. Sorting is limited to the columns a report declares in its
+ * parameters ({@code sortable}, {@code defaultSort}, and a unique {@code keyColumn} that breaks
+ * ties); the cursor carries the sort and the last row's key values.
+ */
+@Component
+public class ReportKeysetPager {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final ObjectMapper objectMapper;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    record SortKey(String column, boolean descending) {
+
+        @Override
+        public String toString() {
+            return (descending ? "-" : "") + column;
+        }
+    }
+
+    /** Sort keys ending with the key column, the key values to seek past (empty on page one) and the page size. */
+    record Page(List<SortKey> keys, List<Object> after, int limit) {}
+
+    record Cursor(Long report, String sort, List<List<String>> values) {}
+
+    public ReportKeysetPager(ObjectMapper objectMapper,
+                             @Value("${app.reports.page.default-limit:50}") int defaultLimit,
+                             @Value("${app.reports.page.max-limit:500}") int maxLimit) {
+        this.objectMapper = objectMapper;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    Page plan(Long reportId, Map<String, Object> metadata, ReportPageRequestDTO request) {
+        String keyColumn = metadata.get("keyColumn") instanceof String key ? key : null;
+        if (keyColumn == null || !IDENTIFIER.matcher(keyColumn).matches()) {
+            throw new IllegalArgumentException("This report does not support paging");
+        }
+        List<String> sortable = strings(metadata.get("sortable"));
+        List<String> requested = request.getSort() != null && !request.getSort().isEmpty()
+                ? request.getSort()
+                : strings(metadata.get("defaultSort"));
+
+        List<SortKey> keys = new ArrayList<>();
+        for (String item : requested) {
+            String value = item != null ? item.trim() : "";
+            boolean descending = value.startsWith("-");
+            String column = descending ? value.substring(1) : value;
+            if (column.equals(keyColumn)) {
+                continue;
+            }
+            if (!sortable.contains(column) || !IDENTIFIER.matcher(column).matches()) {
+                throw new IllegalArgumentException("Cannot sort this report by " + column);
+            }
+            if (keys.stream().noneMatch(key -> key.column().equals(column))) {
+                keys.add(new SortKey(column, descending));
+            }
+        }
+        // The key column makes the order total, so no row is skipped or repeated between pages
+        boolean keyDescending = keys.isEmpty() ? requested.contains("-" + keyColumn) : keys.get(keys.size() - 1).descending();
+        keys.add(new SortKey(keyColumn, keyDescending));
+
+        int limit = request.getLimit() != null ? request.getLimit() : defaultLimit;
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + maxLimit);
+        }
+        List<Object> after = request.getCursor() != null && !request.getCursor().isBlank()
+                ? decode(reportId, keys, request.getCursor())
+                : List.of();
+        return new Page(List.copyOf(keys), after, limit);
+    }
+
+    /**
+     * Wraps an unordered report query in the page query, adding its bind values to {@code params}.
+     * A leading WITH clause is moved in front of the page query, since T-SQL does not allow one
+     * inside a derived table. Fetches one row beyond the page to tell whether another page follows.
+     */
+    String wrap(String sql, Page page, Map<String, Object> params) {
+        String withClause = "";
+        String body = sql;
+        try {
+            SqlSelect select = SqlSelect.parse(sql);
+            withClause = select.withClause();
+            body = select.withoutWithClause();
+        } catch (IllegalArgumentException e) {
+            // Not a single SELECT (a set operation, say); valid in a derived table as written
+        }
+        StringBuilder query = new StringBuilder(withClause.isEmpty() ? "" : withClause + "\n")
+                .append("SELECT TOP (:pageLimit) r.* FROM (\n")
+                .append(body)
+                .append("\n) r");
+        params.put("pageLimit", page.limit() + 1);
+        List<SortKey> keys = page.keys();
+        if (!page.after().isEmpty()) {
+            for (int i = 0; i < keys.size(); i++) {
+                params.put("after" + i, page.after().get(i));
+            }
+            // Leading bound on the first key lets an index on it seek; the OR chain resolves ties
+            SortKey first = keys.get(0);
+            query.append("\nWHERE r.").append(first.column()).append(first.descending() ? " <= " : " >= ")
+                    .append(":after0 AND (");
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) {
+                    query.append(" OR ");
+                }
+                query.append('(');
+                for (int j = 0; j < i; j++) {
+                    query.append("r.").append(keys.get(j).column()).append(" = :after").append(j).append(" AND ");
+                }
+                SortKey key = keys.get(i);
+                query.append("r.").append(key.column()).append(key.descending() ? " < " : " > ")
+                        .append(":after").append(i).append(')');
+            }
+            query.append(')');
+        }
+        query.append("\nORDER BY ").append(keys.stream()
+                .map(key -> "r." + key.column() + (key.descending() ? " DESC" : " ASC"))
+                .collect(Collectors.joining(", ")));
+        return query.toString();
+    }
+
+    String nextCursor(Long reportId, Page page, Map<String, Object> lastRecord) {
+        List<List<String>> values = new ArrayList<>();
+        for (SortKey key : page.keys()) {
+            values.add(encodeValue(key.column(), lastRecord.get(key.column())));
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Cursor(reportId, sortOf(page.keys()), values));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to build page cursor", e);
+        }
+    }
+
+    private List<Object> decode(Long reportId, List<SortKey> keys, String token) {
+        Cursor cursor;
+        try {
+            cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(token), Cursor.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        if (!Objects.equals(cursor.report(), reportId) || !sortOf(keys).equals(cursor.sort())
+                || cursor.values() == null || cursor.values().size() != keys.size()) {
+            throw new IllegalArgumentException("Page cursor does not match this report and sort");
+        }
+        List<Object> values = new ArrayList<>(keys.size());
+        for (List<String> value : cursor.values()) {
+            values.add(decodeValue(value));
+        }
+        return values;
+    }
+
+    private static String sortOf(List<SortKey> keys) {
+        return keys.stream().map(SortKey::toString).collect(Collectors.joining(","));
+    }
+
+    // Values keep their type so they bind with the column's type and the seek stays sargable
+    private static List<String> encodeValue(String column, Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return List.of("t", timestamp.toLocalDateTime().toString());
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return List.of("t", dateTime.toString());
+        }
+        if (value instanceof java.sql.Date date) {
+            return List.of("d", date.toLocalDate().toString());
+        }
+        if (value instanceof LocalDate date) {
+            return List.of("d", date.toString());
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof java.math.BigInteger) {
+            return List.of("i", value.toString());
+        }
+        if (value instanceof Number number) {
+            return List.of("n", new BigDecimal(number.toString()).toPlainString());
+        }
+        if (value instanceof String text) {
+            return List.of("s", text);
+        }
+        throw new IllegalStateException("Sort column " + column + " has no value usable in a page cursor");
+    }
+
+    private static Object decodeValue(List<String> value) {
+        if (value == null || value.size() != 2) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        try {
+            return switch (value.get(0)) {
+                case "t" -> LocalDateTime.parse(value.get(1));
+                case "d" -> LocalDate.parse(value.get(1));
+                case "i" -> Long.parseLong(value.get(1));
+                case "n" -> new BigDecimal(value.get(1));
+                case "s" -> value.get(1);
+                default -> throw new IllegalArgumentException("Invalid page cursor");
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    private List<String> strings(Object value) {
+        if (value instanceof String text) {
+            return List.of(text.split(","));
+        }
+        return value instanceof List<?> ? objectMapper.convertValue(value, new TypeReference<List<String>>() {}) : List.of();
+    }
+}
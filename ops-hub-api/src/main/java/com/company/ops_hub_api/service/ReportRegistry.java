@@ -0,0 +1,336 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Report;
+import com.company.ops_hub_api.repository.ReportRepository;
+import com.company.ops_hub_api.util.SqlSelect;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Report Registry
+ * Serves every report compiled once into a {@link CompiledReport}, including the
+ * access-controlled SQL for each scope type. Any change to a report row
+ * recompiles the whole (small) set after the transaction commits and swaps it in, so readers
+ * never parse report JSON or SQL and never block.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportRegistry {
+
+    private record Snapshot(Map<Long, CompiledReport> byId, List<CompiledReport> active) {}
+
+    private final ReportRepository reportRepository;
+    private final ObjectMapper objectMapper;
+    private final ReportDataFilter dataFilter;
+    // Resolved lazily so the after-commit refresh goes through the transactional proxy
+    private final ObjectProvider<ReportRegistry> self;
+
+    private volatile Snapshot snapshot;
+
+    public CompiledReport get(Long reportId) {
+        CompiledReport report = current().byId().get(reportId);
+        if (report == null) {
+            throw new IllegalArgumentException("Report not found");
+        }
+        return report;
+    }
+
+    /** Active reports ordered by name. */
+    public List<CompiledReport> active() {
+        return current().active();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void refresh() {
+        snapshot = load();
+    }
+
+    /** Recompiles once after the current transaction commits (immediately when none is active). */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            self.getObject().refresh();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReportRegistry.this);
+                if (status == STATUS_COMMITTED) {
+                    try {
+                        self.getObject().refresh();
+                    } catch (Exception ex) {
+                        // Keep serving the previous definitions; the next change or restart reloads them
+                        log.error("Failed to refresh report registry", ex);
+                    }
+                }
+            }
+        });
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    self.getObject().refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Map<Long, CompiledReport> byId = new LinkedHashMap<>();
+        for (Report report : reportRepository.findAll()) {
+            byId.put(report.getId(), compile(report));
+        }
+        List<CompiledReport> active = byId.values().stream()
+                .filter(CompiledReport::active)
+                .sorted(Comparator.comparing(CompiledReport::name, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        log.debug("Compiled {} reports", byId.size());
+        return new Snapshot(Collections.unmodifiableMap(byId), active);
+    }
+
+    private CompiledReport compile(Report report) {
+        Map<String, Object> parameters = readParameters(report);
+        String querySql = report.getQuerySql();
+        String sql = null;
+        String orderBy = "";
+        Map<CustomerScope.Type, String> scopedSql = new EnumMap<>(CustomerScope.Type.class);
+        List<String> bindNames = List.of();
+        if (querySql != null && !querySql.trim().isEmpty()) {
+            sql = querySql;
+            bindNames = List.copyOf(bindSlots(querySql));
+            try {
+                SqlSelect select = SqlSelect.parse(querySql);
+                sql = select.withoutOrderBy();
+                orderBy = select.orderBy();
+                scopedSql.putAll(scopeVariants(report.getReportCode(), sql));
+            } catch (IllegalArgumentException e) {
+                // Still runs for unrestricted users; restricted users are refused
+                log.warn("Report {} SQL could not be parsed for access control: {}", report.getReportCode(),
+                        e.getMessage());
+            }
+        } else {
+            log.warn("Report {} has no query SQL", report.getReportCode());
+        }
+
+        List<String> filterKeys = new ArrayList<>();
+        Map<String, Function<Object, Object>> coercers = new LinkedHashMap<>();
+        if (parameters.get("filters") instanceof List<?> filters) {
+            for (Object item : filters) {
+                if (item instanceof Map<?, ?> filter && filter.get("key") != null) {
+                    String key = filter.get("key").toString();
+                    filterKeys.add(key);
+                    coercers.put(key, coercer(key, filter));
+                }
+            }
+        }
+        List<String> columns = null;
+        if (parameters.get("columns") instanceof List<?> list) {
+            columns = list.stream().filter(java.util.Objects::nonNull).map(Object::toString).toList();
+            if (columns.isEmpty()) {
+                columns = null;
+            }
+        }
+
+        return new CompiledReport(
+                report.getId(),
+                report.getReportCode(),
+                report.getName(),
+                report.getDescription(),
+                report.getReportType(),
+                report.getCategory(),
+                Boolean.TRUE.equals(report.getActive()),
+                report.getCreatedBy() != null ? report.getCreatedBy().getEmployeeId() : null,
+                report.getCreatedAt(),
+                report.getUpdatedAt(),
+                sql,
+                Collections.unmodifiableMap(scopedSql),
+                orderBy,
+                bindNames,
+                columns,
+                List.copyOf(filterKeys),
+                Collections.unmodifiableMap(coercers),
+                parameters,
+                readAccessRoles(report));
+    }
+
+    /**
+     * Rewrites the outer query once per restricted scope type, adding the scope predicate on each
+     * customers table of its FROM clause to its own WHERE clause. Reports without a customers table
+     * in their outer FROM clause, or that also read customers in a subquery, derived table or CTE
+     * the predicate cannot reach, get no variants.
+     */
+    private Map<CustomerScope.Type, String> scopeVariants(String reportCode, String sql) {
+        SqlSelect select = SqlSelect.parse(sql);
+        List<String> customerAliases = select.aliasesOf("customers");
+        if (customerAliases.isEmpty()) {
+            log.warn("Report {} has no customers table in its outer query; it is limited to unrestricted users",
+                    reportCode);
+            return Map.of();
+        }
+        if (select.readsInSubquery("customers")) {
+            log.warn("Report {} reads customers in a subquery, derived table or CTE; it is limited to unrestricted users",
+                    reportCode);
+            return Map.of();
+        }
+        Map<CustomerScope.Type, String> variants = new EnumMap<>(CustomerScope.Type.class);
+        for (CustomerScope.Type type : CustomerScope.Type.values()) {
+            if (type != CustomerScope.Type.ALL) {
+                String predicate = customerAliases.stream()
+                        .map(alias -> dataFilter.scopePredicate(type, alias))
+                        .collect(Collectors.joining(" AND "));
+                variants.put(type, select.withPredicate(predicate));
+            }
+        }
+        return variants;
+    }
+
+    private Map<String, Object> readParameters(Report report) {
+        if (report.getParameters() == null || report.getParameters().isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<String, Object> parameters = objectMapper.readValue(report.getParameters(),
+                    new TypeReference<Map<String, Object>>() {});
+            @SuppressWarnings("unchecked")
+            Map<String, Object> frozen = (Map<String, Object>) freeze(parameters);
+            return frozen;
+        } catch (Exception e) {
+            log.warn("Failed to parse report parameters for {}", report.getReportCode(), e);
+            return Map.of();
+        }
+    }
+
+    private List<String> readAccessRoles(Report report) {
+        if (report.getAccessRoles() == null || report.getAccessRoles().isEmpty()) {
+            return null; // No restriction
+        }
+        try {
+            List<String> roles = objectMapper.readValue(report.getAccessRoles(), new TypeReference<List<String>>() {});
+            return roles.stream().filter(java.util.Objects::nonNull).toList();
+        } catch (Exception e) {
+            // Unreadable roles lock the report rather than open it
+            log.error("Error parsing access roles for report {}", report.getReportCode(), e);
+            return List.of();
+        }
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(String.valueOf(key), freeze(item)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(freeze(item)));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    /** Named {@code :slot} parameters, skipping string literals, comments and {@code ::} casts. */
+    static Set<String> bindSlots(String sql) {
+        Set<String> names = new LinkedHashSet<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = sql.indexOf('\'', i + 1);
+                while (i >= 0 && i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    i = sql.indexOf('\'', i + 2);
+                }
+                i = i < 0 ? length : i + 1;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = sql.indexOf('\n', i);
+                i = i < 0 ? length : i + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = sql.indexOf("*/", i + 2);
+                i = i < 0 ? length : i + 2;
+            } else if (c == ':' && i + 1 < length && sql.charAt(i + 1) == ':') {
+                i += 2;
+            } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(sql.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                names.add(sql.substring(i + 1, end));
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Coercer for a filter value, from its declared {@code valueType} or, failing that, its UI type:
+     * dates parse to LocalDate/LocalDateTime, selects with options stay strings and selects
+     * without options are entity ids.
+     */
+    private static Function<Object, Object> coercer(String key, Map<?, ?> filter) {
+        Object declared = filter.get("valueType");
+        String type = declared != null ? declared.toString()
+                : "date".equals(filter.get("type")) ? "date"
+                : "select".equals(filter.get("type")) && filter.get("options") == null ? "long"
+                : "string";
+        Function<Object, Object> convert = switch (type) {
+            case "date" -> ReportRegistry::toTemporal;
+            case "long" -> value -> value instanceof Number number ? number.longValue() : Long.parseLong(value.toString().trim());
+            case "decimal" -> value -> new BigDecimal(value.toString().trim());
+            default -> Object::toString;
+        };
+        return value -> {
+            if (value instanceof String text && text.isBlank()) {
+                return null;
+            }
+            try {
+                return convert.apply(value);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value for filter " + key);
+            }
+        };
+    }
+
+    private static Object toTemporal(Object value) {
+        if (value instanceof LocalDate || value instanceof LocalDateTime) {
+            return value;
+        }
+        String text = value.toString().trim();
+        return text.length() <= 10 ? LocalDate.parse(text) : LocalDateTime.parse(text.replace(' ', 'T'));
+    }
+}
@@ -0,0 +1,157 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.util.ReportTable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report Row Writer
+ * Writes streamed report rows one at a time in NDJSON or CSV, straight from the query's
+ * {@code Object[]} rows and their column schema. Nothing is retained between rows; output is
+ * buffered and pushed to the client on {@link #flush()}.
+ */
+interface ReportRowWriter extends AutoCloseable {
+
+    String NDJSON = "NDJSON";
+    String CSV = "CSV";
+
+    void write(ReportTable.Schema schema, Object[] row) throws IOException;
+
+    void flush() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static String normalizeFormat(String format) {
+        String normalized = format != null ? format.trim().toUpperCase(Locale.ROOT) : "";
+        if (!NDJSON.equals(normalized) && !CSV.equals(normalized)) {
+            throw new IllegalArgumentException("Unsupported stream format: " + format);
+        }
+        return normalized;
+    }
+
+    static ReportRowWriter open(String format, OutputStream out, ObjectMapper objectMapper,
+                                List<String> columns) throws IOException {
+        return CSV.equals(format) ? new Csv(out, columns) : new NdJson(out, objectMapper);
+    }
+
+    final class NdJson implements ReportRowWriter {
+
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+        private boolean written;
+
+        NdJson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            // One JSON object per line; the servlet stream is closed by the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(ReportTable.Schema schema, Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < schema.width(); i++) {
+                generator.writeFieldName(schema.columns().get(i));
+                writer.writeValue(generator, schema.value(row, i));
+            }
+            generator.writeEndObject();
+            written = true;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (written) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+
+    final class Csv implements ReportRowWriter {
+
+        private final Writer writer;
+        private List<String> columns;
+
+        Csv(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.columns = columns;
+            if (columns != null) {
+                writeLine(columns);
+            }
+        }
+
+        @Override
+        public void write(ReportTable.Schema schema, Object[] row) throws IOException {
+            if (columns == null) {
+                // Reports without configured columns are keyed by position
+                columns = schema.columns();
+                writeLine(columns);
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = schema.value(row, i);
+                if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Flush only: closing the writer would close the response stream
+            writer.flush();
+        }
+
+        private void writeLine(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values.get(i));
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -81,7 +81,8 @@ public class ReportSeeder {
                            ar.name AS areaName,
                            z.name AS zoneName,
                            ci.name AS circleName,
-                           cl.name AS clusterName
+                           cl.name AS clusterName,
+                           a.id AS allocationId
                     FROM customers c
                     JOIN customer_allocations a ON a.customer_id = c.id AND a.status = 'ACTIVE'
                     JOIN users u ON u.id = a.user_id
@@ -142,6 +143,10 @@ public class ReportSeeder {
                 "status", "pendingAmount", "areaName", "zoneName",
                 "circleName", "clusterName", "createdAt"
         ));
+        // Keyset paging: only non-null columns may be sorted on; keyColumn must be unique per row
+        params.put("keyColumn", "customerId");
+        params.put("sortable", List.of("createdAt", "customerCode", "status"));
+        params.put("defaultSort", List.of("-createdAt"));
         params.put("filters", List.of(
                 filter("clusterId", "Cluster", "select", null),
                 filter("circleId", "Circle", "select", null),
@@ -161,8 +166,11 @@ public class ReportSeeder {
         params.put("columns", List.of(
                 "customerId", "customerCode", "status", "allocatedAt",
                 "assigneeEmployeeId", "assigneeType", "areaName", "zoneName",
-                "circleName", "clusterName"
+                "circleName", "clusterName", "allocationId"
         ));
+        params.put("keyColumn", "allocationId");
+        params.put("sortable", List.of("allocatedAt", "customerCode", "status"));
+        params.put("defaultSort", List.of("-allocatedAt"));
         params.put("filters", List.of(
                 filter("clusterId", "Cluster", "select", null),
                 filter("circleId", "Circle", "select", null),
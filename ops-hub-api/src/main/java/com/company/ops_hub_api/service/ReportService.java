@@ -1,398 +1,362 @@
 package com.company.ops_hub_api.service;
 
-import com.company.ops_hub_api.domain.Report;
 import com.company.ops_hub_api.domain.User;
 import com.company.ops_hub_api.dto.ReportDTO;
 import com.company.ops_hub_api.dto.ReportDataDTO;
-import com.company.ops_hub_api.repository.ReportRepository;
+import com.company.ops_hub_api.dto.ReportPageRequestDTO;
 import com.company.ops_hub_api.repository.UserRepository;
 import com.company.ops_hub_api.repository.UserRoleRepository;
 import com.company.ops_hub_api.security.UserPrincipal;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.company.ops_hub_api.util.ReportTable;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Query;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Report Service
- * Handles report viewing with permission checks and data-level access control
+ * Handles report viewing with permission checks and data-level access control.
+ * Report definitions come precompiled from {@link ReportRegistry}; every value reaches the
+ * database as a bind parameter, so the statement text depends only on the report and the
+ * caller's scope type and SQL Server reuses one plan across users. Rows stay in the query's
+ * {@code Object[]} form in a {@link ReportTable}; no per-row map is built.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReportService {
 
-    private final ReportRepository reportRepository;
+    private static final String CUSTOMER_ID_FIELD = "customerId";
+
+    private record PagedData(ReportTable data, String nextCursor, boolean hasMore) {}
+
+    /** Report SQL with access control applied, and the values for all of its bind slots. */
+    private record PreparedQuery(String sql, Map<String, Object> binds) {}
+
+    private final ReportRegistry reportRegistry;
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
     private final ReportDataFilter dataFilter;
     private final AuditLogService auditLogService;
     private final ObjectMapper objectMapper;
     private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReportKeysetPager keysetPager;
+
+    @Value("${app.reports.stream.fetch-size:1000}")
+    private int streamFetchSize;
 
     /**
      * Get all available reports for current user
      */
-    @Transactional(readOnly = true)
     public List<ReportDTO> getAvailableReports() {
         checkViewReportsPermission();
-        
-        User user = getCurrentUser();
-        List<String> userRoles = getUserRoles(user);
-        
-        // Get all active reports
-        List<Report> reports = reportRepository.findAllActive();
-        
-        // Filter by access roles
-        return reports.stream()
-                .filter(report -> canAccessReport(report, userRoles))
-                .map(this::toDTO)
+
+        List<String> userRoles = getUserRoles();
+
+        // Active reports, filtered by access roles
+        return reportRegistry.active().stream()
+                .filter(report -> report.isAccessibleTo(userRoles))
+                .map(CompiledReport::toDTO)
                 .collect(Collectors.toList());
     }
 
     /**
      * Get report by ID
      */
-    @Transactional(readOnly = true)
     public ReportDTO getReport(Long reportId) {
-        checkViewReportsPermission();
-        if (reportId == null) {
-            throw new IllegalArgumentException("Report ID cannot be null");
-        }
-        
-        Report report = reportRepository.findById(reportId)
-                .orElseThrow(() -> new IllegalArgumentException("Report not found"));
-        
-        User user = getCurrentUser();
-        List<String> userRoles = getUserRoles(user);
-        
-        if (!canAccessReport(report, userRoles)) {
-            throw new AccessDeniedException("Access denied to this report");
-        }
-        
-        return toDTO(report);
+        return getAccessibleReport(reportId).toDTO();
     }
 
     /**
      * Get report data
      */
     @Transactional(readOnly = true)
-    public ReportDataDTO getReportData(Long reportId, Map<String, Object> parameters, 
+    public ReportDataDTO getReportData(Long reportId, Map<String, Object> parameters,
                                       Map<String, Object> filters, HttpServletRequest request) {
-        checkViewReportsPermission();
-        if (reportId == null) {
-            throw new IllegalArgumentException("Report ID cannot be null");
-        }
-        
-        Report report = reportRepository.findById(reportId)
-                .orElseThrow(() -> new IllegalArgumentException("Report not found"));
-        
+        return getReportData(reportId, parameters, filters, null, request);
+    }
+
+    /**
+     * Get report data, one keyset page at a time when {@code page} is given
+     */
+    @Transactional(readOnly = true)
+    public ReportDataDTO getReportData(Long reportId, Map<String, Object> parameters,
+                                      Map<String, Object> filters, ReportPageRequestDTO page,
+                                      HttpServletRequest request) {
+        CompiledReport report = getAccessibleReport(reportId);
         User user = getCurrentUser();
-        List<String> userRoles = getUserRoles(user);
-        
-        if (!canAccessReport(report, userRoles)) {
-            throw new AccessDeniedException("Access denied to this report");
-        }
-        
+
         // Execute report query with data-level access control
-        List<Map<String, Object>> data = executeReportQuery(report, parameters, filters, user);
-        
+        ReportTable data;
+        String nextCursor = null;
+        Boolean hasMore = null;
+        if (page == null) {
+            data = executeReportQuery(report, parameters, filters, user);
+        } else {
+            PagedData paged = executePagedReportQuery(report, parameters, filters, page, user);
+            data = paged.data();
+            nextCursor = paged.nextCursor();
+            hasMore = paged.hasMore();
+        }
+
         // Log report access
         Map<String, Object> accessData = new HashMap<>();
         accessData.put("reportId", reportId);
-        accessData.put("reportCode", report.getReportCode());
+        accessData.put("reportCode", report.reportCode());
         accessData.put("parameters", parameters);
         accessData.put("filters", filters);
         accessData.put("recordCount", data.size());
-        
+        if (page != null) {
+            accessData.put("pageLimit", page.getLimit());
+            accessData.put("sort", page.getSort());
+        }
+
         auditLogService.logAction("VIEW_REPORT", "REPORT", reportId, null, accessData, request);
-        
+
         return ReportDataDTO.builder()
-                .reportId(report.getId())
-                .reportCode(report.getReportCode())
-                .reportName(report.getName())
+                .reportId(report.id())
+                .reportCode(report.reportCode())
+                .reportName(report.name())
                 .data(data)
                 .recordCount(data.size())
                 .metadata(buildMetadata(report))
                 .filtersApplied(filters)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
     }
 
     /**
-     * Execute report query with data-level access control
+     * Stream report data as NDJSON or CSV
+     * Access checks and the query are prepared here; the returned body then reads the rows through
+     * a forward-only cursor and writes each one as soon as it passes the filters, so memory stays
+     * flat whatever the size of the report.
      */
-    private List<Map<String, Object>> executeReportQuery(Report report, Map<String, Object> parameters,
-                                                         Map<String, Object> filters, User user) {
-        try {
-            String querySql = report.getQuerySql();
-            if (querySql == null || querySql.trim().isEmpty()) {
-                log.warn("Report {} has no query SQL", report.getReportCode());
-                return new ArrayList<>();
-            }
-            
-            // Apply data-level access control
-            String accessControlClause = dataFilter.buildAccessControlWhereClause(user, "c");
-            if (!accessControlClause.isEmpty()) {
-                // Add access control to query
-                querySql = injectAccessControl(querySql, accessControlClause);
-            }
-            
-            // Replace parameters in query
-            querySql = replaceParameters(querySql, parameters);
-            
-            // Execute query
-            Query query = entityManager.createNativeQuery(querySql);
-            
-            // Apply filters if any
-            applyFilters(query, filters, report);
-            
-            @SuppressWarnings("unchecked")
-            List<Object[]> results = query.getResultList();
-            
-            // Convert to Map list
-            List<Map<String, Object>> data = convertResultsToMap(results, report);
-            
-            // Apply post-query filtering if needed
-            if (filters != null && !filters.isEmpty()) {
-                data = applyPostQueryFilters(data, filters);
-            }
-            
-            // Apply data-level filter (for in-memory filtering)
-            data = dataFilter.filterReportData(data, user, "customerId");
-            
-            return data;
-            
-        } catch (Exception e) {
-            log.error("Error executing report query for report {}", report.getReportCode(), e);
-            throw new RuntimeException("Failed to execute report query: " + e.getMessage(), e);
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamReportData(Long reportId, Map<String, Object> parameters,
+                                                  Map<String, Object> filters, String format) {
+        String streamFormat = ReportRowWriter.normalizeFormat(format);
+        CompiledReport report = getAccessibleReport(reportId);
+        User user = getCurrentUser();
+
+        // Everything the body needs is resolved now: it runs on another thread, outside this
+        // transaction and without the security context
+        PreparedQuery prepared = report.hasQuery() ? prepareQuery(report, parameters, filters, user, true) : null;
+        if (prepared == null) {
+            log.warn("Report {} has no query SQL", report.reportCode());
         }
+        Map<String, Object> rowFilters = report.rowFilters(filters);
+        Predicate<Object> customerIdFilter = dataFilter.customerIdFilter(user);
+        Long userId = user.getId();
+
+        return out -> {
+            long recordCount = 0;
+            boolean completed = false;
+            try (ReportRowWriter writer = ReportRowWriter.open(streamFormat, out, objectMapper, report.columns())) {
+                if (prepared != null) {
+                    recordCount = streamRows(report, prepared, rowFilters, customerIdFilter, writer);
+                }
+                completed = true;
+            } catch (Exception e) {
+                log.error("Error streaming report {}", report.reportCode(), e);
+                throw e;
+            } finally {
+                Map<String, Object> accessData = new HashMap<>();
+                accessData.put("reportId", reportId);
+                accessData.put("reportCode", report.reportCode());
+                accessData.put("parameters", parameters);
+                accessData.put("filters", filters);
+                accessData.put("format", streamFormat);
+                accessData.put("recordCount", recordCount);
+                accessData.put("completed", completed);
+                auditLogService.logActionForUser(userId, "VIEW_REPORT", "REPORT", reportId, null, accessData, null);
+            }
+        };
     }
 
-    /**
-     * Inject access control clause into SQL query
-     */
-    private String injectAccessControl(String querySql, String accessControlClause) {
-        // Simple injection: add to WHERE clause
-        // In production, use proper SQL parser
-        String upperQuery = querySql.toUpperCase();
-        if (upperQuery.contains("WHERE")) {
-            return querySql + accessControlClause;
-        } else {
-            return querySql + " WHERE 1=1" + accessControlClause;
+    private long streamRows(CompiledReport report, PreparedQuery prepared, Map<String, Object> rowFilters,
+                            Predicate<Object> customerIdFilter, ReportRowWriter writer) throws IOException {
+        // A stateless session keeps no persistence context, so rows are not retained once written
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            NativeQuery<?> query = session.createNativeQuery(prepared.sql());
+            prepared.binds().forEach(query::setParameter);
+            query.setFetchSize(streamFetchSize);
+            query.setReadOnly(true);
+            long written = 0;
+            ReportTable.Schema schema = null;
+            Predicate<Object[]> rowFilter = null;
+            try (ScrollableResults<?> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    Object result = rows.get();
+                    Object[] row = result instanceof Object[] values ? values : new Object[]{result};
+                    if (schema == null) {
+                        // Column positions and filters are resolved once, from the first row's width
+                        schema = ReportTable.Schema.of(report.columns(), row.length);
+                        rowFilter = rowFilter(schema, rowFilters, customerIdFilter);
+                    }
+                    if (rowFilter != null && !rowFilter.test(row)) {
+                        continue;
+                    }
+                    writer.write(schema, row);
+                    if (++written % streamFetchSize == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+            return written;
         }
     }
 
     /**
-     * Replace parameters in query
+     * Execute report query with data-level access control
      */
-    private String replaceParameters(String querySql, Map<String, Object> parameters) {
-        if (parameters == null || parameters.isEmpty()) {
-            return querySql;
+    private ReportTable executeReportQuery(CompiledReport report, Map<String, Object> parameters,
+                                           Map<String, Object> filters, User user) {
+        if (!report.hasQuery()) {
+            log.warn("Report {} has no query SQL", report.reportCode());
+            return ReportTable.empty();
         }
-        
-        String result = querySql;
-        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-            String placeholder = ":" + entry.getKey();
-            String value = entry.getValue() != null ? entry.getValue().toString() : "";
-            result = result.replace(placeholder, value);
+        PreparedQuery prepared = prepareQuery(report, parameters, filters, user, true);
+        try {
+            // Execute query
+            Query query = entityManager.createNativeQuery(prepared.sql());
+            prepared.binds().forEach(query::setParameter);
+
+            ReportTable data = ReportTable.of(report.columns(), query.getResultList());
+
+            // Apply post-query and data-level filters (in-memory filtering)
+            return applyRowFilters(data, report.rowFilters(filters), user);
+
+        } catch (Exception e) {
+            log.error("Error executing report query for report {}", report.reportCode(), e);
+            throw new RuntimeException("Failed to execute report query: " + e.getMessage(), e);
         }
-        return result;
     }
 
     /**
-     * Apply filters to query
+     * Execute one keyset page of the report query
+     * The report's own ORDER BY is replaced by the page order, and the page starts after the
+     * cursor's key values, so a deep page reads no more rows than the first.
      */
-    private void applyFilters(Query query, Map<String, Object> filters, Report report) {
-        List<String> filterKeys = resolveFilterKeys(report);
-        if (filterKeys.isEmpty()) {
-            if (filters == null) {
-                return;
-            }
-            for (Map.Entry<String, Object> entry : filters.entrySet()) {
-                if (entry.getValue() != null) {
-                    query.setParameter(entry.getKey(), entry.getValue());
-                }
-            }
-            return;
+    private PagedData executePagedReportQuery(CompiledReport report, Map<String, Object> parameters,
+                                              Map<String, Object> filters, ReportPageRequestDTO page, User user) {
+        ReportKeysetPager.Page plan = keysetPager.plan(report.id(), report.parameters(), page);
+        if (!report.hasQuery()) {
+            log.warn("Report {} has no query SQL", report.reportCode());
+            return new PagedData(ReportTable.empty(), null, false);
         }
+        PreparedQuery prepared = prepareQuery(report, parameters, filters, user, false);
+        try {
+            Map<String, Object> binds = new HashMap<>(prepared.binds());
+            String querySql = keysetPager.wrap(prepared.sql(), plan, binds);
+
+            Query query = entityManager.createNativeQuery(querySql);
+            binds.forEach(query::setParameter);
+
+            ReportTable data = ReportTable.of(report.columns(), query.getResultList());
+
+            boolean hasMore = data.size() > plan.limit();
+            data = data.limit(plan.limit());
+            // Taken before in-memory filtering so the next page resumes after every row read here
+            String nextCursor = hasMore ? keysetPager.nextCursor(report.id(), plan, data.rowAsMap(data.size() - 1)) : null;
 
-        Map<String, Object> safeFilters = filters == null ? new HashMap<>() : filters;
-        for (String key : filterKeys) {
-            query.setParameter(key, safeFilters.get(key));
+            return new PagedData(applyRowFilters(data, report.rowFilters(filters), user), nextCursor, hasMore);
+
+        } catch (Exception e) {
+            log.error("Error executing paged report query for report {}", report.reportCode(), e);
+            throw new RuntimeException("Failed to execute report query: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Apply post-query filters
+     * Pick the report SQL rewritten for the caller's scope type and collect bind values
+     * The scope id is bound like any other value. The report's ORDER BY is appended when
+     * {@code ordered}; paged queries supply their own.
      */
-    private List<Map<String, Object>> applyPostQueryFilters(List<Map<String, Object>> data, 
-                                                           Map<String, Object> filters) {
-        // Apply in-memory filters for complex filtering
-        return data.stream()
-                .filter(record -> {
-                    for (Map.Entry<String, Object> entry : filters.entrySet()) {
-                        Object recordValue = record.get(entry.getKey());
-                        Object filterValue = entry.getValue();
-                        if (filterValue != null && !filterValue.equals(recordValue)) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
+    private PreparedQuery prepareQuery(CompiledReport report, Map<String, Object> parameters,
+                                       Map<String, Object> filters, User user, boolean ordered) {
+        Map<String, Object> binds = report.bindValues(parameters, filters);
+        CustomerScope scope = dataFilter.resolveScope(user);
+        if (!scope.isUnrestricted()) {
+            binds.put("scopeId", scope.id());
+        }
+        String querySql = report.sqlFor(scope.type());
+        return new PreparedQuery(ordered ? querySql + report.orderBy() : querySql, binds);
     }
 
     /**
-     * Convert query results to Map list
+     * Apply post-query filters and the data-level filter
      */
-    private List<Map<String, Object>> convertResultsToMap(List<Object[]> results, Report report) {
-        if (results.isEmpty()) {
-            return new ArrayList<>();
-        }
-        List<String> columns = resolveReportColumns(report);
-        List<Map<String, Object>> data = new ArrayList<>();
-        for (Object[] row : results) {
-            Map<String, Object> record = new HashMap<>();
-            for (int i = 0; i < row.length; i++) {
-                String key = (columns != null && i < columns.size()) ? columns.get(i) : "column" + i;
-                record.put(key, row[i]);
-            }
-            data.add(record);
-        }
-        return data;
-    }
-
-    private List<String> resolveReportColumns(Report report) {
-        if (report == null || report.getParameters() == null || report.getParameters().isEmpty()) {
-            return null;
-        }
-        try {
-            Map<String, Object> params = objectMapper.readValue(
-                    report.getParameters(),
-                    new TypeReference<Map<String, Object>>() {});
-            Object columnsObj = params.get("columns");
-            if (columnsObj instanceof List<?> list) {
-                List<String> columns = new ArrayList<>();
-                for (Object item : list) {
-                    if (item != null) {
-                        columns.add(item.toString());
-                    }
-                }
-                return columns.isEmpty() ? null : columns;
-            }
-        } catch (Exception e) {
-            log.warn("Failed to parse report columns for {}", report.getReportCode(), e);
+    private ReportTable applyRowFilters(ReportTable data, Map<String, Object> filters, User user) {
+        if (data.isEmpty()) {
+            return data;
         }
-        return null;
+        Predicate<Object[]> rowFilter = rowFilter(data.schema(), filters, dataFilter.customerIdFilter(user));
+        return rowFilter != null ? data.filter(rowFilter) : data;
     }
 
-    private List<String> resolveFilterKeys(Report report) {
-        if (report == null || report.getParameters() == null || report.getParameters().isEmpty()) {
-            return List.of();
-        }
-        try {
-            Map<String, Object> params = objectMapper.readValue(
-                    report.getParameters(),
-                    new TypeReference<Map<String, Object>>() {});
-            Object filtersObj = params.get("filters");
-            if (filtersObj instanceof List<?> list) {
-                List<String> keys = new ArrayList<>();
-                for (Object item : list) {
-                    if (item instanceof Map<?, ?> filter) {
-                        Object key = filter.get("key");
-                        if (key != null) {
-                            keys.add(key.toString());
-                        }
-                    }
-                }
-                return keys;
-            }
-        } catch (Exception e) {
-            log.warn("Failed to parse report filters for {}", report.getReportCode(), e);
+    /**
+     * Combined row filter with column positions resolved against the schema; null when no row is filtered
+     * Restricted users see no rows of a report without a customer id column.
+     */
+    private Predicate<Object[]> rowFilter(ReportTable.Schema schema, Map<String, Object> filters,
+                                          Predicate<Object> customerIdFilter) {
+        Predicate<Object[]> rowFilter = filters.isEmpty() ? null : ReportTable.equalsFilter(schema, filters);
+        if (customerIdFilter != null) {
+            int customerIdIndex = schema.indexOf(CUSTOMER_ID_FIELD);
+            Predicate<Object[]> accessFilter = row -> customerIdFilter.test(schema.value(row, customerIdIndex));
+            rowFilter = rowFilter != null ? rowFilter.and(accessFilter) : accessFilter;
         }
-        return List.of();
+        return rowFilter;
     }
 
     /**
      * Build metadata for report
      */
-    private Map<String, Object> buildMetadata(Report report) {
+    private Map<String, Object> buildMetadata(CompiledReport report) {
         Map<String, Object> metadata = new HashMap<>();
-        metadata.put("reportType", report.getReportType());
-        metadata.put("category", report.getCategory());
+        metadata.put("reportType", report.reportType());
+        metadata.put("category", report.category());
         metadata.put("generatedAt", new Date());
         return metadata;
     }
 
     /**
-     * Check if user can access report based on access roles
+     * Look up a report the current user may view
      */
-    private boolean canAccessReport(Report report, List<String> userRoles) {
-        if (report.getAccessRoles() == null || report.getAccessRoles().isEmpty()) {
-            return true; // No restriction
-        }
-        
-        try {
-            List<String> accessRoles = objectMapper.readValue(
-                    report.getAccessRoles(), 
-                    new TypeReference<List<String>>() {});
-            
-            // Check if user has any of the required roles
-            return userRoles.stream().anyMatch(accessRoles::contains);
-        } catch (Exception e) {
-            log.error("Error parsing access roles for report {}", report.getReportCode(), e);
-            return false;
+    private CompiledReport getAccessibleReport(Long reportId) {
+        checkViewReportsPermission();
+        if (reportId == null) {
+            throw new IllegalArgumentException("Report ID cannot be null");
         }
-    }
 
-    /**
-     * Convert Report to DTO
-     */
-    private ReportDTO toDTO(Report report) {
-        try {
-            Map<String, Object> parameters = null;
-            if (report.getParameters() != null && !report.getParameters().isEmpty()) {
-                parameters = objectMapper.readValue(
-                        report.getParameters(), 
-                        new TypeReference<Map<String, Object>>() {});
-            }
-            
-            List<String> accessRoles = null;
-            if (report.getAccessRoles() != null && !report.getAccessRoles().isEmpty()) {
-                accessRoles = objectMapper.readValue(
-                        report.getAccessRoles(), 
-                        new TypeReference<List<String>>() {});
-            }
-            
-            return ReportDTO.builder()
-                    .id(report.getId())
-                    .reportCode(report.getReportCode())
-                    .name(report.getName())
-                    .description(report.getDescription())
-                    .reportType(report.getReportType())
-                    .category(report.getCategory())
-                    .parameters(parameters)
-                    .accessRoles(accessRoles)
-                    .active(report.getActive())
-                    .createdBy(report.getCreatedBy() != null ? report.getCreatedBy().getEmployeeId() : null)
-                    .createdAt(report.getCreatedAt())
-                    .updatedAt(report.getUpdatedAt())
-                    .build();
-        } catch (Exception e) {
-            log.error("Error converting report to DTO", e);
-            throw new RuntimeException("Error processing report", e);
+        CompiledReport report = reportRegistry.get(reportId);
+        if (!report.isAccessibleTo(getUserRoles())) {
+            throw new AccessDeniedException("Access denied to this report");
         }
+        return report;
     }
 
     private void checkViewReportsPermission() {
@@ -426,13 +390,15 @@ public class ReportService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
-    private List<String> getUserRoles(User user) {
-        // Get roles from UserPrincipal if available, otherwise query
+    private List<String> getUserRoles() {
+        // Roles come with the authenticated principal; query only when it carries none
         UserPrincipal userPrincipal = getCurrentUserPrincipal();
-        if (userPrincipal != null) {
+        if (userPrincipal == null) {
+            throw new AccessDeniedException("User not authenticated");
+        }
+        if (userPrincipal.getRoles() != null && !userPrincipal.getRoles().isEmpty()) {
             return new ArrayList<>(userPrincipal.getRoles());
         }
-        // Fallback: query roles
-        return userRoleRepository.findRoleCodesByUserId(user.getId());
+        return userRoleRepository.findRoleCodesByUserId(userPrincipal.getUserId());
     }
 }
@@ -0,0 +1,141 @@
+package com.company.ops_hub_api.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scoped KPI Service
+ * Computes the customer, allocation, payment and visit KPIs of one {@link CustomerScope} in a
+ * single grouped statement, so the dashboard and the AI summaries take one round trip instead
+ * of one query per figure. Headline totals of geography scopes come from the daily area rollup.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScopedKpiService {
+
+    private static final String CUSTOMER = "CUSTOMER";
+    private static final String ALLOCATION = "ALLOCATION";
+    private static final String PAYMENT = "PAYMENT";
+    private static final String VISIT = "VISIT";
+
+    private final EntityManager entityManager;
+    private final ReportDataFilter dataFilter;
+    private final AreaRollupService rollupService;
+
+    /** Counts and amounts grouped by status; statuses without rows read as zero. */
+    public record KpiSnapshot(Map<String, Long> customersByStatus,
+                              BigDecimal pendingAmount,
+                              long activeAllocations,
+                              Map<String, Long> paymentsByStatus,
+                              Map<String, BigDecimal> paymentAmountByStatus,
+                              Map<String, Long> visitsByStatus) {
+
+        public long customerCount() {
+            return total(customersByStatus);
+        }
+
+        public long customersWithStatus(String status) {
+            return customersByStatus.getOrDefault(status, 0L);
+        }
+
+        public long paymentCount(String status) {
+            return paymentsByStatus.getOrDefault(status, 0L);
+        }
+
+        public BigDecimal paymentAmount(String status) {
+            return paymentAmountByStatus.getOrDefault(status, BigDecimal.ZERO);
+        }
+
+        public long visitCount() {
+            return total(visitsByStatus);
+        }
+
+        public long visitsWithStatus(String status) {
+            return visitsByStatus.getOrDefault(status, 0L);
+        }
+
+        private static long total(Map<String, Long> counts) {
+            return counts.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public KpiSnapshot snapshot(CustomerScope scope) {
+        Map<String, Object> params = new HashMap<>();
+        String scopeClause = dataFilter.buildScopeClause(scope, "c", params);
+        String sql = "WITH scoped AS (" +
+                "SELECT c.id, c.status, c.pending_amount FROM customers c WHERE 1=1" + scopeClause + ") " +
+                "SELECT '" + CUSTOMER + "', s.status, COUNT(1), SUM(s.pending_amount) " +
+                "FROM scoped s GROUP BY s.status " +
+                "UNION ALL " +
+                "SELECT '" + ALLOCATION + "', NULL, COUNT(1), NULL " +
+                "FROM customer_allocations a JOIN scoped s ON s.id = a.customer_id WHERE a.status = 'ACTIVE' " +
+                "UNION ALL " +
+                "SELECT '" + PAYMENT + "', p.payment_status, COUNT(1), SUM(p.amount) " +
+                "FROM payments p JOIN scoped s ON s.id = p.customer_id GROUP BY p.payment_status " +
+                "UNION ALL " +
+                "SELECT '" + VISIT + "', v.visit_status, COUNT(1), NULL " +
+                "FROM customer_visits v JOIN scoped s ON s.id = v.customer_id GROUP BY v.visit_status";
+        Query query = entityManager.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+
+        Map<String, Long> customersByStatus = new HashMap<>();
+        BigDecimal pendingAmount = BigDecimal.ZERO;
+        long activeAllocations = 0;
+        Map<String, Long> paymentsByStatus = new HashMap<>();
+        Map<String, BigDecimal> paymentAmountByStatus = new HashMap<>();
+        Map<String, Long> visitsByStatus = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        for (Object[] row : rows) {
+            String kind = (String) row[0];
+            String status = row[1] != null ? row[1].toString() : "";
+            long count = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+            BigDecimal amount = toBigDecimal(row[3]);
+            switch (kind) {
+                case CUSTOMER -> {
+                    customersByStatus.merge(status, count, Long::sum);
+                    pendingAmount = pendingAmount.add(amount);
+                }
+                case ALLOCATION -> activeAllocations += count;
+                case PAYMENT -> {
+                    paymentsByStatus.merge(status, count, Long::sum);
+                    paymentAmountByStatus.merge(status, amount, BigDecimal::add);
+                }
+                case VISIT -> visitsByStatus.merge(status, count, Long::sum);
+                default -> { }
+            }
+        }
+        return new KpiSnapshot(Map.copyOf(customersByStatus), pendingAmount, activeAllocations,
+                Map.copyOf(paymentsByStatus), Map.copyOf(paymentAmountByStatus), Map.copyOf(visitsByStatus));
+    }
+
+    /** Headline figures: summed from area rollups for geography scopes, from the fact tables for allocation scopes. */
+    @Transactional(readOnly = true)
+    public AreaRollupService.Totals totals(CustomerScope scope) {
+        if (AreaRollupService.supports(scope)) {
+            return rollupService.totals(scope);
+        }
+        KpiSnapshot kpis = snapshot(scope);
+        return new AreaRollupService.Totals(kpis.customerCount(), kpis.pendingAmount(), kpis.activeAllocations(),
+                kpis.paymentCount("INITIATED"), kpis.paymentCount("SUCCESS"), kpis.paymentCount("FAILED"),
+                kpis.paymentAmount("INITIATED"), kpis.paymentAmount("SUCCESS"),
+                kpis.visitCount(), kpis.visitsWithStatus("COMPLETED"));
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
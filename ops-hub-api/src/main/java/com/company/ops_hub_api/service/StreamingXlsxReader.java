@@ -0,0 +1,109 @@
+package com.company.ops_hub_api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streaming XLSX Reader
+ * Reads the first sheet of a workbook through POI's SAX event model, so only the
+ * current row (plus the shared strings table) is held in memory.
+ */
+@Component
+@Slf4j
+public class StreamingXlsxReader {
+
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * @param rowNumber 1-based sheet row number
+         * @param cells     formatted cell values indexed by column; missing cells are empty strings
+         */
+        void onRow(int rowNumber, List<String> cells);
+    }
+
+    public void read(InputStream input, RowHandler handler) throws Exception {
+        // OPCPackage.open(InputStream) inflates every part in memory; a temp file keeps it on disk.
+        Path tempFile = Files.createTempFile("customer-upload-", ".xlsx");
+        try {
+            Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+                XSSFReader reader = new XSSFReader(pkg);
+                StylesTable styles = reader.getStylesTable();
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return;
+                }
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, new RowCollector(handler), new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (Exception ex) {
+                log.warn("Failed to delete temp upload file {}", tempFile, ex);
+            }
+        }
+    }
+
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private int nextColumn;
+
+        private RowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.onRow(rowNum + 1, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            String value = formattedValue != null ? formattedValue.trim() : "";
+            if (cells.size() == column) {
+                cells.add(value);
+            } else {
+                cells.set(column, value);
+            }
+            nextColumn = column + 1;
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class UserManagementService {
     private final PasswordEncoder passwordEncoder;
     private final EncryptionUtil encryptionUtil;
     private final AuditLogService auditLogService;
+    private final GeographyTreeService geographyTreeService;
 
     @Transactional(readOnly = true)
     public List<UserManagementUserDTO> listUsers() {
@@ -56,7 +57,7 @@ public class UserManagementService {
             if (clusterId == null) {
                 throw new IllegalStateException("Cluster not found for current user");
             }
-            return userRepository.findByAreaZoneCircleClusterId(clusterId).stream()
+            return userRepository.findByClusterId(clusterId).stream()
                     .map(this::toDto)
                     .collect(Collectors.toList());
         }
@@ -213,7 +214,7 @@ public class UserManagementService {
         String currentType = HierarchyUtil.normalizeUserType(currentUser);
         if (HierarchyUtil.CLUSTER_HEAD.equals(currentType)) {
             Long currentClusterId = HierarchyUtil.getClusterId(currentUser);
-            Long areaClusterId = HierarchyUtil.getClusterId(area);
+            Long areaClusterId = HierarchyUtil.getClusterId(geographyTreeService.current(), area.getId());
             if (currentClusterId == null || areaClusterId == null || !currentClusterId.equals(areaClusterId)) {
                 throw new AccessDeniedException("You can only assign users within your cluster");
             }
@@ -0,0 +1,212 @@
+package com.company.ops_hub_api.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable sorted set of entity IDs backed by a primitive array.
+ * IDs that fit in an int (the normal case for sequence-generated keys) are stored in an int[],
+ * so an entry costs 4 bytes instead of the ~50 of a boxed {@code Set<Long>} entry.
+ * Membership is a binary search on primitives; intersections are a linear merge.
+ */
+public final class CompactIdSet {
+
+    public static final CompactIdSet EMPTY = new CompactIdSet(new int[0], null);
+
+    // Exactly one of these is non-null.
+    private final int[] ints;
+    private final long[] longs;
+
+    private CompactIdSet(int[] ints, long[] longs) {
+        this.ints = ints;
+        this.longs = longs;
+    }
+
+    public static CompactIdSet of(Collection<Long> ids) {
+        long[] values = new long[ids.size()];
+        int count = 0;
+        for (Long id : ids) {
+            if (id != null) {
+                values[count++] = id;
+            }
+        }
+        return ofSorted(sortDistinct(values, count));
+    }
+
+    public static CompactIdSet of(long... ids) {
+        return ofSorted(sortDistinct(ids.clone(), ids.length));
+    }
+
+    private static CompactIdSet ofSorted(long[] sorted) {
+        if (sorted.length == 0) {
+            return EMPTY;
+        }
+        if (sorted[0] < 0 || sorted[sorted.length - 1] > Integer.MAX_VALUE) {
+            return new CompactIdSet(null, sorted);
+        }
+        int[] narrowed = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            narrowed[i] = (int) sorted[i];
+        }
+        return new CompactIdSet(narrowed, null);
+    }
+
+    private static long[] sortDistinct(long[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[i] != values[distinct - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct == values.length ? values : Arrays.copyOf(values, distinct);
+    }
+
+    public boolean contains(long id) {
+        if (ints != null) {
+            return id >= 0 && id <= Integer.MAX_VALUE && Arrays.binarySearch(ints, (int) id) >= 0;
+        }
+        return Arrays.binarySearch(longs, id) >= 0;
+    }
+
+    public int size() {
+        return ints != null ? ints.length : longs.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** The i-th smallest ID. */
+    public long get(int index) {
+        return ints != null ? ints[index] : longs[index];
+    }
+
+    public LongStream stream() {
+        return ints != null ? IntStream.of(ints).asLongStream() : LongStream.of(longs);
+    }
+
+    public CompactIdSet intersect(CompactIdSet other) {
+        CompactIdSet small = size() <= other.size() ? this : other;
+        CompactIdSet large = small == this ? other : this;
+        if (small.isEmpty()) {
+            return EMPTY;
+        }
+        long[] result = new long[small.size()];
+        int count = 0;
+        if ((long) small.size() * 16 < large.size()) {
+            // Far smaller side: probe the larger one instead of walking it
+            for (int i = 0; i < small.size(); i++) {
+                long id = small.get(i);
+                if (large.contains(id)) {
+                    result[count++] = id;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.size() && j < large.size()) {
+                long a = small.get(i);
+                long b = large.get(j);
+                if (a == b) {
+                    result[count++] = a;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+        }
+        return ofSorted(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Serialized form: the count, then each ID as a varint delta from the previous one.
+     * Dense ranges of sequence IDs take about one byte per entry. Deltas are unsigned and wrap,
+     * so negative IDs round-trip too (at up to ten bytes for the first).
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size() + 5);
+        writeVarLong(out, size());
+        long previous = 0;
+        for (int i = 0; i < size(); i++) {
+            long id = get(i);
+            writeVarLong(out, id - previous);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    public static CompactIdSet fromByteArray(byte[] bytes) {
+        int[] position = {0};
+        long count = readVarLong(bytes, position);
+        if (count < 0 || count > bytes.length) {
+            throw new IllegalArgumentException("Malformed ID set");
+        }
+        long[] values = new long[(int) count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += readVarLong(bytes, position);
+            if (i > 0 && previous <= values[i - 1]) {
+                throw new IllegalArgumentException("Malformed ID set");
+            }
+            values[i] = previous;
+        }
+        return ofSorted(values);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= bytes.length || shift > 63) {
+                throw new IllegalArgumentException("Malformed ID set");
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactIdSet other) || size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size(); i++) {
+            if (get(i) != other.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return ints != null ? Arrays.hashCode(ints) : Arrays.hashCode(longs);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactIdSet[size=" + size() + "]";
+    }
+}
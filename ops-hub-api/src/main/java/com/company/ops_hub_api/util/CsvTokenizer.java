@@ -0,0 +1,199 @@
+package com.company.ops_hub_api.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV tokenizer.
+ * Reads through a fixed char[] buffer and copies field characters straight into a reusable
+ * {@link Row}, so no per-line String or per-field object is created while tokenizing.
+ * Supports quoted fields with commas, escaped quotes ("") and embedded line breaks,
+ * CRLF/LF/CR record endings and a leading byte order mark.
+ */
+public final class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean started;
+
+    public CsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record into {@code row}, replacing its previous contents.
+     *
+     * @return false once the input is exhausted
+     */
+    public boolean next(Row row) throws IOException {
+        row.clear();
+        boolean consumed = false;
+        boolean quoted = false;
+        while (true) {
+            if (position >= limit && !fill()) {
+                if (!consumed) {
+                    return false;
+                }
+                row.endField();
+                return true;
+            }
+            char c = buffer[position++];
+            consumed = true;
+            if (quoted) {
+                if (c != '"') {
+                    row.append(c);
+                } else if (peek() == '"') {
+                    row.append('"');
+                    position++;
+                } else {
+                    quoted = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case ',' -> row.endField();
+                case '\n' -> {
+                    row.endField();
+                    return true;
+                }
+                case '\r' -> {
+                    if (peek() == '\n') {
+                        position++;
+                    }
+                    row.endField();
+                    return true;
+                }
+                case '"' -> {
+                    if (row.currentFieldIsEmpty()) {
+                        quoted = true;
+                    } else {
+                        row.append(c);
+                    }
+                }
+                default -> row.append(c);
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        if (!started) {
+            started = true;
+            if (buffer[0] == '\uFEFF') {
+                position = 1;
+                return limit > 1 || fill();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reusable record holder. Field characters live in one growable char[] and are only
+     * turned into Strings when a caller asks for a field.
+     */
+    public static final class Row {
+
+        private char[] chars = new char[256];
+        private int length;
+        private int[] ends = new int[16];
+        private int fieldCount;
+        private int fieldStart;
+
+        public int size() {
+            return fieldCount;
+        }
+
+        public String get(int index) {
+            if (index < 0 || index >= fieldCount) {
+                return "";
+            }
+            int start = start(index);
+            return new String(chars, start, ends[index] - start);
+        }
+
+        /** Field value with surrounding whitespace removed; "" for missing columns. */
+        public String getTrimmed(int index) {
+            if (index < 0 || index >= fieldCount) {
+                return "";
+            }
+            int start = start(index);
+            int end = ends[index];
+            while (start < end && chars[start] <= ' ') {
+                start++;
+            }
+            while (end > start && chars[end - 1] <= ' ') {
+                end--;
+            }
+            return start == end ? "" : new String(chars, start, end - start);
+        }
+
+        public boolean isBlank(int index) {
+            if (index < 0 || index >= fieldCount) {
+                return true;
+            }
+            for (int i = start(index); i < ends[index]; i++) {
+                if (chars[i] > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int start(int index) {
+            return index == 0 ? 0 : ends[index - 1];
+        }
+
+        private void clear() {
+            length = 0;
+            fieldCount = 0;
+            fieldStart = 0;
+        }
+
+        private void append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[length++] = c;
+        }
+
+        private boolean currentFieldIsEmpty() {
+            return length == fieldStart;
+        }
+
+        private void endField() {
+            if (fieldCount == ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
+            }
+            ends[fieldCount++] = length;
+            fieldStart = length;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.company.ops_hub_api.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the cluster → circle → zone → area hierarchy, indexed by area id.
+ * Ancestor lookups are a single hash probe and descendant areas are precomputed per node,
+ * so hierarchy checks never navigate lazy JPA associations.
+ */
+public final class GeographyTree {
+
+    public static final GeographyTree EMPTY = new GeographyTree(List.of());
+
+    private final Map<Long, AreaPath> pathsByAreaId;
+    private final Map<Long, CompactIdSet> areasByZoneId;
+    private final Map<Long, CompactIdSet> areasByCircleId;
+    private final Map<Long, CompactIdSet> areasByClusterId;
+
+    /** Ancestors of one area. */
+    public record AreaPath(Long areaId, Long zoneId, Long circleId, Long clusterId) {}
+
+    private GeographyTree(Collection<AreaPath> paths) {
+        Map<Long, AreaPath> byArea = new HashMap<>();
+        Map<Long, List<Long>> byZone = new HashMap<>();
+        Map<Long, List<Long>> byCircle = new HashMap<>();
+        Map<Long, List<Long>> byCluster = new HashMap<>();
+        for (AreaPath path : paths) {
+            if (path.areaId() == null) {
+                continue;
+            }
+            byArea.put(path.areaId(), path);
+            group(byZone, path.zoneId(), path.areaId());
+            group(byCircle, path.circleId(), path.areaId());
+            group(byCluster, path.clusterId(), path.areaId());
+        }
+        this.pathsByAreaId = Map.copyOf(byArea);
+        this.areasByZoneId = compact(byZone);
+        this.areasByCircleId = compact(byCircle);
+        this.areasByClusterId = compact(byCluster);
+    }
+
+    public static GeographyTree of(Collection<AreaPath> paths) {
+        return new GeographyTree(paths);
+    }
+
+    public AreaPath pathOf(Long areaId) {
+        return areaId != null ? pathsByAreaId.get(areaId) : null;
+    }
+
+    public Long zoneOf(Long areaId) {
+        AreaPath path = pathOf(areaId);
+        return path != null ? path.zoneId() : null;
+    }
+
+    public Long circleOf(Long areaId) {
+        AreaPath path = pathOf(areaId);
+        return path != null ? path.circleId() : null;
+    }
+
+    public Long clusterOf(Long areaId) {
+        AreaPath path = pathOf(areaId);
+        return path != null ? path.clusterId() : null;
+    }
+
+    public CompactIdSet areasInZone(Long zoneId) {
+        return descendants(areasByZoneId, zoneId);
+    }
+
+    public CompactIdSet areasInCircle(Long circleId) {
+        return descendants(areasByCircleId, circleId);
+    }
+
+    public CompactIdSet areasInCluster(Long clusterId) {
+        return descendants(areasByClusterId, clusterId);
+    }
+
+    public int areaCount() {
+        return pathsByAreaId.size();
+    }
+
+    private static void group(Map<Long, List<Long>> groups, Long parentId, Long areaId) {
+        if (parentId != null) {
+            groups.computeIfAbsent(parentId, id -> new ArrayList<>()).add(areaId);
+        }
+    }
+
+    private static Map<Long, CompactIdSet> compact(Map<Long, List<Long>> groups) {
+        Map<Long, CompactIdSet> result = new HashMap<>(groups.size() * 2);
+        groups.forEach((parentId, areaIds) -> result.put(parentId, CompactIdSet.of(areaIds)));
+        return Map.copyOf(result);
+    }
+
+    private static CompactIdSet descendants(Map<Long, CompactIdSet> index, Long parentId) {
+        CompactIdSet areas = parentId != null ? index.get(parentId) : null;
+        return areas != null ? areas : CompactIdSet.EMPTY;
+    }
+}
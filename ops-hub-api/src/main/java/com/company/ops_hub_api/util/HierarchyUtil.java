@@ -1,6 +1,7 @@
 package com.company.ops_hub_api.util;
 
 import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.Customer;
 import com.company.ops_hub_api.domain.User;
 
 import java.util.HashMap;
@@ -84,22 +85,27 @@ public final class HierarchyUtil {
         return user != null && user.getArea() != null ? user.getArea().getId() : null;
     }
 
+    // User lookups read the denormalized path columns and only walk the area's lazy
+    // parents for users that have not been synced yet.
     public static Long getZoneId(User user) {
-        return user != null && user.getArea() != null && user.getArea().getZone() != null
-                ? user.getArea().getZone().getId() : null;
+        if (user == null) {
+            return null;
+        }
+        return user.getZoneId() != null ? user.getZoneId() : getZoneId(user.getArea());
     }
 
     public static Long getCircleId(User user) {
-        return user != null && user.getArea() != null && user.getArea().getZone() != null
-                && user.getArea().getZone().getCircle() != null
-                ? user.getArea().getZone().getCircle().getId() : null;
+        if (user == null) {
+            return null;
+        }
+        return user.getCircleId() != null ? user.getCircleId() : getCircleId(user.getArea());
     }
 
     public static Long getClusterId(User user) {
-        return user != null && user.getArea() != null && user.getArea().getZone() != null
-                && user.getArea().getZone().getCircle() != null
-                && user.getArea().getZone().getCircle().getCluster() != null
-                ? user.getArea().getZone().getCircle().getCluster().getId() : null;
+        if (user == null) {
+            return null;
+        }
+        return user.getClusterId() != null ? user.getClusterId() : getClusterId(user.getArea());
     }
 
     public static Long getZoneId(Area area) {
@@ -117,6 +123,24 @@ public final class HierarchyUtil {
                 ? area.getZone().getCircle().getCluster().getId() : null;
     }
 
+    // Area-id lookups against a geography snapshot; these never touch JPA proxies.
+    public static Long getZoneId(GeographyTree geography, Long areaId) {
+        return geography.zoneOf(areaId);
+    }
+
+    public static Long getCircleId(GeographyTree geography, Long areaId) {
+        return geography.circleOf(areaId);
+    }
+
+    public static Long getClusterId(GeographyTree geography, Long areaId) {
+        return geography.clusterOf(areaId);
+    }
+
+    /** Area id of a customer, read from the association's identifier without initializing it. */
+    public static Long getAreaId(Customer customer) {
+        return customer != null && customer.getArea() != null ? customer.getArea().getId() : null;
+    }
+
     public static Map<String, Object> buildGeographyContext(User user) {
         Map<String, Object> geo = new HashMap<>();
         if (user == null || user.getArea() == null) {
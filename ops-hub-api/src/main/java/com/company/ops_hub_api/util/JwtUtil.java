@@ -16,6 +16,10 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    // Marks a short-lived token that can only open the live update stream
+    private static final String PURPOSE_CLAIM = "purpose";
+    private static final String STREAM_TICKET_PURPOSE = "live-stream";
+
     @Value("${app.jwt.secret}")
     private String secret;
 
@@ -63,12 +67,31 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * Ticket for opening the live update stream, which EventSource can only authenticate through
+     * the URL. Short-lived so a ticket leaked from a URL is of little use.
+     */
+    public String generateStreamTicket(String employeeId, String username, long ttlMillis) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("employeeId", employeeId);
+        claims.put(PURPOSE_CLAIM, STREAM_TICKET_PURPOSE);
+        return createToken(claims, username, ttlMillis);
+    }
+
+    public boolean isStreamTicket(String token) {
+        return STREAM_TICKET_PURPOSE.equals(extractClaim(token, claims -> claims.get(PURPOSE_CLAIM, String.class)));
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        return createToken(claims, subject, expiration);
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, long ttlMillis) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .expiration(new Date(System.currentTimeMillis() + ttlMillis))
                 .signWith(getSigningKey())
                 .compact();
     }
@@ -0,0 +1,121 @@
+package com.company.ops_hub_api.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory cache with stale-while-revalidate. An entry is served as-is while fresh; for a further
+ * stale window it is still served, and one background reload replaces it. Only missing or fully
+ * expired entries make the caller wait. Concurrent misses for one key share a single load.
+ * Each value carries a version that changes only when a reload yields a different value, so the
+ * version can back an HTTP ETag.
+ */
+@Slf4j
+public final class RefreshingCache<K, V> {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long freshMillis;
+    private final long staleMillis;
+    private final Executor refreshExecutor;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<Versioned<V>>> loading = new ConcurrentHashMap<>();
+
+    public record Versioned<V>(V value, long version) {}
+
+    private record Entry<V>(Versioned<V> versioned, long loadedAt) {}
+
+    public RefreshingCache(long freshMillis, long staleMillis, Executor refreshExecutor) {
+        this.freshMillis = freshMillis;
+        this.staleMillis = staleMillis;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    public Versioned<V> get(K key, Function<K, V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.loadedAt();
+            if (age < freshMillis) {
+                return entry.versioned();
+            }
+            if (age < freshMillis + staleMillis) {
+                load(key, loader, true);
+                return entry.versioned();
+            }
+        }
+        try {
+            return load(key, loader, false).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /** Removes entries past their stale window, which would only be reloaded on the next request anyway. */
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - freshMillis - staleMillis;
+        entries.values().removeIf(entry -> entry.loadedAt() < cutoff);
+    }
+
+    private CompletableFuture<Versioned<V>> load(K key, Function<K, V> loader, boolean background) {
+        CompletableFuture<Versioned<V>> created = new CompletableFuture<>();
+        CompletableFuture<Versioned<V>> existing = loading.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        Runnable task = () -> {
+            try {
+                long loadedAt = System.currentTimeMillis();
+                V value = loader.apply(key);
+                Entry<V> previous = entries.get(key);
+                Versioned<V> versioned = previous != null && Objects.equals(previous.versioned().value(), value)
+                        ? previous.versioned()
+                        : new Versioned<>(value, VERSIONS.incrementAndGet());
+                entries.put(key, new Entry<>(versioned, loadedAt));
+                created.complete(versioned);
+            } catch (Throwable ex) {
+                if (background) {
+                    log.warn("Background refresh of cache entry {} failed; serving the stale value", key, ex);
+                }
+                created.completeExceptionally(ex);
+            } finally {
+                loading.remove(key, created);
+            }
+        };
+        if (!background) {
+            task.run();
+            return created;
+        }
+        try {
+            refreshExecutor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            // Saturated: keep serving the stale value; a later request retries the refresh
+            loading.remove(key, created);
+        }
+        return created;
+    }
+}
@@ -0,0 +1,196 @@
+package com.company.ops_hub_api.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Columnar report result.
+ * One shared column schema plus a plain {@code Object[]} per row, instead of a map per row that
+ * repeats every column name. Filters work on column indexes resolved once per call, and the
+ * table serializes to the same JSON as a list of row objects ({@code [{"column": value}, ...]})
+ * without materializing any map. Instances are immutable; row arrays must not be modified.
+ */
+@JsonSerialize(using = ReportTable.JsonWriter.class)
+public final class ReportTable {
+
+    private static final ReportTable EMPTY = new ReportTable(Schema.of(List.of()), List.of());
+
+    private final Schema schema;
+    private final List<Object[]> rows;
+
+    /** Column names and their positions, shared by every row and every table derived from it. */
+    public static final class Schema {
+
+        private final List<String> columns;
+        private final Map<String, Integer> positions;
+
+        private Schema(List<String> columns) {
+            this.columns = List.copyOf(columns);
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < this.columns.size(); i++) {
+                positions.putIfAbsent(this.columns.get(i), i);
+            }
+            this.positions = Collections.unmodifiableMap(positions);
+        }
+
+        public static Schema of(List<String> columns) {
+            return new Schema(columns);
+        }
+
+        /**
+         * Schema for rows {@code width} wide: the configured names, then {@code column<i>} for any
+         * position without one.
+         */
+        public static Schema of(List<String> configured, int width) {
+            List<String> columns = new ArrayList<>(width);
+            for (int i = 0; i < width; i++) {
+                columns.add(configured != null && i < configured.size() ? configured.get(i) : "column" + i);
+            }
+            return new Schema(columns);
+        }
+
+        public List<String> columns() {
+            return columns;
+        }
+
+        public int width() {
+            return columns.size();
+        }
+
+        /** Position of a column, or -1 when the report has no such column. */
+        public int indexOf(String column) {
+            Integer position = positions.get(column);
+            return position != null ? position : -1;
+        }
+
+        /** Values at the row's positions; positions past the row's end read as null. */
+        public Object value(Object[] row, int index) {
+            return index >= 0 && index < row.length ? row[index] : null;
+        }
+    }
+
+    private ReportTable(Schema schema, List<Object[]> rows) {
+        this.schema = schema;
+        this.rows = rows;
+    }
+
+    public static ReportTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Wraps query rows. Rows of a single-column query may arrive as bare values and are boxed
+     * into one-element arrays.
+     */
+    public static ReportTable of(List<String> configuredColumns, List<?> results) {
+        if (results.isEmpty()) {
+            return new ReportTable(Schema.of(configuredColumns != null ? configuredColumns : List.of()), List.of());
+        }
+        List<Object[]> rows = new ArrayList<>(results.size());
+        for (Object result : results) {
+            rows.add(result instanceof Object[] values ? values : new Object[]{result});
+        }
+        return new ReportTable(Schema.of(configuredColumns, rows.get(0).length), Collections.unmodifiableList(rows));
+    }
+
+    public Schema schema() {
+        return schema;
+    }
+
+    public List<String> columns() {
+        return schema.columns();
+    }
+
+    public List<Object[]> rows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    public ReportTable filter(Predicate<Object[]> predicate) {
+        List<Object[]> kept = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (predicate.test(row)) {
+                kept.add(row);
+            }
+        }
+        return kept.size() == rows.size() ? this : new ReportTable(schema, Collections.unmodifiableList(kept));
+    }
+
+    public ReportTable limit(int maxRows) {
+        return rows.size() <= maxRows ? this : new ReportTable(schema, rows.subList(0, maxRows));
+    }
+
+    /** One row as a column-to-value map, for the few callers that need named access to a single row. */
+    public Map<String, Object> rowAsMap(int index) {
+        Object[] row = rows.get(index);
+        Map<String, Object> record = new LinkedHashMap<>();
+        for (int i = 0; i < schema.width(); i++) {
+            record.put(schema.columns().get(i), schema.value(row, i));
+        }
+        return record;
+    }
+
+    /**
+     * Rows whose {@code column} equals the given value for every non-null filter; a filter on a
+     * column the report does not have matches nothing, as it did for map rows.
+     */
+    public static Predicate<Object[]> equalsFilter(Schema schema, Map<String, Object> filters) {
+        List<Integer> indexes = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : filters.entrySet()) {
+            if (entry.getValue() != null) {
+                indexes.add(schema.indexOf(entry.getKey()));
+                values.add(entry.getValue());
+            }
+        }
+        return row -> {
+            for (int i = 0; i < indexes.size(); i++) {
+                if (!values.get(i).equals(schema.value(row, indexes.get(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    public static final class JsonWriter extends StdSerializer<ReportTable> {
+
+        public JsonWriter() {
+            super(ReportTable.class);
+        }
+
+        @Override
+        public void serialize(ReportTable table, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            List<String> columns = table.columns();
+            generator.writeStartArray();
+            for (Object[] row : table.rows) {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    generator.writeFieldName(columns.get(i));
+                    provider.defaultSerializeValue(table.schema.value(row, i), generator);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
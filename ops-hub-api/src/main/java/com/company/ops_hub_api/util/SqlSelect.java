@@ -0,0 +1,404 @@
+package com.company.ops_hub_api.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Structural parse of a T-SQL SELECT statement.
+ * Tokenizes the statement (string literals, bracketed and quoted identifiers, comments and
+ * nested parentheses are respected) and locates the clauses of the outermost query, including
+ * the tables and aliases of its FROM clause, so predicates can be added to the right WHERE
+ * clause rather than appended to the text. Tables read by subqueries, derived tables and CTE
+ * bodies are recorded separately; their text is left untouched.
+ * Instances are immutable; the rewriting methods return new SQL text.
+ */
+public final class SqlSelect {
+
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of("SELECT", "FROM", "WHERE", "GROUP", "HAVING",
+            "ORDER", "OPTION", "UNION", "EXCEPT", "INTERSECT", "FOR");
+    private static final Set<String> JOIN_WORDS = Set.of("JOIN", "INNER", "LEFT", "RIGHT", "FULL", "OUTER",
+            "CROSS", "APPLY", "ON");
+    private static final Set<String> NOT_ALIASES = Set.of("JOIN", "INNER", "LEFT", "RIGHT", "FULL", "OUTER",
+            "CROSS", "ON", "WHERE", "GROUP", "HAVING", "ORDER", "OPTION", "UNION", "EXCEPT", "INTERSECT",
+            "WITH", "FOR", "AS");
+
+    private enum Kind { WORD, IDENTIFIER, LITERAL, SYMBOL, PARAMETER }
+
+    private record Token(Kind kind, String text, int start, int end, int depth) {
+
+        boolean isWord(String word) {
+            return kind == Kind.WORD && text.equalsIgnoreCase(word);
+        }
+
+        String name() {
+            return kind == Kind.IDENTIFIER ? text.substring(1, text.length() - 1) : text;
+        }
+    }
+
+    /** A table in the outermost FROM clause, with its alias (the table name when it has none); derived tables have an empty name. */
+    public record TableRef(String table, String alias) {}
+
+    private final String sql;
+    private final int selectStart;     // Offset of the outermost SELECT keyword, after any WITH clause
+    private final int whereStart;      // Offset of the WHERE keyword, or -1
+    private final int whereBodyStart;  // First character after WHERE, or -1
+    private final int whereEnd;        // End of the WHERE condition, or of FROM when there is none
+    private final int orderByStart;    // Offset of the outermost ORDER BY, or sql.length()
+    private final List<TableRef> tables;
+    private final List<TableRef> nestedTables; // FROM clauses of subqueries, derived tables and CTEs
+
+    private SqlSelect(String sql, int selectStart, int whereStart, int whereBodyStart, int whereEnd, int orderByStart,
+                      List<TableRef> tables, List<TableRef> nestedTables) {
+        this.sql = sql;
+        this.selectStart = selectStart;
+        this.whereStart = whereStart;
+        this.whereBodyStart = whereBodyStart;
+        this.whereEnd = whereEnd;
+        this.orderByStart = orderByStart;
+        this.tables = tables;
+        this.nestedTables = nestedTables;
+    }
+
+    /**
+     * Parses a single SELECT (optionally preceded by a WITH clause).
+     *
+     * @throws IllegalArgumentException if the text is not a single SELECT statement, or the outer
+     *         query is a UNION/EXCEPT/INTERSECT
+     */
+    public static SqlSelect parse(String sql) {
+        List<Token> tokens = tokenize(sql);
+        int select = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.depth() == 0 && token.isWord("SELECT")) {
+                select = i;
+                break;
+            }
+        }
+        if (select < 0) {
+            throw new IllegalArgumentException("Not a SELECT statement");
+        }
+
+        // Outer-query clause keywords, in order
+        List<Integer> clauses = new ArrayList<>();
+        for (int i = select + 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.depth() != 0) {
+                continue;
+            }
+            if (token.kind() == Kind.SYMBOL && token.text().equals(";") && i != tokens.size() - 1) {
+                throw new IllegalArgumentException("Multiple statements are not supported");
+            }
+            if (token.kind() != Kind.WORD || !CLAUSE_KEYWORDS.contains(token.text().toUpperCase(Locale.ROOT))) {
+                continue;
+            }
+            switch (token.text().toUpperCase(Locale.ROOT)) {
+                case "UNION", "EXCEPT", "INTERSECT" ->
+                        throw new IllegalArgumentException("Set operations are not supported");
+                case "SELECT" -> throw new IllegalArgumentException("Multiple statements are not supported");
+                case "ORDER" -> {
+                    if (isFollowedBy(tokens, i, "BY")) {
+                        clauses.add(i);
+                    }
+                }
+                default -> clauses.add(i);
+            }
+        }
+
+        int from = -1;
+        int where = -1;
+        int afterWhere = -1;
+        int orderBy = -1;
+        for (int index : clauses) {
+            String word = tokens.get(index).text().toUpperCase(Locale.ROOT);
+            if (from < 0) {
+                if (word.equals("FROM")) {
+                    from = index;
+                }
+            } else if (word.equals("WHERE") && where < 0 && afterWhere < 0) {
+                where = index;
+            } else if (afterWhere < 0) {
+                // GROUP BY, HAVING, ORDER BY, OPTION or FOR ends the FROM/WHERE section
+                afterWhere = index;
+            }
+            if (from >= 0 && word.equals("ORDER")) {
+                orderBy = index;
+            }
+        }
+        if (from < 0) {
+            throw new IllegalArgumentException("SELECT without FROM cannot be scoped");
+        }
+
+        int end = trailingEnd(sql, tokens);
+        int orderByStart = orderBy >= 0 ? tokens.get(orderBy).start() : end;
+        int whereEnd = afterWhere >= 0 ? tokens.get(afterWhere).start() : end;
+        int whereStart = where >= 0 ? tokens.get(where).start() : -1;
+        int whereBodyStart = where >= 0 ? tokens.get(where).end() : -1;
+        int fromEnd = where >= 0 ? where : afterWhere >= 0 ? afterWhere : tokens.size();
+        List<TableRef> tables = tables(tokens, from + 1, fromEnd, 0);
+        List<TableRef> nestedTables = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (i != from && token.isWord("FROM")) {
+                nestedTables.addAll(tables(tokens, i + 1, nestedFromEnd(tokens, i), token.depth()));
+            }
+        }
+        return new SqlSelect(sql, tokens.get(select).start(), whereStart, whereBodyStart, whereEnd, orderByStart, tables,
+                Collections.unmodifiableList(nestedTables));
+    }
+
+    /** Tables of the outermost FROM clause, in order. */
+    public List<TableRef> tables() {
+        return tables;
+    }
+
+    /** Aliases of every outer table named {@code table} (case-insensitive, schema ignored), in order. */
+    public List<String> aliasesOf(String table) {
+        List<String> aliases = new ArrayList<>();
+        for (TableRef ref : tables) {
+            if (isNamed(ref, table)) {
+                aliases.add(ref.alias());
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * Whether a subquery, derived table or CTE body reads {@code table}. Predicates added to the
+     * outer WHERE clause do not reach those reads.
+     */
+    public boolean readsInSubquery(String table) {
+        for (TableRef ref : nestedTables) {
+            if (isNamed(ref, table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The WITH clause before the outermost SELECT, or an empty string. */
+    public String withClause() {
+        return sql.substring(0, selectStart).strip();
+    }
+
+    /** The statement from its outermost SELECT on, without the WITH clause; a CTE may not be nested in a derived table. */
+    public String withoutWithClause() {
+        return sql.substring(selectStart);
+    }
+
+    /** The statement without its outermost ORDER BY. */
+    public String withoutOrderBy() {
+        return sql.substring(0, orderByStart).stripTrailing();
+    }
+
+    /** The outermost ORDER BY clause (with a leading newline), or an empty string. */
+    public String orderBy() {
+        String clause = sql.substring(orderByStart).strip();
+        return clause.isEmpty() ? "" : "\n" + clause;
+    }
+
+    /**
+     * Adds {@code predicate} to the outermost WHERE clause with AND, parenthesizing the existing
+     * condition, or adds a WHERE clause after FROM when there is none.
+     */
+    public String withPredicate(String predicate) {
+        if (whereStart >= 0) {
+            String condition = sql.substring(whereBodyStart, whereEnd).strip();
+            return sql.substring(0, whereBodyStart) + " (" + condition + ")\n  AND " + predicate + "\n"
+                    + sql.substring(whereEnd);
+        }
+        return sql.substring(0, whereEnd).stripTrailing() + "\nWHERE " + predicate + "\n" + sql.substring(whereEnd);
+    }
+
+    private static boolean isNamed(TableRef ref, String table) {
+        String name = ref.table();
+        int dot = name.lastIndexOf('.');
+        return (dot >= 0 ? name.substring(dot + 1) : name).equalsIgnoreCase(table);
+    }
+
+    // End of a nested FROM clause: its query's next clause keyword, or the parenthesis closing the query
+    private static int nestedFromEnd(List<Token> tokens, int from) {
+        int depth = tokens.get(from).depth();
+        for (int i = from + 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.depth() < depth) {
+                return i;
+            }
+            if (token.depth() == depth && token.kind() == Kind.WORD
+                    && CLAUSE_KEYWORDS.contains(token.text().toUpperCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return tokens.size();
+    }
+
+    private static boolean isFollowedBy(List<Token> tokens, int index, String word) {
+        return index + 1 < tokens.size() && tokens.get(index + 1).isWord(word);
+    }
+
+    // End of the statement, before a trailing semicolon
+    private static int trailingEnd(String sql, List<Token> tokens) {
+        if (!tokens.isEmpty()) {
+            Token last = tokens.get(tokens.size() - 1);
+            if (last.kind() == Kind.SYMBOL && last.text().equals(";")) {
+                return last.start();
+            }
+        }
+        return sql.length();
+    }
+
+    private static List<TableRef> tables(List<Token> tokens, int from, int to, int depth) {
+        List<TableRef> tables = new ArrayList<>();
+        boolean expectTable = true;
+        for (int i = from; i < to; i++) {
+            Token token = tokens.get(i);
+            if (token.depth() != depth) {
+                continue;
+            }
+            if (token.kind() == Kind.SYMBOL && token.text().equals(",")) {
+                expectTable = true;
+                continue;
+            }
+            if (expectTable && token.kind() == Kind.SYMBOL && token.text().equals("(")) {
+                // Derived table: skip its body and record only the alias
+                int next = i + 1;
+                while (next < to && tokens.get(next).depth() > depth) {
+                    next++;
+                }
+                next++;
+                if (next < to && tokens.get(next).isWord("AS")) {
+                    next++;
+                }
+                if (next < to && isAlias(tokens.get(next), depth)) {
+                    tables.add(new TableRef("", tokens.get(next).name()));
+                    i = next;
+                } else {
+                    i = next - 1;
+                }
+                expectTable = false;
+                continue;
+            }
+            if (token.kind() == Kind.WORD && JOIN_WORDS.contains(token.text().toUpperCase(Locale.ROOT))) {
+                String word = token.text().toUpperCase(Locale.ROOT);
+                if (word.equals("JOIN") || word.equals("APPLY")) {
+                    expectTable = true;
+                } else if (word.equals("ON")) {
+                    expectTable = false;
+                }
+                continue;
+            }
+            if (!expectTable || token.kind() != Kind.WORD && token.kind() != Kind.IDENTIFIER) {
+                continue;
+            }
+            // Possibly schema-qualified name: a.b.c
+            StringBuilder name = new StringBuilder(token.name());
+            while (i + 2 < to && tokens.get(i + 1).text().equals(".")
+                    && (tokens.get(i + 2).kind() == Kind.WORD || tokens.get(i + 2).kind() == Kind.IDENTIFIER)) {
+                name.append('.').append(tokens.get(i + 2).name());
+                i += 2;
+            }
+            String alias = null;
+            int next = i + 1;
+            if (next < to && tokens.get(next).isWord("AS")) {
+                next++;
+            }
+            if (next < to && isAlias(tokens.get(next), depth)) {
+                alias = tokens.get(next).name();
+                i = next;
+            }
+            tables.add(new TableRef(name.toString(), alias != null ? alias : name.toString()));
+            expectTable = false;
+        }
+        return Collections.unmodifiableList(tables);
+    }
+
+    private static boolean isAlias(Token token, int depth) {
+        return token.depth() == depth && (token.kind() == Kind.IDENTIFIER
+                || token.kind() == Kind.WORD && !NOT_ALIASES.contains(token.text().toUpperCase(Locale.ROOT)));
+    }
+
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int newline = sql.indexOf('\n', i);
+                i = newline < 0 ? length : newline + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int close = sql.indexOf("*/", i + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unterminated comment");
+                }
+                i = close + 2;
+            } else if (c == '\'' || c == 'N' && i + 1 < length && sql.charAt(i + 1) == '\'') {
+                i = closeQuoted(sql, c == 'N' ? i + 1 : i, '\'');
+                tokens.add(new Token(Kind.LITERAL, sql.substring(start, i), start, i, depth));
+            } else if (c == '[' || c == '"') {
+                i = closeQuoted(sql, i, c == '[' ? ']' : '"');
+                tokens.add(new Token(Kind.IDENTIFIER, sql.substring(start, i), start, i, depth));
+            } else if (c == '(') {
+                tokens.add(new Token(Kind.SYMBOL, "(", start, ++i, depth++));
+            } else if (c == ')') {
+                if (--depth < 0) {
+                    throw new IllegalArgumentException("Unbalanced parentheses");
+                }
+                tokens.add(new Token(Kind.SYMBOL, ")", start, ++i, depth));
+            } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(sql.charAt(i + 1))) {
+                i++;
+                while (i < length && Character.isJavaIdentifierPart(sql.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(Kind.PARAMETER, sql.substring(start, i), start, i, depth));
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '@' || c == '#') {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+                        || sql.charAt(i) == '@' || sql.charAt(i) == '#' || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                tokens.add(new Token(Kind.WORD, sql.substring(start, i), start, i, depth));
+            } else {
+                tokens.add(new Token(Kind.SYMBOL, String.valueOf(c), start, ++i, depth));
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Unbalanced parentheses");
+        }
+        return tokens;
+    }
+
+    // Index after the closing quote; doubled quotes are escapes
+    private static int closeQuoted(String sql, int open, char quote) {
+        int i = open + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        throw new IllegalArgumentException("Unterminated quoted text");
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Object> parts = new LinkedHashMap<>();
+        parts.put("tables", tables);
+        parts.put("nestedTables", nestedTables);
+        parts.put("where", whereStart >= 0);
+        parts.put("orderBy", orderByStart < sql.length());
+        return "SqlSelect" + parts;
+    }
+}
@@ -0,0 +1,47 @@
+-- ============================================================
+-- Ops Hub - Denormalized geography path on customers and users
+-- MS SQL Server
+-- ============================================================
+-- Scope filters read zone_id, circle_id and cluster_id from the row itself instead of joining
+-- areas -> zones -> circles -> clusters. The application keeps them in sync on write and after
+-- any area/zone/circle edit; this script adds the columns and indexes to an existing database
+-- and backfills them. Safe to re-run.
+
+IF COL_LENGTH('customers', 'zone_id') IS NULL
+    ALTER TABLE customers ADD zone_id BIGINT NULL, circle_id BIGINT NULL, cluster_id BIGINT NULL;
+
+IF COL_LENGTH('users', 'zone_id') IS NULL
+    ALTER TABLE users ADD zone_id BIGINT NULL, circle_id BIGINT NULL, cluster_id BIGINT NULL;
+GO
+
+UPDATE t SET t.zone_id = z.id, t.circle_id = ci.id, t.cluster_id = ci.cluster_id
+FROM customers t
+JOIN areas a ON a.id = t.area_id
+JOIN zones z ON z.id = a.zone_id
+JOIN circles ci ON ci.id = z.circle_id
+WHERE t.zone_id IS NULL OR t.zone_id <> z.id
+   OR t.circle_id IS NULL OR t.circle_id <> ci.id
+   OR t.cluster_id IS NULL OR t.cluster_id <> ci.cluster_id;
+
+UPDATE t SET t.zone_id = z.id, t.circle_id = ci.id, t.cluster_id = ci.cluster_id
+FROM users t
+JOIN areas a ON a.id = t.area_id
+JOIN zones z ON z.id = a.zone_id
+JOIN circles ci ON ci.id = z.circle_id
+WHERE t.zone_id IS NULL OR t.zone_id <> z.id
+   OR t.circle_id IS NULL OR t.circle_id <> ci.id
+   OR t.cluster_id IS NULL OR t.cluster_id <> ci.cluster_id;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_customers_zone_status')
+    CREATE INDEX idx_customers_zone_status ON customers(zone_id, status);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_customers_circle_status')
+    CREATE INDEX idx_customers_circle_status ON customers(circle_id, status);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_customers_cluster_status')
+    CREATE INDEX idx_customers_cluster_status ON customers(cluster_id, status);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_zone_user_type')
+    CREATE INDEX idx_users_zone_user_type ON users(zone_id, user_type);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_circle_user_type')
+    CREATE INDEX idx_users_circle_user_type ON users(circle_id, user_type);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_cluster_user_type')
+    CREATE INDEX idx_users_cluster_user_type ON users(cluster_id, user_type);
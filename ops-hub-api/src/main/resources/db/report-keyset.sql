@@ -0,0 +1,13 @@
+-- ============================================================
+-- Ops Hub - Indexes for keyset-paged report data
+-- MS SQL Server
+-- ============================================================
+-- Report pages seek past the last row of the previous page in the report's default order
+-- (newest first, ties broken by id). These indexes match that order so any page is a short
+-- range scan. Safe to re-run.
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_customers_created_at_id')
+    CREATE INDEX idx_customers_created_at_id ON customers(created_at DESC, id DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_customer_allocations_status_allocated_at')
+    CREATE INDEX idx_customer_allocations_status_allocated_at ON customer_allocations(status, allocated_at DESC, id DESC);
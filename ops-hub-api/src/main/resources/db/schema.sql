@@ -145,8 +145,13 @@ CREATE INDEX idx_profile_update_requests_status ON profile_update_requests(statu
 -- ============================================================
 
 -- Customers table
+-- High-volume tables take ids from a sequence in blocks of 50 (Hibernate pooled-lo) so inserts batch.
+-- The id default serves plain SQL inserts; each value it draws starts a fresh block, so it cannot
+-- collide with ids Hibernate hands out. Existing databases with IDENTITY ids are converted by sequence-ids.sql.
+CREATE SEQUENCE customers_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE customers (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT (NEXT VALUE FOR customers_seq),
     customer_code NVARCHAR(50) NOT NULL UNIQUE,
     first_name NVARCHAR(100) NOT NULL,
     last_name NVARCHAR(100),
@@ -161,6 +166,9 @@ CREATE TABLE customers (
     postal_code NVARCHAR(20),
     country NVARCHAR(100),
     area_id BIGINT,
+    zone_id BIGINT, -- denormalized from area_id
+    circle_id BIGINT, -- denormalized from area_id
+    cluster_id BIGINT, -- denormalized from area_id
     status NVARCHAR(50) NOT NULL DEFAULT 'ACTIVE', -- ACTIVE, INACTIVE, SUSPENDED
     notes NVARCHAR(2000),
     created_by BIGINT,
@@ -173,6 +181,10 @@ CREATE TABLE customers (
 CREATE INDEX idx_customers_customer_code ON customers(customer_code);
 CREATE INDEX idx_customers_area_id ON customers(area_id);
 CREATE INDEX idx_customers_status ON customers(status);
+CREATE INDEX idx_customers_zone_status ON customers(zone_id, status);
+CREATE INDEX idx_customers_circle_status ON customers(circle_id, status);
+CREATE INDEX idx_customers_cluster_status ON customers(cluster_id, status);
+CREATE INDEX idx_customers_created_at_id ON customers(created_at DESC, id DESC);
 
 -- Customer Uploads table
 CREATE TABLE customer_uploads (
@@ -183,11 +195,15 @@ CREATE TABLE customer_uploads (
     total_rows INT NOT NULL DEFAULT 0,
     successful_rows INT NOT NULL DEFAULT 0,
     failed_rows INT NOT NULL DEFAULT 0,
+    processed_rows INT NOT NULL DEFAULT 0,
+    current_chunk INT NOT NULL DEFAULT 0,
     upload_status NVARCHAR(50) NOT NULL DEFAULT 'PENDING', -- PENDING, PROCESSING, COMPLETED, FAILED
     uploaded_by BIGINT NOT NULL,
     uploaded_at DATETIME2 NOT NULL DEFAULT GETUTCDATE(),
     processed_at DATETIME2,
     error_summary NVARCHAR(MAX),
+    lease_owner NVARCHAR(200), -- Instance processing the upload; others leave it alone until the lease expires
+    lease_expires_at DATETIME2,
     FOREIGN KEY (uploaded_by) REFERENCES users(id)
 );
 
@@ -195,8 +211,10 @@ CREATE INDEX idx_customer_uploads_uploaded_by ON customer_uploads(uploaded_by);
 CREATE INDEX idx_customer_uploads_upload_status ON customer_uploads(upload_status);
 
 -- Customer Upload Errors table
+CREATE SEQUENCE customer_upload_errors_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE customer_upload_errors (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT (NEXT VALUE FOR customer_upload_errors_seq),
     upload_id BIGINT NOT NULL,
     row_number INT NOT NULL,
     column_name NVARCHAR(100),
@@ -214,8 +232,10 @@ CREATE INDEX idx_customer_upload_errors_upload_id ON customer_upload_errors(uplo
 -- ============================================================
 
 -- Customer Allocations table
+CREATE SEQUENCE customer_allocations_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE customer_allocations (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT (NEXT VALUE FOR customer_allocations_seq),
     customer_id BIGINT NOT NULL,
     user_id BIGINT NOT NULL,
     role_code NVARCHAR(50) NOT NULL,
@@ -226,14 +246,19 @@ CREATE TABLE customer_allocations (
     deallocated_at DATETIME2,
     deallocation_reason NVARCHAR(500),
     notes NVARCHAR(1000),
+    upload_id BIGINT, -- Customer upload that made the allocation, if any
     FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    FOREIGN KEY (allocated_by) REFERENCES users(id)
+    FOREIGN KEY (allocated_by) REFERENCES users(id),
+    FOREIGN KEY (upload_id) REFERENCES customer_uploads(id)
 );
 
 CREATE INDEX idx_customer_allocations_customer_id ON customer_allocations(customer_id);
 CREATE INDEX idx_customer_allocations_user_id ON customer_allocations(user_id);
 CREATE INDEX idx_customer_allocations_status ON customer_allocations(status);
+CREATE INDEX idx_customer_allocations_user_customer_status ON customer_allocations(user_id, customer_id, status);
+CREATE INDEX idx_customer_allocations_status_allocated_at ON customer_allocations(status, allocated_at DESC, id DESC);
+CREATE INDEX idx_customer_allocations_upload_id ON customer_allocations(upload_id);
 
 -- ============================================================
 -- SECTION 5: Field Visit & Review System
@@ -333,6 +358,39 @@ CREATE TABLE payment_events (
 CREATE INDEX idx_payment_events_payment_id ON payment_events(payment_id);
 CREATE INDEX idx_payment_events_event_type ON payment_events(event_type);
 
+-- Area Daily Stats table
+-- Per-area, per-day rollup of the customer, allocation, payment and visit facts, bucketed by each
+-- fact's own date (customer/payment created_at, visit_date, allocated_at) and reflecting its current
+-- state. AreaRollupService recomputes the buckets queued in area_rollup_queue and rebuilds date ranges.
+-- area_id 0 collects customers without an area.
+CREATE TABLE area_daily_stats (
+    area_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    customers_created BIGINT NOT NULL DEFAULT 0,
+    pending_amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    allocations_active BIGINT NOT NULL DEFAULT 0,
+    payments_initiated BIGINT NOT NULL DEFAULT 0,
+    payments_success BIGINT NOT NULL DEFAULT 0,
+    payments_failed BIGINT NOT NULL DEFAULT 0,
+    amount_initiated DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    amount_collected DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    visits_total BIGINT NOT NULL DEFAULT 0,
+    visits_completed BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME2 NOT NULL DEFAULT GETUTCDATE(),
+    PRIMARY KEY (area_id, stat_date)
+);
+
+CREATE INDEX idx_area_daily_stats_stat_date ON area_daily_stats(stat_date);
+
+-- Area Rollup Queue table
+-- Buckets touched by committed writes, inserted by AreaRollupListener in the writing transaction and
+-- deleted by AreaRollupService once recomputed.
+CREATE TABLE area_rollup_queue (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    area_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL
+);
+
 -- ============================================================
 -- SECTION 7: Automated Email System
 -- ============================================================
@@ -472,8 +530,10 @@ CREATE INDEX idx_report_exports_export_status ON report_exports(export_status);
 -- ============================================================
 
 -- Audit Logs table
+CREATE SEQUENCE audit_logs_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE audit_logs (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT (NEXT VALUE FOR audit_logs_seq),
     user_id BIGINT,
     action_type NVARCHAR(100) NOT NULL, -- CREATE, UPDATE, DELETE, LOGIN, LOGOUT, EXPORT
     entity_type NVARCHAR(100) NOT NULL, -- USER, CUSTOMER, PAYMENT, etc.
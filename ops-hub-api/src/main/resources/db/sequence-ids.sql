@@ -0,0 +1,99 @@
+-- ============================================================
+-- Ops Hub - Convert high-volume tables from IDENTITY to sequence ids
+-- MS SQL Server
+-- ============================================================
+-- Hibernate cannot batch inserts into IDENTITY tables, so these entities now take ids from
+-- <table>_seq in blocks of 50. Run once against an existing database with the application
+-- stopped, before starting the version that maps them with @SequenceGenerator.
+-- Each sequence starts after the table's current MAX(id), and the id column defaults to the next
+-- sequence value so plain SQL inserts (seed scripts, manual fixes) keep working. Safe to re-run.
+
+DECLARE @tables TABLE (table_name SYSNAME, sequence_name SYSNAME);
+INSERT INTO @tables (table_name, sequence_name) VALUES
+    ('customers', 'customers_seq'),
+    ('customer_allocations', 'customer_allocations_seq'),
+    ('customer_upload_errors', 'customer_upload_errors_seq'),
+    ('audit_logs', 'audit_logs_seq'),
+    ('app_notifications', 'app_notifications_seq');
+
+DECLARE @table SYSNAME, @sequence SYSNAME, @pk SYSNAME, @sql NVARCHAR(MAX),
+        @dropFks NVARCHAR(MAX), @addFks NVARCHAR(MAX), @next BIGINT;
+
+DECLARE table_cursor CURSOR LOCAL FAST_FORWARD FOR
+    SELECT table_name, sequence_name FROM @tables;
+OPEN table_cursor;
+FETCH NEXT FROM table_cursor INTO @table, @sequence;
+
+WHILE @@FETCH_STATUS = 0
+BEGIN
+    IF OBJECT_ID(@table, 'U') IS NOT NULL
+    BEGIN
+        BEGIN TRANSACTION;
+
+        IF COLUMNPROPERTY(OBJECT_ID(@table), 'id', 'IsIdentity') = 1
+        BEGIN
+            -- Foreign keys pointing at the id column must be dropped while it is replaced.
+            SELECT @dropFks = N'', @addFks = N'';
+            SELECT @dropFks += N'ALTER TABLE ' + QUOTENAME(OBJECT_NAME(fk.parent_object_id))
+                       + N' DROP CONSTRAINT ' + QUOTENAME(fk.name) + N';',
+                   @addFks += N'ALTER TABLE ' + QUOTENAME(OBJECT_NAME(fk.parent_object_id))
+                       + N' ADD CONSTRAINT ' + QUOTENAME(fk.name)
+                       + N' FOREIGN KEY (' + QUOTENAME(COL_NAME(fkc.parent_object_id, fkc.parent_column_id)) + N')'
+                       + N' REFERENCES ' + QUOTENAME(@table) + N'(id)'
+                       + CASE fk.delete_referential_action
+                             WHEN 1 THEN N' ON DELETE CASCADE'
+                             WHEN 2 THEN N' ON DELETE SET NULL'
+                             ELSE N'' END + N';'
+            FROM sys.foreign_keys fk
+            JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id
+            WHERE fk.referenced_object_id = OBJECT_ID(@table);
+
+            SELECT @pk = name FROM sys.key_constraints
+            WHERE parent_object_id = OBJECT_ID(@table) AND type = 'PK';
+
+            EXEC sp_executesql @dropFks;
+
+            SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' DROP CONSTRAINT ' + QUOTENAME(@pk) + N';'
+                     + N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD id_new BIGINT NULL;';
+            EXEC sp_executesql @sql;
+
+            SET @sql = N'UPDATE ' + QUOTENAME(@table) + N' SET id_new = id;'
+                     + N'ALTER TABLE ' + QUOTENAME(@table) + N' DROP COLUMN id;';
+            EXEC sp_executesql @sql;
+
+            SET @sql = @table + N'.id_new';
+            EXEC sp_rename @sql, N'id', N'COLUMN';
+
+            SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ALTER COLUMN id BIGINT NOT NULL;';
+            EXEC sp_executesql @sql;
+            SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD CONSTRAINT ' + QUOTENAME(@pk) + N' PRIMARY KEY (id);';
+            EXEC sp_executesql @sql;
+
+            EXEC sp_executesql @addFks;
+        END
+
+        IF OBJECT_ID(@sequence, 'SO') IS NULL
+        BEGIN
+            SET @sql = N'SELECT @next = ISNULL(MAX(id), 0) + 1 FROM ' + QUOTENAME(@table) + N';';
+            EXEC sp_executesql @sql, N'@next BIGINT OUTPUT', @next = @next OUTPUT;
+            SET @sql = N'CREATE SEQUENCE ' + QUOTENAME(@sequence)
+                     + N' START WITH ' + CAST(@next AS NVARCHAR(20)) + N' INCREMENT BY 50;';
+            EXEC sp_executesql @sql;
+        END
+
+        IF NOT EXISTS (SELECT 1 FROM sys.columns
+                       WHERE object_id = OBJECT_ID(@table) AND name = 'id' AND default_object_id <> 0)
+        BEGIN
+            SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD CONSTRAINT ' + QUOTENAME(N'DF_' + @table + N'_id')
+                     + N' DEFAULT (NEXT VALUE FOR ' + QUOTENAME(@sequence) + N') FOR id;';
+            EXEC sp_executesql @sql;
+        END
+
+        COMMIT TRANSACTION;
+    END
+
+    FETCH NEXT FROM table_cursor INTO @table, @sequence;
+END
+
+CLOSE table_cursor;
+DEALLOCATE table_cursor;
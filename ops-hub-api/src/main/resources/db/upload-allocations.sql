@@ -0,0 +1,16 @@
+-- ============================================================
+-- Ops Hub - Link upload allocations to their customer upload
+-- MS SQL Server
+-- ============================================================
+-- Area-head allocations made by a customer upload record the upload's id, and the upload job
+-- builds its once-per-upload assignment digest from them, so chunks committed before a restart
+-- are still notified. This script adds the column and index to an existing database; earlier
+-- allocations keep a NULL upload_id. Safe to re-run.
+
+IF COL_LENGTH('customer_allocations', 'upload_id') IS NULL
+    ALTER TABLE customer_allocations ADD upload_id BIGINT NULL
+        CONSTRAINT fk_customer_allocations_upload_id REFERENCES customer_uploads(id);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_customer_allocations_upload_id')
+    CREATE INDEX idx_customer_allocations_upload_id ON customer_allocations(upload_id);
@@ -0,0 +1,22 @@
+package com.company.ops_hub_api;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.MSSQLServerContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Disposable SQL Server for tests that write data. Hibernate creates the schema in the container,
+ * so these tests never touch the configured database. Requires Docker.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class TestcontainersConfiguration {
+
+    @Bean
+    @ServiceConnection
+    MSSQLServerContainer<?> sqlServerContainer() {
+        return new MSSQLServerContainer<>(DockerImageName.parse("mcr.microsoft.com/mssql/server:2022-latest"))
+                .acceptLicense();
+    }
+}
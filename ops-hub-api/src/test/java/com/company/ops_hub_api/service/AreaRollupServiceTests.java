@@ -0,0 +1,120 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.TestcontainersConfiguration;
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.Customer;
+import com.company.ops_hub_api.domain.Payment;
+import com.company.ops_hub_api.repository.AreaRepository;
+import com.company.ops_hub_api.repository.CustomerRepository;
+import com.company.ops_hub_api.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class AreaRollupServiceTests {
+
+    @Autowired
+    private AreaRollupService rollupService;
+
+    @Autowired
+    private AreaRepository areaRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void movingCustomerRebucketsItsOldFacts() {
+        List<Area> areas = new TestGeography(entityManager, transactionTemplate).areas(2);
+        Long fromArea = areas.get(0).getId();
+        Long toArea = areas.get(1).getId();
+        String code = "ROLLUP-" + UUID.randomUUID().toString().substring(0, 8);
+
+        Long customerId = transactionTemplate.execute(status -> {
+            Customer customer = new Customer();
+            customer.setCustomerCode(code);
+            customer.setFirstName("Rollup");
+            customer.setPhoneEncrypted("rollup-test");
+            customer.setPendingAmount(new BigDecimal("100.00"));
+            customer.setArea(areaRepository.getReferenceById(fromArea));
+            customerRepository.save(customer);
+
+            Payment payment = new Payment();
+            payment.setPaymentReference(code);
+            payment.setCustomer(customer);
+            payment.setAmount(new BigDecimal("250.00"));
+            payment.setPaymentMethod("CASH");
+            payment.setPaymentStatus("SUCCESS");
+            paymentRepository.save(payment);
+            return customer.getId();
+        });
+        try {
+            // Backdate the facts well outside the repair window, then start from an exact rollup
+            LocalDateTime old = LocalDateTime.now().minusDays(90);
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.createNativeQuery("UPDATE customers SET created_at = :old WHERE id = :id")
+                        .setParameter("old", old).setParameter("id", customerId).executeUpdate();
+                entityManager.createNativeQuery("UPDATE payments SET created_at = :old WHERE customer_id = :id")
+                        .setParameter("old", old).setParameter("id", customerId).executeUpdate();
+            });
+            rollupService.rebuild(old.toLocalDate(), old.toLocalDate());
+            drain();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                Customer customer = customerRepository.findById(customerId).orElseThrow();
+                customer.setArea(areaRepository.getReferenceById(toArea));
+            });
+            drain();
+
+            assertMatchesFacts(fromArea);
+            assertMatchesFacts(toArea);
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    customerRepository.delete(customerRepository.findById(customerId).orElseThrow()));
+            drain();
+        }
+    }
+
+    private void drain() {
+        while (rollupService.applyQueued() > 0) {
+            // Claim until the queue is empty
+        }
+    }
+
+    private void assertMatchesFacts(Long areaId) {
+        AreaRollupService.Totals totals = rollupService.totals(new CustomerScope(CustomerScope.Type.AREA, areaId));
+        Object[] customers = (Object[]) entityManager.createNativeQuery(
+                        "SELECT COUNT(1), ISNULL(SUM(pending_amount), 0) FROM customers WHERE area_id = :areaId")
+                .setParameter("areaId", areaId).getSingleResult();
+        Object[] payments = (Object[]) entityManager.createNativeQuery(
+                        "SELECT ISNULL(SUM(CASE WHEN p.payment_status = 'SUCCESS' THEN 1 ELSE 0 END), 0), " +
+                        "ISNULL(SUM(CASE WHEN p.payment_status = 'SUCCESS' THEN p.amount ELSE 0 END), 0) " +
+                        "FROM payments p JOIN customers c ON c.id = p.customer_id WHERE c.area_id = :areaId")
+                .setParameter("areaId", areaId).getSingleResult();
+
+        assertThat(totals.customers()).isEqualTo(((Number) customers[0]).longValue());
+        assertThat(totals.pendingAmount()).isEqualByComparingTo(new BigDecimal(customers[1].toString()));
+        assertThat(totals.paymentsSuccess()).isEqualTo(((Number) payments[0]).longValue());
+        assertThat(totals.amountCollected()).isEqualByComparingTo(new BigDecimal(payments[1].toString()));
+    }
+}
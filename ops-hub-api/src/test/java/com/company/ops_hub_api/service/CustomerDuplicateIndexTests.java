@@ -0,0 +1,76 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Customer;
+import com.company.ops_hub_api.dto.CustomerUploadRowDTO;
+import com.company.ops_hub_api.repository.CustomerRepository;
+import com.company.ops_hub_api.util.EncryptionUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CustomerDuplicateIndexTests {
+
+    @Autowired
+    private CustomerDuplicateIndex duplicateIndex;
+
+    @Autowired
+    private CustomerUploadParser uploadParser;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void customerSavedOutsideUploadIsReportedAsExisting() {
+        // Start from a loaded filter that cannot contain the new phone
+        duplicateIndex.rebuild();
+        String marker = "dup-" + UUID.randomUUID().toString().substring(0, 8);
+        String phone = "8" + Math.abs(marker.hashCode() % 1_000_000_000L);
+        String phoneEncrypted = encryptionUtil.encrypt(phone);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Customer customer = new Customer();
+                customer.setCustomerCode(marker);
+                customer.setFirstName("Duplicate check");
+                customer.setPhoneEncrypted(phoneEncrypted);
+                customerRepository.save(customer);
+            });
+
+            List<CustomerUploadRowDTO> rows = new ArrayList<>(List.of(CustomerUploadRowDTO.builder()
+                    .rowNumber(2)
+                    .customerName("Duplicate check")
+                    .phone(phone)
+                    .phoneEncrypted(phoneEncrypted)
+                    .errors(List.of())
+                    .valid(true)
+                    .build()));
+            uploadParser.applyDuplicateValidation(rows);
+
+            assertThat(duplicateIndex.findExistingPhones(List.of(phoneEncrypted))).containsExactly(phoneEncrypted);
+            assertThat(rows.get(0).isValid()).isFalse();
+            assertThat(rows.get(0).getErrors()).contains("phone already exists");
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    entityManager.createNativeQuery("DELETE FROM customers WHERE customer_code = :code")
+                            .setParameter("code", marker).executeUpdate());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.TestcontainersConfiguration;
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.CustomerUpload;
+import com.company.ops_hub_api.domain.User;
+import com.company.ops_hub_api.dto.CustomerUploadRowDTO;
+import com.company.ops_hub_api.repository.CustomerUploadRepository;
+import com.company.ops_hub_api.util.HierarchyUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestcontainersConfiguration.class)
+class CustomerUploadWriterTests {
+
+    private static final int ROWS = 1_000;
+    private static final int ALLOCATION_SIZE = 50;
+    // Upload read, lease renewal, progress update and rollup queue writes
+    private static final int FIXED_STATEMENTS = 20;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @Autowired
+    private CustomerUploadWriter uploadWriter;
+
+    @Autowired
+    private CustomerUploadParser uploadParser;
+
+    @Autowired
+    private AreaHeadAssigner areaHeadAssigner;
+
+    @Autowired
+    private CustomerUploadRepository uploadRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void chunkIsWrittenWithBatchedStatementsAndPooledIds() {
+        TestGeography testGeography = new TestGeography(entityManager, transactionTemplate);
+        Area area = testGeography.areas(1).get(0);
+        testGeography.user(area, HierarchyUtil.AREA_HEAD);
+        User uploader = testGeography.user(area, HierarchyUtil.CIRCLE_HEAD);
+        GeographyDictionary geography = uploadParser.loadGeography();
+        AreaHeadAssigner.Session assignments = areaHeadAssigner.openSession();
+        assignments.preload(List.of(area.getId()));
+
+        List<CustomerUploadRowDTO> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(CustomerUploadRowDTO.builder()
+                    .rowNumber(i + 2)
+                    .customerName("Batch " + i)
+                    .phone("9" + String.format("%09d", i))
+                    .phoneEncrypted("batch-" + i)
+                    .pendingAmount("10.00")
+                    .area(area.getCode())
+                    .valid(true)
+                    .build());
+        }
+        CustomerUpload upload = new CustomerUpload();
+        upload.setFileName("batch.csv");
+        upload.setUploadedBy(uploader);
+        Long uploadId = uploadRepository.save(upload).getId();
+
+        long sequenceBefore = sequenceValue("customers_seq");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CustomerUpload written = uploadWriter.writeChunk(uploadId, 0, rows, geography, assignments);
+
+        long statements = statistics.getPrepareStatementCount();
+        long sequenceCalls = (sequenceValue("customers_seq") - sequenceBefore) / ALLOCATION_SIZE;
+        assertThat(written.getSuccessfulRows()).isEqualTo(ROWS);
+        // Each row is a customer insert, an allocation insert and a customer status update. Unbatched
+        // that is one statement each; batched it is one per batch, plus a sequence call per id block.
+        long unbatched = 3L * ROWS;
+        long batched = 3L * blocks(ROWS, batchSize) + 2L * blocks(ROWS, ALLOCATION_SIZE) + FIXED_STATEMENTS;
+        assertThat(batched).isLessThan(unbatched / 10);
+        assertThat(statements).isLessThanOrEqualTo(batched);
+        // A freshly created sequence reports its start value before the first call
+        assertThat(sequenceCalls).isLessThanOrEqualTo(blocks(ROWS, ALLOCATION_SIZE));
+        assertThat(sequenceCalls).isGreaterThanOrEqualTo(blocks(ROWS, ALLOCATION_SIZE) - 1);
+    }
+
+    private static long blocks(int rows, int blockSize) {
+        return (rows + blockSize - 1) / blockSize;
+    }
+
+    private long sequenceValue(String name) {
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT CAST(current_value AS BIGINT) FROM sys.sequences WHERE name = :name")
+                .setParameter("name", name).getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,67 @@
+package com.company.ops_hub_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveUpdateHubTests {
+
+    private static final CustomerScope SCOPE = new CustomerScope(CustomerScope.Type.AREA, 7L);
+
+    @Test
+    void overflowingBufferClosesTheConnection() {
+        // Drains are queued but never run, so every event stays buffered
+        List<Runnable> drains = new ArrayList<>();
+        LiveUpdateHub hub = hub(drains::add, 2, 60);
+        hub.subscribe(1L, SCOPE);
+
+        hub.sendToUser(1L, "notification", Map.of("id", 1));
+        assertThat(hub.connectionCount()).isEqualTo(1);
+
+        hub.sendToScope(SCOPE, "kpi", Map.of("id", 2));
+        assertThat(hub.connectionCount()).isZero();
+        assertThat(hub.subscribedScopes()).isEmpty();
+    }
+
+    @Test
+    void heartbeatClosesOnlyStalledConnections() throws InterruptedException {
+        List<Runnable> drains = new ArrayList<>();
+        LiveUpdateHub stalledHub = hub(drains::add, 32, 0);
+        stalledHub.subscribe(1L, SCOPE);
+        LiveUpdateHub healthyHub = hub(Runnable::run, 32, 0);
+        healthyHub.subscribe(2L, SCOPE);
+        Thread.sleep(5);
+
+        stalledHub.heartbeat();
+        healthyHub.heartbeat();
+
+        assertThat(stalledHub.connectionCount()).isZero();
+        assertThat(stalledHub.subscribedScopes()).isEmpty();
+        assertThat(healthyHub.connectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void completedConnectionIsUnsubscribedOnNextSend() {
+        LiveUpdateHub hub = hub(Runnable::run, 32, 60);
+        SseEmitter closed = hub.subscribe(1L, SCOPE);
+        hub.subscribe(1L, null);
+        // What the container does when the client goes away
+        closed.complete();
+
+        hub.sendToUser(1L, "notification", Map.of("id", 1));
+
+        assertThat(hub.connectionCount()).isEqualTo(1);
+        assertThat(hub.subscribedScopes()).isEmpty();
+    }
+
+    private static LiveUpdateHub hub(Executor executor, int bufferSize, long stallSeconds) {
+        return new LiveUpdateHub(new ObjectMapper(), executor, 30, bufferSize, stallSeconds);
+    }
+}
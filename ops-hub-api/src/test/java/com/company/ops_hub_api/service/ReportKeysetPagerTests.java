@@ -0,0 +1,94 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.dto.ReportPageRequestDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReportKeysetPagerTests {
+
+    private static final int ROWS = 23;
+    private static final int LIMIT = 5;
+    // Four groups over 23 ids, so every page boundary falls inside a run of equal sort values
+    private static final String VALUES = IntStream.rangeClosed(1, ROWS)
+            .mapToObj(id -> "(" + id + ", 'g" + id % 4 + "')")
+            .collect(Collectors.joining(", "));
+    private static final String FIXTURE = "SELECT v.id, v.grp FROM (VALUES " + VALUES + ") v(id, grp)";
+    private static final String CTE_FIXTURE =
+            "WITH v AS (SELECT t.id, t.grp FROM (VALUES " + VALUES + ") t(id, grp)) SELECT v.id, v.grp FROM v";
+    private static final Map<String, Object> METADATA = Map.of(
+            "keyColumn", "id",
+            "sortable", List.of("grp"),
+            "defaultSort", "-grp");
+
+    @Autowired
+    private ReportKeysetPager pager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void pagesThroughDuplicateSortValuesWithoutSkippingOrRepeating() {
+        assertThat(pageAll(FIXTURE, List.of("grp"))).containsExactlyElementsOf(expected(false));
+        assertThat(pageAll(FIXTURE, List.of("-grp"))).containsExactlyElementsOf(expected(true));
+        assertThat(pageAll(FIXTURE, null)).containsExactlyElementsOf(expected(true));
+    }
+
+    @Test
+    void pagesReportsStartingWithCte() {
+        assertThat(pageAll(CTE_FIXTURE, List.of("grp"))).containsExactlyElementsOf(expected(false));
+    }
+
+    @Test
+    void hoistsWithClauseInFrontOfPageQuery() {
+        ReportKeysetPager.Page page = pager.plan(1L, METADATA, ReportPageRequestDTO.builder().limit(LIMIT).build());
+
+        String sql = pager.wrap(CTE_FIXTURE, page, new HashMap<>());
+
+        assertThat(sql).startsWith("WITH v AS (");
+        assertThat(sql).contains("SELECT TOP (:pageLimit) r.* FROM (\nSELECT v.id, v.grp FROM v\n) r");
+    }
+
+    private List<Integer> pageAll(String sql, List<String> sort) {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ReportPageRequestDTO request = ReportPageRequestDTO.builder().limit(LIMIT).sort(sort).cursor(cursor).build();
+            ReportKeysetPager.Page page = pager.plan(1L, METADATA, request);
+            Map<String, Object> params = new HashMap<>();
+            Query query = entityManager.createNativeQuery(pager.wrap(sql, page, params));
+            params.forEach(query::setParameter);
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = query.getResultList();
+            boolean hasMore = rows.size() > LIMIT;
+            rows = rows.subList(0, Math.min(rows.size(), LIMIT));
+            rows.forEach(row -> seen.add(((Number) row[0]).intValue()));
+            Object[] last = rows.get(rows.size() - 1);
+            cursor = hasMore ? pager.nextCursor(1L, page, Map.of("id", last[0], "grp", last[1])) : null;
+            assertThat(++pages).isLessThanOrEqualTo(ROWS);
+        } while (cursor != null);
+        return seen;
+    }
+
+    private static List<Integer> expected(boolean descending) {
+        Comparator<Integer> order = Comparator.<Integer, String>comparing(id -> "g" + id % 4)
+                .thenComparing(Comparator.naturalOrder());
+        return IntStream.rangeClosed(1, ROWS).boxed()
+                .sorted(descending ? order.reversed() : order)
+                .toList();
+    }
+}
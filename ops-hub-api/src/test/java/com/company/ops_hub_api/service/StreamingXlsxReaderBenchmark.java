@@ -0,0 +1,117 @@
+package com.company.ops_hub_api.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * XLSX reader benchmark harness.
+ * Not a test (surefire skips it); run its main method from the IDE or with
+ * {@code java -Xmx256m -cp <test classpath> com.company.ops_hub_api.service.StreamingXlsxReaderBenchmark [rows...]}.
+ * Generates upload-shaped workbooks (10k, 100k and 1M rows by default), reads each with
+ * {@link StreamingXlsxReader} and prints rows per second and the peak heap used while reading.
+ * Peak heap includes garbage not yet collected, so it is an upper bound on what the reader keeps.
+ */
+public final class StreamingXlsxReaderBenchmark {
+
+    private static final String[] HEADERS = {"Customer Name", "Phone", "Email", "Address", "Area", "Store", "Pending Amount"};
+
+    private StreamingXlsxReaderBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10_000, 100_000, 1_000_000};
+        StreamingXlsxReader reader = new StreamingXlsxReader();
+        System.out.printf("max heap %d MB%n", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        // Warm up the parser and formatter code paths before timing
+        Path warmUp = workbook(5_000);
+        try {
+            read(reader, warmUp);
+        } finally {
+            Files.deleteIfExists(warmUp);
+        }
+
+        for (int rows : sizes) {
+            Path file = workbook(rows);
+            try {
+                System.gc();
+                resetPeaks();
+                long start = System.nanoTime();
+                long read = read(reader, file);
+                long nanos = System.nanoTime() - start;
+                System.out.printf("%,10d rows  %6.1f MB file  %8.0f ms  %10.0f rows/s  peak heap %5d MB%n",
+                        read, Files.size(file) / (1024.0 * 1024.0), nanos / 1e6, read / (nanos / 1e9),
+                        peakHeap() / (1024 * 1024));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static long read(StreamingXlsxReader reader, Path file) throws Exception {
+        long[] rows = {0};
+        try (InputStream input = Files.newInputStream(file)) {
+            reader.read(input, (rowNumber, cells) -> {
+                if (rowNumber > 1 && !cells.isEmpty()) {
+                    rows[0]++;
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    /** Written through SXSSF so generating the 1M-row sheet does not itself need a large heap. */
+    private static Path workbook(int rows) throws Exception {
+        Path file = Files.createTempFile("xlsx-benchmark-", ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            workbook.setCompressTempFiles(true);
+            Sheet sheet = workbook.createSheet("Customers");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                header.createCell(i).setCellValue(HEADERS[i]);
+            }
+            for (int i = 0; i < rows; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue("Customer " + i);
+                row.createCell(1).setCellValue(String.valueOf(9_000_000_000L + i));
+                row.createCell(2).setCellValue("customer" + i + "@example.com");
+                row.createCell(3).setCellValue((i % 97) + " Main Road");
+                row.createCell(4).setCellValue("Area " + (i % 40));
+                row.createCell(5).setCellValue("Store " + (i % 500));
+                row.createCell(6).setCellValue(100 + (i % 10_000) / 100.0);
+            }
+            try (OutputStream output = Files.newOutputStream(file)) {
+                workbook.write(output);
+            }
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    private static void resetPeaks() {
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long peakHeap() {
+        return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+}
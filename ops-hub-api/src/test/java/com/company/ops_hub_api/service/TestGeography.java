@@ -0,0 +1,83 @@
+package com.company.ops_hub_api.service;
+
+import com.company.ops_hub_api.domain.Area;
+import com.company.ops_hub_api.domain.Circle;
+import com.company.ops_hub_api.domain.Cluster;
+import com.company.ops_hub_api.domain.User;
+import com.company.ops_hub_api.domain.Zone;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates the geography and users a test needs in the disposable database, each under a
+ * unique code so tests sharing a container never collide.
+ */
+final class TestGeography {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final String prefix = UUID.randomUUID().toString().substring(0, 8);
+    private int sequence;
+
+    TestGeography(EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** Areas under one new cluster, circle and zone. */
+    List<Area> areas(int count) {
+        return transactionTemplate.execute(status -> {
+            Cluster cluster = new Cluster();
+            cluster.setCode(code("CL"));
+            cluster.setName("Test cluster");
+            entityManager.persist(cluster);
+
+            Circle circle = new Circle();
+            circle.setCode(code("CI"));
+            circle.setName("Test circle");
+            circle.setCluster(cluster);
+            entityManager.persist(circle);
+
+            Zone zone = new Zone();
+            zone.setCode(code("ZN"));
+            zone.setName("Test zone");
+            zone.setCircle(circle);
+            entityManager.persist(zone);
+
+            List<Area> areas = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Area area = new Area();
+                area.setCode(code("AR"));
+                area.setName("Test area " + i);
+                area.setZone(zone);
+                entityManager.persist(area);
+                areas.add(area);
+            }
+            return areas;
+        });
+    }
+
+    User user(Area area, String userType) {
+        return transactionTemplate.execute(status -> {
+            String code = code("EMP");
+            User user = new User();
+            user.setEmployeeId(code);
+            user.setUsername(code.toLowerCase());
+            user.setPasswordHash("not-a-hash");
+            user.setEmail(code.toLowerCase() + "@example.com");
+            user.setFullName("Test " + userType);
+            user.setUserType(userType);
+            user.setArea(entityManager.getReference(Area.class, area.getId()));
+            entityManager.persist(user);
+            return user;
+        });
+    }
+
+    private String code(String kind) {
+        return kind + "-" + prefix + "-" + (++sequence);
+    }
+}
@@ -0,0 +1,77 @@
+package com.company.ops_hub_api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactIdSetTests {
+
+    @Test
+    void intersectMergesSimilarSizes() {
+        CompactIdSet evens = CompactIdSet.of(LongStream.rangeClosed(1, 1_000).map(i -> i * 2).toArray());
+        CompactIdSet threes = CompactIdSet.of(LongStream.rangeClosed(1, 700).map(i -> i * 3).toArray());
+
+        CompactIdSet both = evens.intersect(threes);
+
+        assertThat(both).isEqualTo(CompactIdSet.of(LongStream.rangeClosed(1, 333).map(i -> i * 6).toArray()));
+        assertThat(threes.intersect(evens)).isEqualTo(both);
+    }
+
+    @Test
+    void intersectProbesFarLargerSide() {
+        CompactIdSet large = CompactIdSet.of(LongStream.rangeClosed(1, 10_000).toArray());
+        CompactIdSet small = CompactIdSet.of(5, 9_999, 20_000);
+
+        assertThat(small.intersect(large).stream().toArray()).containsExactly(5L, 9_999L);
+        assertThat(large.intersect(small).stream().toArray()).containsExactly(5L, 9_999L);
+    }
+
+    @Test
+    void intersectHandlesEmptyAndWideIds() {
+        long wide = Integer.MAX_VALUE + 10L;
+        CompactIdSet mixed = CompactIdSet.of(List.of(1L, wide, -4L));
+
+        assertThat(mixed.intersect(CompactIdSet.EMPTY).isEmpty()).isTrue();
+        assertThat(mixed.intersect(CompactIdSet.of(wide, -4L, 7L)).stream().toArray()).containsExactly(-4L, wide);
+        // Narrowed back to ints when the result fits
+        assertThat(mixed.intersect(CompactIdSet.of(1L, 2L))).isEqualTo(CompactIdSet.of(1L));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        for (CompactIdSet set : List.of(
+                CompactIdSet.EMPTY,
+                CompactIdSet.of(LongStream.rangeClosed(1_000, 5_000).toArray()),
+                CompactIdSet.of(3L, Integer.MAX_VALUE + 1L, Long.MAX_VALUE),
+                CompactIdSet.of(Long.MIN_VALUE, -1L, 0L, 42L))) {
+            assertThat(CompactIdSet.fromByteArray(set.toByteArray())).isEqualTo(set);
+        }
+    }
+
+    @Test
+    void denseIdsTakeAboutOneBytePerEntry() {
+        CompactIdSet dense = CompactIdSet.of(LongStream.rangeClosed(1_000_000, 1_009_999).toArray());
+
+        assertThat(dense.toByteArray().length).isLessThan(10_000 + 8);
+    }
+
+    @Test
+    void rejectsMalformedBytes() {
+        byte[] bytes = CompactIdSet.of(1L, 2L, 3L).toByteArray();
+
+        assertThatThrownBy(() -> CompactIdSet.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompactIdSet.fromByteArray(new byte[]{(byte) 0x80}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompactIdSet.fromByteArray(new byte[]{100, 1}))
+                .isInstanceOf(IllegalArgumentException.class);
+        // A zero delta would repeat the previous ID
+        assertThatThrownBy(() -> CompactIdSet.fromByteArray(new byte[]{2, 1, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.company.ops_hub_api.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tokenizer benchmark harness.
+ * Not a test (surefire skips it); run its main method from the IDE or with
+ * {@code java -cp target/classes:target/test-classes com.company.ops_hub_api.util.CsvTokenizerBenchmark [rows]}.
+ * Tokenizes an in-memory upload-shaped CSV with {@link CsvTokenizer} and with the readLine/split
+ * plus map-per-row parsing it replaced, and prints time and bytes allocated per row for each.
+ */
+public final class CsvTokenizerBenchmark {
+
+    private static final String[] HEADERS = {"name", "phone", "email", "address", "pincode", "area", "notes"};
+    private static final int ROUNDS = 5;
+
+    private CsvTokenizerBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String csv = csv(rows);
+        System.out.printf("%d rows, %.1f MB of CSV%n", rows, csv.length() / (1024.0 * 1024.0));
+
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            sink += tokenizer(csv) + splitLines(csv);
+        }
+        report("CsvTokenizer", rows, () -> tokenizer(csv));
+        report("readLine/split/HashMap", rows, () -> splitLines(csv));
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long tokenizer(String csv) throws IOException {
+        long checksum = 0;
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv))) {
+            CsvTokenizer.Row row = new CsvTokenizer.Row();
+            tokenizer.next(row);
+            while (tokenizer.next(row)) {
+                for (int i = 0; i < HEADERS.length; i++) {
+                    if (!row.isBlank(i)) {
+                        checksum += row.getTrimmed(i).length();
+                    }
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /** The previous parsing: one String per line, one String per field and a HashMap per row. */
+    private static long splitLines(String csv) throws IOException {
+        long checksum = 0;
+        try (BufferedReader reader = new BufferedReader(new StringReader(csv))) {
+            String[] headers = reader.readLine().split(",", -1);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",", -1);
+                Map<String, String> row = new HashMap<>();
+                for (int i = 0; i < headers.length; i++) {
+                    row.put(headers[i].trim(), i < values.length ? values[i].trim() : "");
+                }
+                for (String value : row.values()) {
+                    checksum += value.length();
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static void report(String name, int rows, Parse parse) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            parse.run();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            allocated = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        }
+        System.out.printf("%-24s %8.1f ms  %10.0f rows/s  %6d bytes allocated/row%n",
+                name, bestNanos / 1e6, rows / (bestNanos / 1e9), allocated / rows);
+    }
+
+    private static String csv(int rows) {
+        StringBuilder csv = new StringBuilder(rows * 96);
+        csv.append(String.join(",", HEADERS)).append("\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Customer ").append(i).append(',')
+                    .append(9_000_000_000L + i).append(',')
+                    .append("customer").append(i).append("@example.com").append(',')
+                    .append(i % 97).append(" Main Road").append(',')
+                    .append(560_000 + i % 1000).append(',')
+                    .append("Area ").append(i % 40).append(',')
+                    .append(i % 3 == 0 ? "" : "follow up").append("\r\n");
+        }
+        return csv.toString();
+    }
+
+    private interface Parse {
+        long run() throws IOException;
+    }
+}
@@ -0,0 +1,97 @@
+package com.company.ops_hub_api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTokenizerTests {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Test
+    void splitsRecordsOnLfCrLfAndCr() throws IOException {
+        assertThat(records("a,b\nc,d\r\ne,f\rg,h")).containsExactly(
+                List.of("a", "b"), List.of("c", "d"), List.of("e", "f"), List.of("g", "h"));
+    }
+
+    @Test
+    void keepsEmptyAndTrailingFields() throws IOException {
+        assertThat(records(",a,,\n\nb\n")).containsExactly(
+                List.of("", "a", "", ""), List.of(""), List.of("b"));
+    }
+
+    @Test
+    void quotedFieldKeepsCommasAndLineBreaks() throws IOException {
+        assertThat(records("name,address\n\"Doe, Jane\",\"1 Main St\r\nFlat 2\nBlock C\"\nnext,row\n")).containsExactly(
+                List.of("name", "address"), List.of("Doe, Jane", "1 Main St\r\nFlat 2\nBlock C"), List.of("next", "row"));
+    }
+
+    @Test
+    void doubledQuotesUnescape() throws IOException {
+        assertThat(records("\"say \"\"hi\"\"\",\"\"\"\",\"\"\nplain\"quote,x\n")).containsExactly(
+                List.of("say \"hi\"", "\"", ""), List.of("plain\"quote", "x"));
+    }
+
+    @Test
+    void skipsLeadingByteOrderMarkOnly() throws IOException {
+        assertThat(records("\uFEFFname,phone\n\uFEFFx,1\n")).containsExactly(
+                List.of("name", "phone"), List.of("\uFEFFx", "1"));
+        assertThat(records("\uFEFF")).isEmpty();
+    }
+
+    @Test
+    void crLfSplitAcrossBufferBoundaryEndsOneRecord() throws IOException {
+        String first = "a".repeat(BUFFER_SIZE - 1);
+
+        List<List<String>> records = records(first + "\r\nb,c\r\n");
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0)).containsExactly(first);
+        assertThat(records.get(1)).containsExactly("b", "c");
+    }
+
+    @Test
+    void escapedQuoteAndLineBreakSplitAcrossBufferBoundary() throws IOException {
+        // Opening quote as the buffer's last char, then an escaped quote pair straddling the boundary
+        String padding = "p".repeat(BUFFER_SIZE - 2);
+        assertThat(records(padding + ",\"x,y\"\n")).containsExactly(List.of(padding, "x,y"));
+
+        String field = "q".repeat(BUFFER_SIZE - 2);
+        assertThat(records("\"" + field + "\"\"\r\n\",end\n")).containsExactly(List.of(field + "\"\r\n", "end"));
+    }
+
+    @Test
+    void rowAccessorsTrimAndTolerateMissingColumns() throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer(new StringReader("  x  , ,\" y \"\n"));
+        CsvTokenizer.Row row = new CsvTokenizer.Row();
+
+        assertThat(tokenizer.next(row)).isTrue();
+        assertThat(row.size()).isEqualTo(3);
+        assertThat(row.getTrimmed(0)).isEqualTo("x");
+        assertThat(row.isBlank(1)).isTrue();
+        assertThat(row.get(2)).isEqualTo(" y ");
+        assertThat(row.get(5)).isEqualTo("");
+        assertThat(row.isBlank(5)).isTrue();
+        assertThat(tokenizer.next(row)).isFalse();
+    }
+
+    private static List<List<String>> records(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv))) {
+            CsvTokenizer.Row row = new CsvTokenizer.Row();
+            while (tokenizer.next(row)) {
+                List<String> fields = new ArrayList<>(row.size());
+                for (int i = 0; i < row.size(); i++) {
+                    fields.add(row.get(i));
+                }
+                records.add(fields);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,103 @@
+package com.company.ops_hub_api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report result heap benchmark harness.
+ * Not a test (surefire skips it); run its main method from the IDE or with
+ * {@code java -cp <test classpath> com.company.ops_hub_api.util.ReportTableHeapBenchmark [rows]}.
+ * Measures the heap retained per row by a {@link ReportTable} and by the LinkedHashMap rows it
+ * replaced, over the same boxed values, then times serializing each. Exits with status 1 when the
+ * table does not retain at most half the heap of the map rows.
+ */
+public final class ReportTableHeapBenchmark {
+
+    private static final int COLUMNS = 10;
+
+    private ReportTableHeapBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        List<String> columns = new ArrayList<>(COLUMNS);
+        for (int i = 0; i < COLUMNS; i++) {
+            columns.add("metric_" + i);
+        }
+        // Shared by both shapes so only the row structure is measured
+        Long[] values = new Long[rows * COLUMNS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) i;
+        }
+
+        long baseline = usedHeap();
+        ReportTable table = ReportTable.of(columns, objectRows(values, rows));
+        long tableBytes = usedHeap() - baseline;
+        long tableNanos = serialize(table);
+        table = null;
+
+        baseline = usedHeap();
+        List<Map<String, Object>> maps = mapRows(columns, values, rows);
+        long mapBytes = usedHeap() - baseline;
+        long mapNanos = serialize(maps);
+        maps = null;
+
+        double ratio = (double) mapBytes / tableBytes;
+        System.out.printf("%d rows x %d Long columns%n", rows, COLUMNS);
+        System.out.printf("ReportTable     %6d bytes/row  serialize %6.0f ms%n", tableBytes / rows, tableNanos / 1e6);
+        System.out.printf("LinkedHashMap   %6d bytes/row  serialize %6.0f ms%n", mapBytes / rows, mapNanos / 1e6);
+        System.out.printf("heap reduction  %.1fx%n", ratio);
+        if (ratio < 2.0) {
+            System.out.println("FAIL: expected at least a 2x heap reduction");
+            System.exit(1);
+        }
+    }
+
+    private static List<Object[]> objectRows(Long[] values, int rows) {
+        List<Object[]> results = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            Object[] record = new Object[COLUMNS];
+            System.arraycopy(values, row * COLUMNS, record, 0, COLUMNS);
+            results.add(record);
+        }
+        return results;
+    }
+
+    /** Report rows as they were built before ReportTable: one LinkedHashMap per row. */
+    private static List<Map<String, Object>> mapRows(List<String> columns, Long[] values, int rows) {
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (int i = 0; i < COLUMNS; i++) {
+                record.put(columns.get(i), values[row * COLUMNS + i]);
+            }
+            data.add(record);
+        }
+        return data;
+    }
+
+    private static long serialize(Object data) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            objectMapper.writeValue(OutputStream.nullOutputStream(), data);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,96 @@
+package com.company.ops_hub_api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportTableTests {
+
+    // Configured as Spring Boot configures the application's mapper
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void serializesLikeMapRowsWithConfiguredColumns() throws Exception {
+        List<String> columns = List.of("customer_id", "name", "amount", "paid_on", "created_at", "active");
+        List<Object[]> results = List.of(
+                new Object[]{1L, "Jane \"JD\" Doe", new BigDecimal("1250.50"), LocalDate.of(2026, 3, 1),
+                        LocalDateTime.of(2026, 3, 1, 9, 30), true},
+                new Object[]{2L, "Ravi, Kumar\n", null, null, Timestamp.valueOf("2026-03-02 10:15:00"), false});
+
+        assertSameJson(columns, results);
+    }
+
+    @Test
+    void namesUnconfiguredColumnsByPosition() throws Exception {
+        List<Object[]> results = List.of(new Object[]{7L, "NEW", 3}, new Object[]{8L, "PAID", 0});
+
+        assertSameJson(List.of("id"), results);
+        assertSameJson(null, results);
+        assertThat(ReportTable.of(List.of("id"), results).columns()).containsExactly("id", "column1", "column2");
+    }
+
+    @Test
+    void serializesEmptyResultAsEmptyArray() throws Exception {
+        assertThat(objectMapper.writeValueAsString(ReportTable.of(List.of("id"), List.of()))).isEqualTo("[]");
+        assertThat(objectMapper.writeValueAsString(ReportTable.empty())).isEqualTo("[]");
+    }
+
+    @Test
+    void boxesBareSingleColumnValues() throws Exception {
+        ReportTable table = ReportTable.of(List.of("total"), List.of(42L, 43L));
+
+        assertThat(objectMapper.writeValueAsString(table)).isEqualTo("[{\"total\":42},{\"total\":43}]");
+    }
+
+    @Test
+    void filteredAndLimitedTablesSerializeTheirRowsOnly() throws Exception {
+        List<String> columns = List.of("customer_id", "status");
+        List<Object[]> results = List.of(
+                new Object[]{1L, "NEW"}, new Object[]{2L, "PAID"}, new Object[]{3L, "NEW"}, new Object[]{4L, "NEW"});
+        ReportTable table = ReportTable.of(columns, results);
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("status", "NEW");
+        filters.put("customer_id", null);
+
+        ReportTable filtered = table.filter(ReportTable.equalsFilter(table.schema(), filters)).limit(2);
+
+        assertThat(objectMapper.writeValueAsString(filtered)).isEqualTo(
+                objectMapper.writeValueAsString(mapRows(columns, List.of(results.get(0), results.get(2)))));
+        assertThat(filtered.rowAsMap(1)).isEqualTo(mapRows(columns, List.<Object[]>of(results.get(2))).get(0));
+        assertThat(table.filter(ReportTable.equalsFilter(table.schema(), Map.of("missing", "NEW"))).size())
+                .isEqualTo(0);
+    }
+
+    private void assertSameJson(List<String> columns, List<Object[]> results) throws Exception {
+        assertThat(objectMapper.writeValueAsString(ReportTable.of(columns, results)))
+                .isEqualTo(objectMapper.writeValueAsString(mapRows(columns, results)));
+    }
+
+    /** Report rows as they were built before ReportTable: one LinkedHashMap per row. */
+    private static List<Map<String, Object>> mapRows(List<String> columns, List<Object[]> results) {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (Object[] row : results) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (int i = 0; i < row.length; i++) {
+                String key = (columns != null && i < columns.size()) ? columns.get(i) : "column" + i;
+                record.put(key, row[i]);
+            }
+            data.add(record);
+        }
+        return data;
+    }
+}
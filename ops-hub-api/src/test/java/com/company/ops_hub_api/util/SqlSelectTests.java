@@ -0,0 +1,117 @@
+package com.company.ops_hub_api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlSelectTests {
+
+    private static final String PREDICATE = "c.area_id = :scopeId";
+
+    @Test
+    void parenthesizesExistingWhereWithOr() {
+        SqlSelect select = SqlSelect.parse("SELECT c.id FROM customers c WHERE c.status = 'NEW' OR c.status = 'PAID'");
+
+        assertThat(select.withPredicate(PREDICATE)).isEqualTo(
+                "SELECT c.id FROM customers c WHERE (c.status = 'NEW' OR c.status = 'PAID')\n  AND " + PREDICATE + "\n");
+    }
+
+    @Test
+    void addsWhereBeforeGroupByAndOrderBy() {
+        SqlSelect select = SqlSelect.parse(
+                "SELECT c.status, COUNT(*) AS total FROM customers c GROUP BY c.status ORDER BY c.status");
+
+        assertThat(select.withPredicate(PREDICATE)).isEqualTo(
+                "SELECT c.status, COUNT(*) AS total FROM customers c\nWHERE " + PREDICATE
+                        + "\nGROUP BY c.status ORDER BY c.status");
+        assertThat(select.withoutOrderBy()).isEqualTo("SELECT c.status, COUNT(*) AS total FROM customers c GROUP BY c.status");
+        assertThat(select.orderBy()).isEqualTo("\nORDER BY c.status");
+    }
+
+    @Test
+    void scopesOuterQueryOfCte() {
+        String sql = "WITH totals AS (SELECT p.customer_id, SUM(p.amount) AS paid FROM payments p "
+                + "WHERE p.payment_status = 'SUCCESS' GROUP BY p.customer_id) "
+                + "SELECT c.id, t.paid FROM customers c JOIN totals t ON t.customer_id = c.id WHERE c.status = 'NEW'";
+        SqlSelect select = SqlSelect.parse(sql);
+
+        assertThat(select.aliasesOf("customers")).containsExactly("c");
+        assertThat(select.readsInSubquery("customers")).isFalse();
+        assertThat(select.withPredicate(PREDICATE)).endsWith("WHERE (c.status = 'NEW')\n  AND " + PREDICATE + "\n");
+        assertThat(select.withPredicate(PREDICATE)).contains("WHERE p.payment_status = 'SUCCESS' GROUP BY");
+    }
+
+    @Test
+    void readsBracketedIdentifiers() {
+        SqlSelect select = SqlSelect.parse("SELECT [c].[id] FROM [dbo].[customers] AS [c] WHERE [c].[status] = 'NEW'");
+
+        assertThat(select.tables()).containsExactly(new SqlSelect.TableRef("dbo.customers", "c"));
+        assertThat(select.aliasesOf("customers")).containsExactly("c");
+    }
+
+    @Test
+    void ignoresWhereInComments() {
+        SqlSelect select = SqlSelect.parse(
+                "SELECT c.id FROM customers c -- WHERE c.id = 1\n/* WHERE c.id = 2 */ ORDER BY c.id");
+
+        assertThat(select.withPredicate(PREDICATE)).isEqualTo(
+                "SELECT c.id FROM customers c -- WHERE c.id = 1\n/* WHERE c.id = 2 */\nWHERE " + PREDICATE
+                        + "\nORDER BY c.id");
+    }
+
+    @Test
+    void ignoresOrderByInStringLiterals() {
+        SqlSelect select = SqlSelect.parse("SELECT c.id FROM customers c WHERE c.notes <> 'x ORDER BY y' ORDER BY c.id");
+
+        assertThat(select.orderBy()).isEqualTo("\nORDER BY c.id");
+        assertThat(select.withoutOrderBy()).isEqualTo("SELECT c.id FROM customers c WHERE c.notes <> 'x ORDER BY y'");
+    }
+
+    @Test
+    void returnsEveryCustomersReferenceOfOuterFrom() {
+        SqlSelect select = SqlSelect.parse(
+                "SELECT c1.id, c2.id FROM customers c1 JOIN customers c2 ON c2.customer_code = c1.customer_code, "
+                        + "dbo.customers c3");
+
+        assertThat(select.aliasesOf("customers")).containsExactly("c1", "c2", "c3");
+        assertThat(select.readsInSubquery("customers")).isFalse();
+    }
+
+    @Test
+    void detectsCustomersInDerivedTablesAndSubqueries() {
+        SqlSelect derived = SqlSelect.parse(
+                "SELECT d.total FROM (SELECT SUM(pending_amount) AS total FROM customers) d");
+        SqlSelect scalar = SqlSelect.parse(
+                "SELECT c.id, (SELECT SUM(x.pending_amount) FROM customers x) AS everyone FROM customers c");
+        SqlSelect cte = SqlSelect.parse(
+                "WITH everyone AS (SELECT id FROM customers) SELECT c.id FROM customers c JOIN everyone e ON e.id = c.id");
+        SqlSelect inWhere = SqlSelect.parse(
+                "SELECT c.id FROM customers c WHERE c.pending_amount > (SELECT AVG(pending_amount) FROM dbo.customers)");
+
+        assertThat(derived.aliasesOf("customers")).isEmpty();
+        assertThat(derived.readsInSubquery("customers")).isTrue();
+        assertThat(scalar.readsInSubquery("customers")).isTrue();
+        assertThat(cte.readsInSubquery("customers")).isTrue();
+        assertThat(inWhere.readsInSubquery("customers")).isTrue();
+    }
+
+    @Test
+    void columnNamedCustomersIsNotATable() {
+        SqlSelect select = SqlSelect.parse(
+                "SELECT a.name, (SELECT COUNT(*) FROM payments p WHERE p.user_id = a.id) AS customers FROM areas a");
+
+        assertThat(select.aliasesOf("customers")).isEmpty();
+        assertThat(select.readsInSubquery("customers")).isFalse();
+    }
+
+    @Test
+    void rejectsSetOperationsAndMultipleStatements() {
+        assertThatThrownBy(() -> SqlSelect.parse("SELECT id FROM customers UNION SELECT id FROM customers"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SqlSelect.parse("SELECT id FROM customers EXCEPT SELECT id FROM customers"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SqlSelect.parse("SELECT id FROM customers; DELETE FROM customers"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
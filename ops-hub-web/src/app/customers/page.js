@@ -1,11 +1,13 @@
 "use client";
 
-import { useState, useEffect } from "react";
+import { useState, useEffect, useRef } from "react";
 import AppLayout from "@/components/Layout/AppLayout";
 import PermissionGuard from "@/components/PermissionGuard";
 import api from "@/lib/api";
 import { useAuth } from "@/contexts/AuthContext";
 
+const UPLOAD_POLL_MS = 2000;
+
 export default function CustomersPage() {
   const { user, hasPermission } = useAuth();
   const [customers, setCustomers] = useState([]);
@@ -17,12 +19,17 @@ export default function CustomersPage() {
   const [uploadHistory, setUploadHistory] = useState([]);
   const [uploadLoading, setUploadLoading] = useState(false);
   const [uploadError, setUploadError] = useState(null);
+  const [uploadProgress, setUploadProgress] = useState(null);
+  const unmounted = useRef(false);
 
   useEffect(() => {
     loadCustomers();
     if (hasPermission("MANAGE_CUSTOMERS")) {
       loadUploadHistory();
     }
+    return () => {
+      unmounted.current = true;
+    };
   }, []);
 
   const loadCustomers = async () => {
@@ -73,9 +80,14 @@ export default function CustomersPage() {
     setUploadLoading(true);
     setUploadError(null);
     try {
-      await api.uploadCustomers(uploadFile);
+      const result = await api.uploadCustomers(uploadFile, uploadPreview?.previewToken);
       setUploadPreview(null);
       setUploadFile(null);
+      // The upload runs in the background; wait for it before reloading customers
+      const progress = await waitForUpload(result.uploadId);
+      if (progress?.status === "FAILED") {
+        setUploadError("Upload failed. See upload history for details.");
+      }
       await loadCustomers();
       await loadUploadHistory();
     } catch (err) {
@@ -85,6 +97,19 @@ export default function CustomersPage() {
     }
   };
 
+  const waitForUpload = async (uploadId) => {
+    while (!unmounted.current) {
+      const progress = await api.getCustomerUploadProgress(uploadId);
+      setUploadProgress(progress);
+      if (progress.status === "COMPLETED" || progress.status === "FAILED") {
+        setUploadProgress(null);
+        return progress;
+      }
+      await new Promise((resolve) => setTimeout(resolve, UPLOAD_POLL_MS));
+    }
+    return null;
+  };
+
   const filteredCustomers = customers.filter((customer) => {
     if (!searchTerm) return true;
     const search = searchTerm.toLowerCase();
@@ -136,6 +161,21 @@ export default function CustomersPage() {
                 <div className="mt-3 text-sm text-red-600">{uploadError}</div>
               )}
 
+              {uploadProgress && (
+                <div className="mt-4">
+                  <div className="text-sm text-slate-600 mb-2">
+                    Processing upload: {uploadProgress.processedRows} of {uploadProgress.totalRows} rows (
+                    {uploadProgress.percentComplete}%)
+                  </div>
+                  <div className="h-2 bg-slate-100 rounded-full overflow-hidden">
+                    <div
+                      className="h-2 bg-slate-900 rounded-full"
+                      style={{ width: `${uploadProgress.percentComplete}%` }}
+                    />
+                  </div>
+                </div>
+              )}
+
               {uploadPreview && (
                 <div className="mt-6">
                   <div className="text-sm text-slate-600 mb-2">
@@ -1,15 +1,35 @@
 "use client";
 
-import { useState, useEffect } from "react";
+import { useState, useEffect, useRef } from "react";
 import AppLayout from "@/components/Layout/AppLayout";
 import api from "@/lib/api";
 
+const DASHBOARD_REFRESH_DELAY_MS = 1000;
+
 export default function DashboardPage() {
   const [dashboard, setDashboard] = useState(null);
   const [isLoading, setIsLoading] = useState(true);
 
+  const refreshTimer = useRef(null);
+
   useEffect(() => {
     loadDashboardData();
+    // KPI and dashboard events can arrive in bursts; refetch once per burst
+    const scheduleRefresh = () => {
+      if (!refreshTimer.current) {
+        refreshTimer.current = setTimeout(() => {
+          refreshTimer.current = null;
+          loadDashboardData();
+        }, DASHBOARD_REFRESH_DELAY_MS);
+      }
+    };
+    const unsubscribeKpi = api.onLiveUpdate("kpi", scheduleRefresh);
+    const unsubscribeDashboard = api.onLiveUpdate("dashboard", scheduleRefresh);
+    return () => {
+      unsubscribeKpi();
+      unsubscribeDashboard();
+      clearTimeout(refreshTimer.current);
+    };
   }, []);
 
   const loadDashboardData = async () => {
@@ -29,6 +29,8 @@ export default function Header({ title, subtitle }) {
 
   useEffect(() => {
     loadNotifications();
+    // New notifications arrive over the live stream instead of being polled
+    return api.onLiveUpdate('notification', () => loadNotifications());
   }, []);
 
   useEffect(() => {
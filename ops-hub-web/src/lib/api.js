@@ -1,4 +1,6 @@
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
+const LIVE_EVENTS = ['notification', 'kpi', 'dashboard'];
+const LIVE_RETRY_MS = 5000;
 
 /**
  * Enhanced API Client with Authentication
@@ -7,6 +9,10 @@ const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/a
 class ApiClient {
   constructor() {
     this.baseUrl = API_BASE_URL;
+    this.liveHandlers = new Map();
+    this.liveSource = null;
+    this.liveConnecting = false;
+    this.liveRetry = null;
   }
 
   /**
@@ -243,6 +249,98 @@ class ApiClient {
     });
   }
 
+  // ==================== Live Updates ====================
+
+  /**
+   * Subscribe to a live update event ('notification', 'kpi' or 'dashboard').
+   * All subscribers share one EventSource. EventSource cannot send the Authorization header,
+   * so each (re)connect opens the stream with a short-lived ticket. Returns an unsubscribe function.
+   */
+  onLiveUpdate(eventName, handler) {
+    if (!this.liveHandlers.has(eventName)) {
+      this.liveHandlers.set(eventName, new Set());
+    }
+    this.liveHandlers.get(eventName).add(handler);
+    this.openLiveStream();
+    return () => {
+      const handlers = this.liveHandlers.get(eventName);
+      if (handlers) {
+        handlers.delete(handler);
+        if (handlers.size === 0) {
+          this.liveHandlers.delete(eventName);
+        }
+      }
+      if (this.liveHandlers.size === 0) {
+        this.closeLiveStream();
+      }
+    };
+  }
+
+  async openLiveStream() {
+    if (this.liveSource || this.liveConnecting || typeof window === 'undefined' || !this.getToken()) {
+      return;
+    }
+    this.liveConnecting = true;
+    try {
+      const { ticket } = await this.request('/live/ticket', { method: 'POST' });
+      if (this.liveHandlers.size === 0) {
+        return;
+      }
+      const source = new EventSource(`${this.baseUrl}/live/stream?ticket=${encodeURIComponent(ticket)}`);
+      LIVE_EVENTS.forEach((eventName) => {
+        source.addEventListener(eventName, (event) => this.dispatchLiveUpdate(eventName, event.data));
+      });
+      // The ticket may have expired by the time EventSource retries, so reconnect with a new one
+      source.onerror = () => {
+        source.close();
+        if (this.liveSource === source) {
+          this.liveSource = null;
+          this.scheduleLiveReconnect();
+        }
+      };
+      this.liveSource = source;
+    } catch (error) {
+      console.error('Failed to open live updates:', error);
+      this.scheduleLiveReconnect();
+    } finally {
+      this.liveConnecting = false;
+    }
+  }
+
+  scheduleLiveReconnect() {
+    if (this.liveRetry || this.liveHandlers.size === 0) {
+      return;
+    }
+    this.liveRetry = setTimeout(() => {
+      this.liveRetry = null;
+      this.openLiveStream();
+    }, LIVE_RETRY_MS);
+  }
+
+  closeLiveStream() {
+    if (this.liveRetry) {
+      clearTimeout(this.liveRetry);
+      this.liveRetry = null;
+    }
+    if (this.liveSource) {
+      this.liveSource.close();
+      this.liveSource = null;
+    }
+  }
+
+  dispatchLiveUpdate(eventName, data) {
+    const handlers = this.liveHandlers.get(eventName);
+    if (!handlers) {
+      return;
+    }
+    try {
+      const payload = this.safeJsonParse(data, 'Invalid live update');
+      handlers.forEach((handler) => handler(payload));
+    } catch (error) {
+      console.error(`Failed to handle live update ${eventName}:`, error);
+    }
+  }
+
   // ==================== Customers ====================
 
   async getCustomers(filters = {}) {
@@ -270,10 +368,13 @@ class ApiClient {
     return this.safeJsonParse(text, 'Failed to preview upload');
   }
 
-  async uploadCustomers(file) {
+  async uploadCustomers(file, previewToken) {
     const token = this.getToken();
     const formData = new FormData();
     formData.append('file', file);
+    if (previewToken) {
+      formData.append('previewToken', previewToken);
+    }
     const response = await fetch(`${this.baseUrl}/customer-uploads`, {
       method: 'POST',
       headers: {
@@ -294,6 +395,10 @@ class ApiClient {
     return this.request('/customer-uploads/history');
   }
 
+  async getCustomerUploadProgress(uploadId) {
+    return this.request(`/customer-uploads/${uploadId}/progress`);
+  }
+
   safeJsonParse(text, fallbackMessage) {
     if (!text) {
       throw new Error(fallbackMessage || 'Invalid server response');